@@ -0,0 +1,177 @@
+package com.example.crossword.metrics;
+
+import androidx.annotation.NonNull;
+
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how long each user interaction takes to reach the screen.
+ *
+ * <p>An interaction runs from {@link #startEvent()}, called when a keystroke, hint or check is
+ * handled, until the next one starts. Within it the first {@link #onBind()} and the first
+ * {@link #onDraw()} record their delay from the start, and the number of binds is recorded when the
+ * interaction ends. Event bookkeeping is confined to the main thread; the histograms can be read
+ * from any thread.</p>
+ *
+ * <p>Clue rows also count how often their text had to be measured on the main thread rather than
+ * arriving precomputed; see {@link #onClueTextBound}.</p>
+ *
+ * <p>While disabled every hook returns after one field read.</p>
+ */
+public class InteractionMetrics {
+    private static final InteractionMetrics SHARED = new InteractionMetrics(NanoClock.SYSTEM);
+
+    private final NanoClock clock;
+    private final LatencyHistogram inputToBind = new LatencyHistogram();
+    private final LatencyHistogram inputToDraw = new LatencyHistogram();
+    private final LatencyHistogram bindsPerEvent = new LatencyHistogram();
+    private final AtomicLong measuredClueTexts = new AtomicLong();
+    private final AtomicLong precomputedClueTexts = new AtomicLong();
+
+    private volatile boolean enabled;
+    private boolean inEvent;
+    private boolean drawn;
+    private long eventStart;
+    private int binds;
+
+    public InteractionMetrics(@NonNull NanoClock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the instance shared by the app's views.
+     */
+    @NonNull
+    public static InteractionMetrics get() {
+        return SHARED;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns recording on or off. Turning it off drops the interaction in progress but keeps the
+     * recorded histograms.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        inEvent = false;
+    }
+
+    /**
+     * Starts a new interaction, ending the previous one.
+     */
+    public void startEvent() {
+        if (!enabled) {
+            return;
+        }
+        finishEvent();
+        inEvent = true;
+        drawn = false;
+        binds = 0;
+        eventStart = clock.nanoTime();
+    }
+
+    /**
+     * Records that a cell or clue row was re-rendered.
+     */
+    public void onBind() {
+        if (!enabled || !inEvent) {
+            return;
+        }
+        if (binds++ == 0) {
+            inputToBind.record(clock.nanoTime() - eventStart);
+        }
+    }
+
+    /**
+     * Records that the grid was drawn to the screen.
+     */
+    public void onDraw() {
+        if (!enabled || !inEvent || drawn) {
+            return;
+        }
+        drawn = true;
+        inputToDraw.record(clock.nanoTime() - eventStart);
+    }
+
+    /**
+     * Records that a clue row was given its text, either with a layout measured in the background
+     * or as plain text that the main thread measures when the row is laid out.
+     */
+    public void onClueTextBound(boolean precomputed) {
+        if (!enabled) {
+            return;
+        }
+        (precomputed ? precomputedClueTexts : measuredClueTexts).incrementAndGet();
+    }
+
+    /**
+     * Ends the current interaction, if any, and records its bind count.
+     */
+    public void finishEvent() {
+        if (!inEvent) {
+            return;
+        }
+        inEvent = false;
+        bindsPerEvent.record(binds);
+    }
+
+    @NonNull
+    public LatencyHistogram getInputToBind() {
+        return inputToBind;
+    }
+
+    @NonNull
+    public LatencyHistogram getInputToDraw() {
+        return inputToDraw;
+    }
+
+    @NonNull
+    public LatencyHistogram getBindsPerEvent() {
+        return bindsPerEvent;
+    }
+
+    public long getMeasuredClueTexts() {
+        return measuredClueTexts.get();
+    }
+
+    public long getPrecomputedClueTexts() {
+        return precomputedClueTexts.get();
+    }
+
+    public void reset() {
+        inputToBind.reset();
+        inputToDraw.reset();
+        bindsPerEvent.reset();
+        measuredClueTexts.set(0);
+        precomputedClueTexts.set(0);
+    }
+
+    /**
+     * Writes p50, p99 and max of every histogram, one line each.
+     */
+    public void dump(@NonNull String prefix, @NonNull PrintWriter writer) {
+        writer.print(prefix);
+        writer.println(enabled ? "Interaction metrics:" : "Interaction metrics (disabled):");
+        dumpLatency(prefix, writer, "input to first bind", inputToBind);
+        dumpLatency(prefix, writer, "input to grid draw", inputToDraw);
+        writer.print(prefix);
+        writer.println(String.format(Locale.US, "  binds per event: n=%d p50=%d p99=%d max=%d",
+                bindsPerEvent.getCount(), bindsPerEvent.getValueAtPercentile(50),
+                bindsPerEvent.getValueAtPercentile(99), bindsPerEvent.getMaxValue()));
+        writer.print(prefix);
+        writer.println(String.format(Locale.US, "  clue texts bound: measured on main thread=%d precomputed=%d",
+                measuredClueTexts.get(), precomputedClueTexts.get()));
+    }
+
+    private static void dumpLatency(String prefix, PrintWriter writer, String name, LatencyHistogram histogram) {
+        writer.print(prefix);
+        writer.println(String.format(Locale.US, "  %s: n=%d p50=%.2fms p99=%.2fms max=%.2fms", name,
+                histogram.getCount(), histogram.getValueAtPercentile(50) / 1e6,
+                histogram.getValueAtPercentile(99) / 1e6, histogram.getMaxValue() / 1e6));
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.crossword.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size histogram of non-negative values with bounded relative error, in the style of
+ * HdrHistogram.
+ *
+ * <p>Values below {@value #SUB_BUCKETS} get a bucket each; above that every power of two is split
+ * into {@value #SUB_BUCKETS}/2 equal buckets, so a reported value is within about 6% of the
+ * recorded one. All counts live in one {@link AtomicLongArray} allocated up front, so
+ * {@link #record} never allocates or locks and a reader on another thread sees a consistent count
+ * per bucket.</p>
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_BUCKETS = SUB_BUCKETS / 2;
+    // Enough buckets for Long.MAX_VALUE, whose top bit is bit 62.
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * HALF_BUCKETS + HALF_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+    /**
+     * Adds one occurrence of {@code value}; negative values count as zero.
+     */
+    public void record(long value) {
+        counts.incrementAndGet(bucketOf(Math.max(0, value)));
+    }
+
+    public long getCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the largest value that falls in the same bucket as the value at {@code percentile},
+     * or 0 if nothing was recorded.
+     *
+     * @param percentile between 0 and 100
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return highestValueIn(i);
+            }
+        }
+        return highestValueIn(BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Returns the largest recorded value, rounded up to its bucket, or 0 if nothing was recorded.
+     */
+    public long getMaxValue() {
+        for (int i = BUCKET_COUNT - 1; i >= 0; i--) {
+            if (counts.get(i) != 0) {
+                return highestValueIn(i);
+            }
+        }
+        return 0;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    static int bucketOf(long value) {
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS + 1);
+        return shift * HALF_BUCKETS + (int) (value >>> shift);
+    }
+
+    static long highestValueIn(int bucket) {
+        int shift = Math.max(0, bucket / HALF_BUCKETS - 1);
+        long lowest = (long) (bucket - shift * HALF_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
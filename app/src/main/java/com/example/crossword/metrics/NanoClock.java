@@ -0,0 +1,11 @@
+package com.example.crossword.metrics;
+
+/**
+ * Source of monotonic timestamps, so timing code can run against a fake clock on the JVM.
+ */
+public interface NanoClock {
+
+    NanoClock SYSTEM = System::nanoTime;
+
+    long nanoTime();
+}
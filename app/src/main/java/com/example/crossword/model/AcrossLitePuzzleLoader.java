@@ -0,0 +1,225 @@
+package com.example.crossword.model;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Loads puzzles stored in the Across Lite {@code .puz} binary format.
+ *
+ * <p>The header, solution and player grid are read into byte arrays and every checksum in the
+ * header is verified incrementally while the file is consumed. Trailing extension sections
+ * (rebus tables, timers and the like) are ignored.</p>
+ *
+ * <p>Instances reuse their buffers and are not thread-safe. The string section is read in chunks,
+ * so the loader may consume the stream past the notes.</p>
+ */
+public class AcrossLitePuzzleLoader implements PuzzleLoader {
+
+    static final int HEADER_LENGTH = 0x34;
+    static final byte[] MAGIC = "ACROSS&DOWN\0".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int OFFSET_CHECKSUM = 0x00;
+    private static final int OFFSET_MAGIC = 0x02;
+    private static final int OFFSET_CIB_CHECKSUM = 0x0E;
+    private static final int OFFSET_MASKED_LOW = 0x10;
+    private static final int OFFSET_MASKED_HIGH = 0x14;
+    private static final int OFFSET_VERSION = 0x18;
+    private static final int OFFSET_CIB = 0x2C;
+    private static final int CIB_LENGTH = 8;
+    private static final int OFFSET_WIDTH = 0x2C;
+    private static final int OFFSET_HEIGHT = 0x2D;
+    private static final int OFFSET_CLUE_COUNT = 0x2E;
+    private static final int OFFSET_SCRAMBLED = 0x32;
+    private static final byte[] MASK = "ICHEATED".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte PUZ_BLOCK = '.';
+    private static final int MIN_ENTRY_LENGTH = 2;
+
+    private static final int READ_BUFFER_LENGTH = 4096;
+
+    private byte[] scratch = new byte[256];
+    private int scratchLength;
+    private final byte[] readBuffer = new byte[READ_BUFFER_LENGTH];
+    private int readPosition;
+    private int readLimit;
+
+    @NonNull
+    @Override
+    public CrosswordPuzzle load(@NonNull InputStream in) throws IOException {
+        readPosition = 0;
+        readLimit = 0;
+        byte[] header = new byte[HEADER_LENGTH];
+        readFully(in, header, "header");
+
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header[OFFSET_MAGIC + i] != MAGIC[i]) {
+                throw new PuzzleFormatException("Missing ACROSS&DOWN file magic");
+            }
+        }
+        if (readShort(header, OFFSET_SCRAMBLED) != 0) {
+            throw new PuzzleFormatException("Scrambled puzzles are not supported");
+        }
+
+        int width = header[OFFSET_WIDTH] & 0xFF;
+        int height = header[OFFSET_HEIGHT] & 0xFF;
+        int clueCount = readShort(header, OFFSET_CLUE_COUNT);
+        if (width == 0 || height == 0) {
+            throw new PuzzleFormatException("Invalid grid size " + width + "x" + height);
+        }
+
+        int cibChecksum = checksum(header, OFFSET_CIB, CIB_LENGTH, 0);
+        if (cibChecksum != readShort(header, OFFSET_CIB_CHECKSUM)) {
+            throw new PuzzleFormatException("Header checksum mismatch");
+        }
+
+        int cellCount = width * height;
+        byte[] solution = new byte[cellCount];
+        byte[] playerGrid = new byte[cellCount];
+        readFully(in, solution, "solution grid");
+        readFully(in, playerGrid, "player grid");
+        int solutionChecksum = checksum(solution, 0, cellCount, 0);
+        int gridChecksum = checksum(playerGrid, 0, cellCount, 0);
+
+        // The overall checksum chains the header block, both grids and the strings; the "part"
+        // checksum covers the strings alone.
+        int overall = checksum(playerGrid, 0, cellCount, checksum(solution, 0, cellCount, cibChecksum));
+        int part = 0;
+
+        String title = readString(in, "title");
+        overall = checksumString(overall, true);
+        part = checksumString(part, true);
+        readString(in, "author");
+        overall = checksumString(overall, true);
+        part = checksumString(part, true);
+        readString(in, "copyright");
+        overall = checksumString(overall, true);
+        part = checksumString(part, true);
+
+        String[] clues = new String[clueCount];
+        for (int i = 0; i < clueCount; i++) {
+            clues[i] = readString(in, "clues");
+            overall = checksumString(overall, false);
+            part = checksumString(part, false);
+        }
+
+        readString(in, "notes");
+        if (versionAtLeast(header, 1, 3)) {
+            overall = checksumString(overall, true);
+            part = checksumString(part, true);
+        }
+
+        if (overall != readShort(header, OFFSET_CHECKSUM)) {
+            throw new PuzzleFormatException("File checksum mismatch");
+        }
+        int[] parts = {cibChecksum, solutionChecksum, gridChecksum, part};
+        for (int i = 0; i < parts.length; i++) {
+            if ((header[OFFSET_MASKED_LOW + i] & 0xFF) != ((MASK[i] ^ parts[i]) & 0xFF)
+                    || (header[OFFSET_MASKED_HIGH + i] & 0xFF) != ((MASK[i + 4] ^ (parts[i] >> 8)) & 0xFF)) {
+                throw new PuzzleFormatException("Masked checksum mismatch");
+            }
+        }
+
+        char[] layout = new char[cellCount];
+        for (int i = 0; i < cellCount; i++) {
+            byte b = solution[i];
+            if (b == PUZ_BLOCK) {
+                layout[i] = PuzzleData.BLOCK;
+            } else if (PuzzleBoard.normalize((char) b) != PuzzleBoard.EMPTY) {
+                layout[i] = (char) b;
+            } else {
+                throw new PuzzleFormatException("Unexpected solution character 0x"
+                        + Integer.toHexString(b & 0xFF) + " at cell " + i);
+            }
+        }
+
+        Iterator<String> clueTexts = Arrays.asList(clues).iterator();
+        CrosswordPuzzle puzzle;
+        try {
+            // Across Lite stores clues interleaved by number, across before down, and only runs
+            // of two or more cells are entries.
+            puzzle = PuzzleData.buildPuzzle(title.isEmpty() ? null : title, height, width, layout,
+                    MIN_ENTRY_LENGTH, clueTexts, clueTexts);
+        } catch (IllegalArgumentException e) {
+            throw new PuzzleFormatException("Grid needs more than the " + clueCount + " clues in the file", e);
+        }
+        if (clueTexts.hasNext()) {
+            throw new PuzzleFormatException("Grid needs fewer than the " + clueCount + " clues in the file");
+        }
+        return puzzle;
+    }
+
+    /**
+     * Reads a NUL-terminated ISO-8859-1 string into the scratch buffer and decodes it.
+     */
+    private String readString(InputStream in, String what) throws IOException {
+        scratchLength = 0;
+        while (true) {
+            if (readPosition == readLimit) {
+                readLimit = in.read(readBuffer, 0, READ_BUFFER_LENGTH);
+                readPosition = 0;
+                if (readLimit <= 0) {
+                    readLimit = 0;
+                    throw new PuzzleFormatException("Unexpected end of file in " + what);
+                }
+            }
+            byte b = readBuffer[readPosition++];
+            if (b == 0) {
+                return new String(scratch, 0, scratchLength, StandardCharsets.ISO_8859_1);
+            }
+            if (scratchLength == scratch.length) {
+                scratch = Arrays.copyOf(scratch, scratchLength * 2);
+            }
+            scratch[scratchLength++] = b;
+        }
+    }
+
+    /**
+     * Folds the string last read by {@link #readString} into {@code sum}. Empty strings are skipped
+     * and, when {@code withTerminator} is set, the NUL terminator is included as well.
+     */
+    private int checksumString(int sum, boolean withTerminator) {
+        if (scratchLength == 0) {
+            return sum;
+        }
+        sum = checksum(scratch, 0, scratchLength, sum);
+        return withTerminator ? checksum(0, sum) : sum;
+    }
+
+    static int checksum(byte[] data, int offset, int length, int sum) {
+        for (int i = offset; i < offset + length; i++) {
+            sum = checksum(data[i], sum);
+        }
+        return sum;
+    }
+
+    private static int checksum(int b, int sum) {
+        sum = (sum & 1) != 0 ? (sum >> 1) + 0x8000 : sum >> 1;
+        return (sum + (b & 0xFF)) & 0xFFFF;
+    }
+
+    private static boolean versionAtLeast(byte[] header, int major, int minor) {
+        int fileMajor = header[OFFSET_VERSION] - '0';
+        int fileMinor = header[OFFSET_VERSION + 1] == '.' ? header[OFFSET_VERSION + 2] - '0' : 0;
+        return fileMajor > major || (fileMajor == major && fileMinor >= minor);
+    }
+
+    private static int readShort(byte[] data, int offset) {
+        return (data[offset] & 0xFF) | (data[offset + 1] & 0xFF) << 8;
+    }
+
+    private static void readFully(InputStream in, byte[] target, String what) throws IOException {
+        int read = 0;
+        while (read < target.length) {
+            int count = in.read(target, read, target.length - read);
+            if (count < 0) {
+                throw new PuzzleFormatException("Unexpected end of file in " + what);
+            }
+            read += count;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.crossword.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Applies a run of cell edits to a {@link PuzzleSession} as one step, such as revealing a word,
+ * typing a pasted answer or clearing the grid.
+ *
+ * <p>Each {@link #set} updates the board, the progress counters and the history straight away,
+ * inside one history group so that a single undo reverts the whole run. A transaction can instead
+ * carry one {@link #undo()} or {@link #redo()} step, which may change many cells too. Clue solved
+ * flags are settled once in {@link #commit()}, which reports each changed cell and each clue whose
+ * flag flipped exactly once, however many of its cells changed, so the UI can refresh in one
+ * pass.</p>
+ *
+ * <p>Each session owns one transaction, sized to its grid and clue lists, and
+ * {@link PuzzleSession#beginTransaction()} resets it in place, so edits and undo/redo presses
+ * allocate nothing here. Not thread-safe; a transaction must be committed before the history is
+ * touched again.</p>
+ */
+public class BoardTransaction {
+    private final PuzzleBoard board;
+    private final ClueProgressTracker clueTracker;
+    private final SolveProgressTracker progress;
+    private final SolveHistory history;
+
+    private final int[] changedCells;
+    private final boolean[] isChanged;
+    private int changedSize;
+
+    private final int[] changedAcross;
+    private final boolean[] isAcrossChanged;
+    private int changedAcrossSize;
+    private final int[] changedDown;
+    private final boolean[] isDownChanged;
+    private int changedDownSize;
+
+    private final SolveHistory.StepListener onStepChange = this::onCellChanged;
+
+    private boolean grouping;
+    private boolean committed;
+
+    BoardTransaction(@NonNull PuzzleSession session) {
+        board = session.getBoard();
+        clueTracker = session.getClueTracker();
+        progress = session.getProgress();
+        history = session.getHistory();
+        changedCells = new int[board.getCellCount()];
+        isChanged = new boolean[board.getCellCount()];
+        int acrossCount = session.getPuzzle().getAcrossClues().size();
+        int downCount = session.getPuzzle().getDownClues().size();
+        changedAcross = new int[acrossCount];
+        isAcrossChanged = new boolean[acrossCount];
+        changedDown = new int[downCount];
+        isDownChanged = new boolean[downCount];
+        committed = true;
+    }
+
+    /**
+     * Clears the changes of the previous run, touching only the entries it marked.
+     */
+    void reset() {
+        for (int k = 0; k < changedSize; k++) {
+            isChanged[changedCells[k]] = false;
+        }
+        for (int k = 0; k < changedAcrossSize; k++) {
+            isAcrossChanged[changedAcross[k]] = false;
+        }
+        for (int k = 0; k < changedDownSize; k++) {
+            isDownChanged[changedDown[k]] = false;
+        }
+        changedSize = 0;
+        changedAcrossSize = 0;
+        changedDownSize = 0;
+        grouping = false;
+        committed = false;
+    }
+
+    /**
+     * Sets the entry and status of an open cell, logging the edit as {@code eventType}.
+     *
+     * @param eventType {@link SolveHistory#EVENT_TYPED}, {@link SolveHistory#EVENT_ERASED} or
+     *                  {@link SolveHistory#EVENT_HINTED}
+     * @return whether the cell changed
+     */
+    public boolean set(int cell, char entry, byte status, int eventType) {
+        checkOpen();
+        char previous = board.getEntry(cell);
+        byte previousStatus = board.getStatus(cell);
+        if (board.isBlock(cell) || (previous == entry && previousStatus == status)) {
+            return false;
+        }
+        if (!grouping) {
+            history.beginGroup();
+            grouping = true;
+        }
+        board.setEntry(cell, entry);
+        board.setStatus(cell, status);
+        history.recordEdit(eventType, cell, previous, previousStatus, entry, status);
+        onCellChanged(cell, previous);
+        return true;
+    }
+
+    /**
+     * Reverts the most recent history step as part of this transaction.
+     *
+     * @return the step's first cell, or -1 if there was nothing to undo
+     */
+    public int undo() {
+        checkOpen();
+        return history.undo(board, onStepChange);
+    }
+
+    /**
+     * Re-applies the most recently undone history step as part of this transaction.
+     *
+     * @return the step's first cell, or -1 if there was nothing to redo
+     */
+    public int redo() {
+        checkOpen();
+        return history.redo(board, onStepChange);
+    }
+
+    private void onCellChanged(int cell, char previous) {
+        progress.onEntryChanged(cell, previous);
+        if (!isChanged[cell]) {
+            isChanged[cell] = true;
+            changedCells[changedSize++] = cell;
+        }
+    }
+
+    private void checkOpen() {
+        if (committed) {
+            throw new IllegalStateException("Transaction already committed");
+        }
+    }
+
+    /**
+     * Closes the history group and settles the solved flags of every clue through a changed cell.
+     *
+     * @return the number of changed cells
+     */
+    public int commit() {
+        checkOpen();
+        committed = true;
+        if (grouping) {
+            history.endGroup();
+        }
+        for (int k = 0; k < changedSize; k++) {
+            int cell = changedCells[k];
+            int changed = clueTracker.setCellCorrect(cell, board.isCorrect(cell));
+            // A clue can flip twice while its cells are settled one by one, so each is listed once.
+            if ((changed & ClueProgressTracker.CHANGED_ACROSS) != 0) {
+                int clue = clueTracker.getAcrossClueIndex(cell);
+                if (!isAcrossChanged[clue]) {
+                    isAcrossChanged[clue] = true;
+                    changedAcross[changedAcrossSize++] = clue;
+                }
+            }
+            if ((changed & ClueProgressTracker.CHANGED_DOWN) != 0) {
+                int clue = clueTracker.getDownClueIndex(cell);
+                if (!isDownChanged[clue]) {
+                    isDownChanged[clue] = true;
+                    changedDown[changedDownSize++] = clue;
+                }
+            }
+        }
+        return changedSize;
+    }
+
+    /**
+     * Returns the cells that changed, in the order they were first set.
+     */
+    @NonNull
+    public int[] getChangedCells() {
+        return Arrays.copyOf(changedCells, changedSize);
+    }
+
+    /**
+     * Returns the indexes, within their direction's clue list, of the clues whose solved flag
+     * changed at some point during {@link #commit()}; it may have changed back.
+     */
+    @NonNull
+    public int[] getChangedClues(@NonNull CrosswordClue.Direction direction) {
+        return direction == CrosswordClue.Direction.ACROSS
+                ? Arrays.copyOf(changedAcross, changedAcrossSize)
+                : Arrays.copyOf(changedDown, changedDownSize);
+    }
+}
@@ -0,0 +1,342 @@
+package com.example.crossword.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Tracks which letters can still go in each open cell, given the letters entered so far and a
+ * {@link WordDictionary}.
+ *
+ * <p>Each entry keeps two word bitsets. Its pattern words match its own entered letters. Its
+ * candidate words are the pattern words whose letter at every empty cell can also be placed there
+ * by some pattern word of the crossing entry. A cell's candidates are the letters that the
+ * candidate words of both of its entries can place there, as a 26-bit mask (bit 0 = A).</p>
+ *
+ * <p>That is one round of arc revision between each entry and its crossings, not a fixed point.
+ * Removing a letter can widen candidates anywhere a fixed point had narrowed them, so keeping one
+ * would mean rebuilding the whole grid on every erase. With one round, an edit only touches the
+ * entries through the edited cell and the entries crossing those, however large the grid.</p>
+ *
+ * <p>Entries of one letter, and cells that belong to no entry, allow every letter. The tracker
+ * reads the board but never writes it; it is not thread-safe.</p>
+ */
+public class CandidateTracker {
+    public static final int ALL_LETTERS = (1 << WordIndex.ALPHABET) - 1;
+
+    // Below this many words per bitset long, projecting reads each word's letters instead of
+    // testing one bitset per letter.
+    private static final int SCAN_WORDS_PER_LONG = 16;
+
+    private final PuzzleBoard board;
+    private final SlotGrid slots;
+    private final WordDictionary dictionary;
+
+    private final char[] entries;
+    private final int[] cellCandidates;
+
+    private final long[][] patternWords;
+    private final int[][] patternLetters;
+    private final long[][] candidateWords;
+    private final int[][] candidateLetters;
+    private final long[][] scratch;
+
+    private final int[] pending;
+    private final int[] pendingStamp;
+    private int stamp;
+
+    /**
+     * Computes the candidates of every cell. This visits the whole grid, so run it off the main
+     * thread; {@link #onEntryChanged} keeps them current afterwards.
+     */
+    public CandidateTracker(@NonNull PuzzleBoard board, @NonNull SlotGrid slots,
+                            @NonNull WordDictionary dictionary) {
+        this.board = board;
+        this.slots = slots;
+        this.dictionary = dictionary;
+
+        int cellCount = board.getCellCount();
+        int slotCount = slots.getSlotCount();
+        entries = new char[cellCount];
+        cellCandidates = new int[cellCount];
+        patternWords = new long[slotCount][];
+        patternLetters = new int[slotCount][];
+        candidateWords = new long[slotCount][];
+        candidateLetters = new int[slotCount][];
+        scratch = new long[dictionary.getMaxLength() + 1][];
+        for (int slot = 0; slot < slotCount; slot++) {
+            int length = slots.getLength(slot);
+            int words = dictionary.getMaskWords(length);
+            patternWords[slot] = new long[words];
+            candidateWords[slot] = new long[words];
+            patternLetters[slot] = new int[length];
+            candidateLetters[slot] = new int[length];
+            if (words > 0 && scratch[length] == null) {
+                scratch[length] = new long[words];
+            }
+        }
+        pending = new int[slotCount];
+        pendingStamp = new int[slotCount];
+
+        for (int cell = 0; cell < cellCount; cell++) {
+            entries[cell] = board.getEntry(cell);
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            matchPattern(slot);
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            revise(slot);
+        }
+        for (int cell = 0; cell < cellCount; cell++) {
+            updateCell(cell);
+        }
+    }
+
+    /**
+     * Returns the letters that can still go in {@code cell}, as a mask with bit 0 for A. An open
+     * cell whose mask is 0 holds, or can only hold, a letter that no word fits.
+     */
+    public int getCandidates(int cell) {
+        return cellCandidates[cell];
+    }
+
+    public int getCandidateCount(int cell) {
+        return Integer.bitCount(cellCandidates[cell]);
+    }
+
+    /**
+     * Returns {@code true} if {@code cell} holds a letter and no words fit it together with the
+     * letters around it.
+     */
+    public boolean isImpossible(int cell) {
+        return entries[cell] != PuzzleBoard.EMPTY && cellCandidates[cell] == 0;
+    }
+
+    /**
+     * Re-reads the entry at {@code cell} and updates the candidates it affects, reporting each
+     * cell whose candidates changed to {@code onCandidatesChanged}.
+     *
+     * @return {@code true} if the entry had changed since the tracker last read it
+     */
+    public boolean onEntryChanged(int cell, @Nullable IntConsumer onCandidatesChanged) {
+        char entry = board.getEntry(cell);
+        if (entry == entries[cell] || board.isBlock(cell)) {
+            return false;
+        }
+        entries[cell] = entry;
+
+        stamp++;
+        int size = 0;
+        int across = slots.getAcrossSlot(cell);
+        int down = slots.getDownSlot(cell);
+        if (across >= 0) {
+            matchPattern(across);
+            size = queueWithCrossings(across, size);
+        }
+        if (down >= 0) {
+            matchPattern(down);
+            size = queueWithCrossings(down, size);
+        }
+        for (int i = 0; i < size; i++) {
+            revise(pending[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            int slot = pending[i];
+            for (int p = 0; p < slots.getLength(slot); p++) {
+                int changed = slots.getCell(slot, p);
+                if (updateCell(changed) && onCandidatesChanged != null) {
+                    onCandidatesChanged.accept(changed);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Catches up with entries changed without {@link #onEntryChanged}, for instance while the
+     * tracker was being built on another thread.
+     *
+     * @return the number of cells that had changed
+     */
+    public int refresh() {
+        int changed = 0;
+        for (int cell = 0; cell < entries.length; cell++) {
+            if (onEntryChanged(cell, null)) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    private int queueWithCrossings(int slot, int size) {
+        size = queue(slot, size);
+        for (int p = 0; p < slots.getLength(slot); p++) {
+            int crossing = slots.getCrossingSlot(slot, p);
+            if (crossing >= 0) {
+                size = queue(crossing, size);
+            }
+        }
+        return size;
+    }
+
+    private int queue(int slot, int size) {
+        if (pendingStamp[slot] != stamp) {
+            pendingStamp[slot] = stamp;
+            pending[size++] = slot;
+        }
+        return size;
+    }
+
+    private static boolean isChecked(int length) {
+        return length > 1;
+    }
+
+    /**
+     * Recomputes the pattern words of {@code slot} and the letters they place.
+     */
+    private void matchPattern(int slot) {
+        int length = slots.getLength(slot);
+        int[] letters = patternLetters[slot];
+        if (!isChecked(length)) {
+            Arrays.fill(letters, ALL_LETTERS);
+            return;
+        }
+        long[] words = patternWords[slot];
+        dictionary.fillAll(length, words);
+        int count = dictionary.getWordCount(length);
+        for (int p = 0; p < length && count > 0; p++) {
+            char entry = entries[slots.getCell(slot, p)];
+            if (entry != PuzzleBoard.EMPTY) {
+                count = dictionary.retain(length, p, entry - 'A', false, words);
+            }
+        }
+        project(slot, length, words, count, letters);
+    }
+
+    /**
+     * Narrows the pattern words of {@code slot} to those that agree with the pattern letters of
+     * each crossing at its empty cells.
+     */
+    private void revise(int slot) {
+        int length = slots.getLength(slot);
+        int[] letters = candidateLetters[slot];
+        if (!isChecked(length)) {
+            Arrays.fill(letters, ALL_LETTERS);
+            return;
+        }
+        long[] words = candidateWords[slot];
+        System.arraycopy(patternWords[slot], 0, words, 0, words.length);
+        int count = count(words);
+        for (int p = 0; p < length && count > 0; p++) {
+            int crossing = slots.getCrossingSlot(slot, p);
+            if (crossing < 0 || entries[slots.getCell(slot, p)] != PuzzleBoard.EMPTY) {
+                continue;
+            }
+            int allowed = patternLetters[crossing][slots.getCrossingPosition(slot, p)];
+            if (allowed == ALL_LETTERS) {
+                continue;
+            }
+            count = retainLetters(length, p, allowed, words, count);
+        }
+        project(slot, length, words, count, letters);
+    }
+
+    /**
+     * Keeps the words with one of the {@code allowed} letters at {@code position}, by removing
+     * the disallowed letters or by intersecting with the union of the allowed ones, whichever
+     * reads fewer bitsets.
+     */
+    private int retainLetters(int length, int position, int allowed, long[] words, int count) {
+        if (Integer.bitCount(allowed) > WordIndex.ALPHABET / 2) {
+            for (int rest = ~allowed & ALL_LETTERS; rest != 0 && count > 0; rest &= rest - 1) {
+                count = dictionary.retain(length, position, Integer.numberOfTrailingZeros(rest), true, words);
+            }
+            return count;
+        }
+        long[] union = scratch[length];
+        Arrays.fill(union, 0);
+        for (int rest = allowed; rest != 0; rest &= rest - 1) {
+            dictionary.add(length, position, Integer.numberOfTrailingZeros(rest), union);
+        }
+        count = 0;
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= union[i];
+            count += Long.bitCount(words[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Sets {@code letters[p]} to the letters the {@code count} words in {@code words} place at
+     * each position.
+     */
+    private void project(int slot, int length, long[] words, int count, int[] letters) {
+        Arrays.fill(letters, 0);
+        if (count == 0) {
+            return;
+        }
+        for (int p = 0; p < length; p++) {
+            char entry = entries[slots.getCell(slot, p)];
+            if (entry != PuzzleBoard.EMPTY) {
+                // Every pattern word already has this letter here.
+                letters[p] = 1 << (entry - 'A');
+            }
+        }
+        if (count <= SCAN_WORDS_PER_LONG * words.length) {
+            for (int i = 0; i < words.length; i++) {
+                for (long bits = words[i]; bits != 0; bits &= bits - 1) {
+                    int id = (i << 6) + Long.numberOfTrailingZeros(bits);
+                    for (int p = 0; p < length; p++) {
+                        letters[p] |= 1 << dictionary.getLetter(length, id, p);
+                    }
+                }
+            }
+            return;
+        }
+        for (int p = 0; p < length; p++) {
+            if (letters[p] != 0) {
+                continue;
+            }
+            for (int letter = 0; letter < WordIndex.ALPHABET; letter++) {
+                if (dictionary.intersects(length, p, letter, words)) {
+                    letters[p] |= 1 << letter;
+                }
+            }
+        }
+    }
+
+    private boolean updateCell(int cell) {
+        if (board.isBlock(cell)) {
+            return false;
+        }
+        int across = slots.getAcrossSlot(cell);
+        int down = slots.getDownSlot(cell);
+        int candidates = ALL_LETTERS;
+        if (across >= 0) {
+            candidates &= candidateLetters[across][positionOf(across, cell)];
+        }
+        if (down >= 0) {
+            candidates &= candidateLetters[down][positionOf(down, cell)];
+        }
+        if (candidates == cellCandidates[cell]) {
+            return false;
+        }
+        cellCandidates[cell] = candidates;
+        return true;
+    }
+
+    private int positionOf(int slot, int cell) {
+        int first = slots.getCell(slot, 0);
+        return slots.isAcross(slot) ? cell - first : (cell - first) / slots.getColumns();
+    }
+
+    private static int count(long[] words) {
+        int count = 0;
+        for (long value : words) {
+            count += Long.bitCount(value);
+        }
+        return count;
+    }
+}
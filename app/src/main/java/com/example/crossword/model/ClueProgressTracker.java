@@ -0,0 +1,149 @@
+package com.example.crossword.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Tracks which clues are solved without rescanning the grid.
+ *
+ * <p>A cell-to-clue reverse index is built once from {@link CrosswordClue#getPositions()} and every
+ * clue keeps a count of its correctly filled cells, so a single cell change only touches the (at most
+ * two) clues that run through it.</p>
+ *
+ * <p>It also keeps the unsolved clues as a bit set in {@link SlotGrid} slot order, so finding the
+ * next clue to solve scans a handful of words instead of every clue.</p>
+ */
+public class ClueProgressTracker {
+
+    /** Returned by {@link #setCellCorrect(int, boolean)} when the across clue's solved flag flipped. */
+    public static final int CHANGED_ACROSS = 1;
+    /** Returned by {@link #setCellCorrect(int, boolean)} when the down clue's solved flag flipped. */
+    public static final int CHANGED_DOWN = 1 << 1;
+
+    private final List<CrosswordClue> acrossClues;
+    private final List<CrosswordClue> downClues;
+    private final int[] acrossClueOfCell;
+    private final int[] downClueOfCell;
+    private final int[] acrossLengths;
+    private final int[] downLengths;
+    private final int[] acrossCorrect;
+    private final int[] downCorrect;
+    private final boolean[] cellCorrect;
+    private final BitSet unsolvedSlots;
+
+    public ClueProgressTracker(@NonNull CrosswordPuzzle puzzle) {
+        int columns = puzzle.getColumns();
+        int cellCount = puzzle.getRows() * columns;
+
+        acrossClues = puzzle.getAcrossClues();
+        downClues = puzzle.getDownClues();
+        acrossClueOfCell = buildReverseIndex(acrossClues, cellCount, columns);
+        downClueOfCell = buildReverseIndex(downClues, cellCount, columns);
+        acrossLengths = buildLengths(acrossClues);
+        downLengths = buildLengths(downClues);
+        acrossCorrect = new int[acrossClues.size()];
+        downCorrect = new int[downClues.size()];
+        cellCorrect = new boolean[cellCount];
+        unsolvedSlots = new BitSet(acrossClues.size() + downClues.size());
+        unsolvedSlots.set(0, acrossClues.size() + downClues.size());
+        // The counts start at zero, so flags left over from an earlier session on a cached puzzle must go.
+        for (CrosswordClue clue : acrossClues) {
+            clue.setSolved(false);
+        }
+        for (CrosswordClue clue : downClues) {
+            clue.setSolved(false);
+        }
+    }
+
+    private static int[] buildReverseIndex(List<CrosswordClue> clues, int cellCount, int columns) {
+        int[] index = new int[cellCount];
+        Arrays.fill(index, -1);
+        for (int i = 0; i < clues.size(); i++) {
+            for (CrosswordClue.Position position : clues.get(i).getPositions()) {
+                index[position.getRow() * columns + position.getColumn()] = i;
+            }
+        }
+        return index;
+    }
+
+    private static int[] buildLengths(List<CrosswordClue> clues) {
+        int[] lengths = new int[clues.size()];
+        for (int i = 0; i < lengths.length; i++) {
+            lengths[i] = clues.get(i).getPositions().size();
+        }
+        return lengths;
+    }
+
+    /**
+     * Records whether the cell at {@code cellIndex} now holds its solution letter.
+     *
+     * @return a combination of {@link #CHANGED_ACROSS} and {@link #CHANGED_DOWN} describing which
+     * clues changed their solved state, or {@code 0} if none did.
+     */
+    public int setCellCorrect(int cellIndex, boolean correct) {
+        if (cellCorrect[cellIndex] == correct) {
+            return 0;
+        }
+        cellCorrect[cellIndex] = correct;
+
+        int delta = correct ? 1 : -1;
+        int changed = 0;
+        if (updateClue(acrossClues, acrossLengths, acrossCorrect, 0, acrossClueOfCell[cellIndex], delta)) {
+            changed |= CHANGED_ACROSS;
+        }
+        if (updateClue(downClues, downLengths, downCorrect, acrossClues.size(), downClueOfCell[cellIndex], delta)) {
+            changed |= CHANGED_DOWN;
+        }
+        return changed;
+    }
+
+    private boolean updateClue(List<CrosswordClue> clues, int[] lengths, int[] correctCounts,
+                               int firstSlot, int clueIndex, int delta) {
+        if (clueIndex < 0) {
+            return false;
+        }
+        correctCounts[clueIndex] += delta;
+        CrosswordClue clue = clues.get(clueIndex);
+        boolean solved = correctCounts[clueIndex] == lengths[clueIndex];
+        if (solved == clue.isSolved()) {
+            return false;
+        }
+        clue.setSolved(solved);
+        unsolvedSlots.set(firstSlot + clueIndex, !solved);
+        return true;
+    }
+
+    /**
+     * Returns the slot with the lowest id after {@code slot} whose clue is not solved, wrapping
+     * around; -1 if every other clue is solved. With {@code slot} -1 the search starts at slot 0,
+     * which it may return. Slot ids follow {@link SlotGrid}.
+     */
+    public int getNextUnsolvedSlot(int slot) {
+        int next = unsolvedSlots.nextSetBit(slot + 1);
+        if (next < 0) {
+            next = unsolvedSlots.nextSetBit(0);
+        }
+        return next == slot ? -1 : next;
+    }
+
+    public boolean isCellCorrect(int cellIndex) {
+        return cellCorrect[cellIndex];
+    }
+
+    /**
+     * Returns the position of the across clue covering the cell within the across clue list, or -1.
+     */
+    public int getAcrossClueIndex(int cellIndex) {
+        return acrossClueOfCell[cellIndex];
+    }
+
+    /**
+     * Returns the position of the down clue covering the cell within the down clue list, or -1.
+     */
+    public int getDownClueIndex(int cellIndex) {
+        return downClueOfCell[cellIndex];
+    }
+}
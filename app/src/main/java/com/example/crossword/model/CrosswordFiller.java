@@ -0,0 +1,176 @@
+package com.example.crossword.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Fills a grid template with words from a {@link WordIndex}.
+ *
+ * <p>The search is a depth-first backtracker: it always fills the slot with the fewest remaining
+ * candidates next, and every placement narrows the candidate bitsets of the crossing slots, so a
+ * dead end is noticed as soon as any slot runs out of words. No word is used twice.</p>
+ */
+public class CrosswordFiller {
+
+    /**
+     * Supplies the clue text for a filled entry.
+     */
+    public interface ClueProvider {
+        @NonNull
+        String clueFor(@NonNull String answer, @NonNull CrosswordClue.Direction direction);
+    }
+
+    /** Template character for an open cell that the filler may choose. */
+    public static final char OPEN = '.';
+
+    // Like FillSearch, a single cell between blocks is not an entry and gets no clue.
+    private static final int MIN_ENTRY_LENGTH = 2;
+
+    private final WordIndex index;
+    private long seed;
+    private long maxAssignments = Long.MAX_VALUE;
+
+    public CrosswordFiller(@NonNull WordIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Seeds the order in which candidate words are tried, so the same seed gives the same fill.
+     */
+    public CrosswordFiller setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Gives up after this many word placements; the default is unbounded.
+     */
+    public CrosswordFiller setMaxAssignments(long maxAssignments) {
+        this.maxAssignments = maxAssignments;
+        return this;
+    }
+
+    /**
+     * Fills a template and numbers it like the bundled puzzles.
+     *
+     * @param template one string per row: {@link PuzzleData#BLOCK} for black squares, {@link #OPEN}
+     *                 for open cells and A-Z for letters that must stay in place
+     * @return the filled puzzle, or {@code null} if no fill was found within the assignment limit
+     * @throws IllegalArgumentException if the rows differ in length or a cell is in no entry of
+     *                                  two or more letters
+     */
+    @Nullable
+    public CrosswordPuzzle fill(@Nullable String title, @NonNull String[] template, @Nullable ClueProvider clues) {
+        int rows = template.length;
+        int columns = rows == 0 ? 0 : template[0].length();
+        char[] layout = new char[rows * columns];
+        for (int r = 0; r < rows; r++) {
+            if (template[r].length() != columns) {
+                throw new IllegalArgumentException("Row " + r + " has " + template[r].length()
+                        + " cells, expected " + columns);
+            }
+            template[r].getChars(0, columns, layout, r * columns);
+        }
+
+        if (!fillLayout(rows, columns, layout)) {
+            return null;
+        }
+
+        SlotGrid grid = SlotGrid.fromLayout(rows, columns, layout);
+        List<String> acrossTexts = new ArrayList<>(grid.getAcrossCount());
+        List<String> downTexts = new ArrayList<>(grid.getSlotCount() - grid.getAcrossCount());
+        for (int slot = 0; slot < grid.getSlotCount(); slot++) {
+            if (grid.getLength(slot) < MIN_ENTRY_LENGTH) {
+                continue;
+            }
+            boolean across = grid.isAcross(slot);
+            String text = "";
+            if (clues != null) {
+                char[] answer = new char[grid.getLength(slot)];
+                for (int p = 0; p < answer.length; p++) {
+                    answer[p] = layout[grid.getCell(slot, p)];
+                }
+                text = clues.clueFor(new String(answer),
+                        across ? CrosswordClue.Direction.ACROSS : CrosswordClue.Direction.DOWN);
+            }
+            (across ? acrossTexts : downTexts).add(text);
+        }
+        return PuzzleData.buildPuzzle(title, rows, columns, layout, MIN_ENTRY_LENGTH,
+                acrossTexts.iterator(), downTexts.iterator());
+    }
+
+    /**
+     * Fills the open cells of a row-major layout in place.
+     *
+     * @return {@code false} if no fill was found, in which case {@code layout} is unchanged
+     */
+    public boolean fillLayout(int rows, int columns, @NonNull char[] layout) {
+        SlotGrid grid = SlotGrid.fromLayout(rows, columns, layout);
+        FillSearch search = new FillSearch(grid, index);
+        int unchecked = search.findUncheckedCell();
+        if (unchecked >= 0) {
+            throw new IllegalArgumentException("Cell " + unchecked + " is not part of any entry");
+        }
+        for (int cell = 0; cell < layout.length; cell++) {
+            char c = layout[cell];
+            if (c == PuzzleData.BLOCK) {
+                continue;
+            }
+            char letter = PuzzleBoard.normalize(c);
+            if (letter != PuzzleBoard.EMPTY && !search.presetLetter(cell, letter - 'A')) {
+                return false;
+            }
+        }
+
+        long[] budget = {maxAssignments};
+        if (!solve(search, new Random(seed), budget)) {
+            return false;
+        }
+        for (int cell = 0; cell < layout.length; cell++) {
+            int letter = search.getLetter(cell);
+            if (letter != FillSearch.NO_LETTER) {
+                layout[cell] = (char) ('A' + letter);
+            }
+        }
+        return true;
+    }
+
+    private static boolean solve(FillSearch search, Random random, long[] budget) {
+        int slot = search.selectSlot();
+        if (slot < 0) {
+            return true;
+        }
+        int length = search.grid.getLength(slot);
+        long[] candidates = search.candidates(slot);
+        int words = candidates.length;
+        // Start at a random block of 64 candidates so different seeds give different fills.
+        int start = words == 0 ? 0 : random.nextInt(words);
+        for (int i = 0; i < words; i++) {
+            int w = start + i < words ? start + i : start + i - words;
+            long bits = candidates[w];
+            while (bits != 0) {
+                int word = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                if (search.isUsed(length, word)) {
+                    continue;
+                }
+                if (--budget[0] < 0) {
+                    return false;
+                }
+                boolean consistent = search.assign(slot, word);
+                if (consistent && solve(search, random, budget)) {
+                    return true;
+                }
+                search.undo();
+                if (budget[0] < 0) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+}
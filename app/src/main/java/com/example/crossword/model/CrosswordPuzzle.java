@@ -1,6 +1,7 @@
 package com.example.crossword.model;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -9,6 +10,7 @@ import java.util.List;
  * Container for a crossword puzzle definition including the grid and associated clues.
  */
 public class CrosswordPuzzle {
+    private final String title;
     private final int rows;
     private final int columns;
     private final CrosswordCell[][] grid;
@@ -17,6 +19,12 @@ public class CrosswordPuzzle {
 
     public CrosswordPuzzle(int rows, int columns, CrosswordCell[][] grid,
                            List<CrosswordClue> acrossClues, List<CrosswordClue> downClues) {
+        this(null, rows, columns, grid, acrossClues, downClues);
+    }
+
+    public CrosswordPuzzle(@Nullable String title, int rows, int columns, CrosswordCell[][] grid,
+                           List<CrosswordClue> acrossClues, List<CrosswordClue> downClues) {
+        this.title = title;
         this.rows = rows;
         this.columns = columns;
         this.grid = grid;
@@ -24,6 +32,11 @@ public class CrosswordPuzzle {
         this.downClues = downClues;
     }
 
+    @Nullable
+    public String getTitle() {
+        return title;
+    }
+
     public int getRows() {
         return rows;
     }
@@ -0,0 +1,137 @@
+package com.example.crossword.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts how many ways a puzzle's grid can be filled from a {@link WordIndex}, stopping at a limit.
+ *
+ * <p>The search is the same as {@link CrosswordFiller}'s, split across a {@link ForkJoinPool}: a
+ * task hands a candidate word to a new subtask (with its own copy of the search state) whenever
+ * the worker's queue is nearly empty, and otherwise tries the candidate itself. Idle workers steal
+ * the queued subtasks. Every task polls a shared counter and stops once the limit is reached.</p>
+ */
+public class FillCounter {
+    /** Limit for deciding uniqueness: one fill, or more than one. */
+    public static final int UNIQUENESS_LIMIT = 2;
+
+    // Fork only while fewer than this many tasks are waiting in the current worker's queue.
+    private static final int SURPLUS_TASKS = 2;
+
+    private final WordIndex index;
+    private final ForkJoinPool pool;
+
+    public FillCounter(@NonNull WordIndex index) {
+        this(index, ForkJoinPool.commonPool());
+    }
+
+    public FillCounter(@NonNull WordIndex index, @NonNull ForkJoinPool pool) {
+        this.index = index;
+        this.pool = pool;
+    }
+
+    /**
+     * Returns {@code true} if the puzzle's geometry admits exactly one fill.
+     */
+    public boolean isUnique(@NonNull CrosswordPuzzle puzzle) {
+        return countFills(puzzle, UNIQUENESS_LIMIT) == 1;
+    }
+
+    /**
+     * Counts the fills of the puzzle's blocks and clue positions, ignoring its solution letters.
+     * As in {@link CrosswordFiller}, a word may appear only once per fill.
+     *
+     * @return the number of fills, or {@code limit} if there are at least that many
+     * @throws IllegalArgumentException if a cell is in no entry of two or more letters
+     */
+    public int countFills(@NonNull CrosswordPuzzle puzzle, int limit) {
+        FillSearch search = new FillSearch(SlotGrid.fromPuzzle(puzzle), index);
+        int unchecked = search.findUncheckedCell();
+        if (unchecked >= 0) {
+            throw new IllegalArgumentException("Cell " + unchecked + " is not part of any entry");
+        }
+        if (limit <= 0) {
+            return 0;
+        }
+        AtomicInteger found = new AtomicInteger();
+        pool.invoke(new CountTask(search, found, limit));
+        return Math.min(found.get(), limit);
+    }
+
+    private static final class CountTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FillSearch search;
+        private final AtomicInteger found;
+        private final int limit;
+
+        CountTask(FillSearch search, AtomicInteger found, int limit) {
+            this.search = search;
+            this.found = found;
+            this.limit = limit;
+        }
+
+        @Override
+        protected void compute() {
+            count(search);
+        }
+
+        private void count(FillSearch search) {
+            if (found.get() >= limit) {
+                return;
+            }
+            int slot = search.selectSlot();
+            if (slot < 0) {
+                found.incrementAndGet();
+                return;
+            }
+            int length = search.grid.getLength(slot);
+            int remaining = search.candidateCount(slot);
+            long[] candidates = search.candidates(slot);
+            List<CountTask> forked = null;
+
+            candidateLoop:
+            for (int w = 0; w < candidates.length; w++) {
+                long bits = candidates[w];
+                while (bits != 0) {
+                    int word = (w << 6) + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    remaining--;
+                    if (search.isUsed(length, word)) {
+                        continue;
+                    }
+                    if (found.get() >= limit) {
+                        break candidateLoop;
+                    }
+                    if (remaining > 0 && getSurplusQueuedTaskCount() < SURPLUS_TASKS) {
+                        FillSearch branch = search.copy();
+                        if (branch.assign(slot, word)) {
+                            CountTask task = new CountTask(branch, found, limit);
+                            task.fork();
+                            if (forked == null) {
+                                forked = new ArrayList<>();
+                            }
+                            forked.add(task);
+                        }
+                        continue;
+                    }
+                    if (search.assign(slot, word)) {
+                        count(search);
+                    }
+                    search.undo();
+                }
+            }
+
+            if (forked != null) {
+                for (int i = forked.size() - 1; i >= 0; i--) {
+                    forked.get(i).join();
+                }
+            }
+        }
+    }
+}
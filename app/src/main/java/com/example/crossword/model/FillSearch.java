@@ -0,0 +1,275 @@
+package com.example.crossword.model;
+
+import java.util.Arrays;
+
+/**
+ * Mutable search state for filling a {@link SlotGrid} from a {@link WordIndex}.
+ *
+ * <p>Every unassigned slot keeps a candidate bitset. Assigning a word writes its letters and
+ * narrows the candidates of each crossing slot (forward checking); the narrowed bitsets are saved
+ * on a trail so {@link #undo()} restores them without reallocating. Slots of length one are not
+ * searched; their single cell is constrained by the crossing entry.</p>
+ */
+final class FillSearch {
+    static final byte NO_LETTER = -1;
+
+    final SlotGrid grid;
+    final WordIndex index;
+
+    private final byte[] cellLetters;
+    private final long[][] domains;
+    private final int[] domainCounts;
+    private final int[] assignedWord;
+    private final boolean[] searchable;
+    private final long[][] usedWords;
+
+    // Trail of saved crossing domains, grouped into one frame per assign().
+    private int[] trailSlot;
+    private int[] trailCount;
+    private long[][] trailDomain;
+    private int trailSize;
+    private int[] cellTrail;
+    private int cellTrailSize;
+    private int[] frameSlot;
+    private int[] frameTrailStart;
+    private int[] frameCellStart;
+    private int depth;
+
+    FillSearch(SlotGrid grid, WordIndex index) {
+        this.grid = grid;
+        this.index = index;
+
+        int slotCount = grid.getSlotCount();
+        int cellCount = grid.getRows() * grid.getColumns();
+        cellLetters = new byte[cellCount];
+        Arrays.fill(cellLetters, NO_LETTER);
+        domains = new long[slotCount][];
+        domainCounts = new int[slotCount];
+        assignedWord = new int[slotCount];
+        Arrays.fill(assignedWord, -1);
+        searchable = new boolean[slotCount];
+        for (int slot = 0; slot < slotCount; slot++) {
+            int length = grid.getLength(slot);
+            searchable[slot] = length > 1;
+            domains[slot] = new long[index.getMaskWords(length)];
+            if (searchable[slot]) {
+                index.fillAll(length, domains[slot]);
+                domainCounts[slot] = index.getWordCount(length);
+            }
+        }
+        usedWords = new long[index.getMaxLength() + 1][];
+        for (int length = 0; length <= index.getMaxLength(); length++) {
+            usedWords[length] = new long[index.getMaskWords(length)];
+        }
+
+        trailSlot = new int[64];
+        trailCount = new int[64];
+        trailDomain = new long[64][];
+        cellTrail = new int[cellCount];
+        frameSlot = new int[slotCount + 1];
+        frameTrailStart = new int[slotCount + 1];
+        frameCellStart = new int[slotCount + 1];
+    }
+
+    private FillSearch(FillSearch source) {
+        grid = source.grid;
+        index = source.index;
+        cellLetters = source.cellLetters.clone();
+        domains = new long[source.domains.length][];
+        for (int i = 0; i < domains.length; i++) {
+            domains[i] = source.domains[i].clone();
+        }
+        domainCounts = source.domainCounts.clone();
+        assignedWord = source.assignedWord.clone();
+        searchable = source.searchable;
+        usedWords = new long[source.usedWords.length][];
+        for (int i = 0; i < usedWords.length; i++) {
+            usedWords[i] = source.usedWords[i].clone();
+        }
+        trailSlot = new int[64];
+        trailCount = new int[64];
+        trailDomain = new long[64][];
+        cellTrail = new int[cellLetters.length];
+        frameSlot = new int[domains.length + 1];
+        frameTrailStart = new int[domains.length + 1];
+        frameCellStart = new int[domains.length + 1];
+    }
+
+    /**
+     * Returns an independent copy of the current assignment whose own trail starts empty.
+     */
+    FillSearch copy() {
+        return new FillSearch(this);
+    }
+
+    /**
+     * Returns an open cell that belongs to no entry of two or more letters, or -1 if there is none.
+     * The search never assigns such a cell, so any letter would fit there.
+     */
+    int findUncheckedCell() {
+        int cellCount = cellLetters.length;
+        for (int cell = 0; cell < cellCount; cell++) {
+            int across = grid.getAcrossSlot(cell);
+            int down = grid.getDownSlot(cell);
+            if (across < 0 && down < 0) {
+                continue; // block
+            }
+            if ((across < 0 || !searchable[across]) && (down < 0 || !searchable[down])) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Fixes a letter before the search starts, narrowing the slots through the cell.
+     *
+     * @return {@code false} if some slot is left without candidates
+     */
+    boolean presetLetter(int cell, int letter) {
+        if (cellLetters[cell] != NO_LETTER) {
+            return cellLetters[cell] == letter;
+        }
+        cellLetters[cell] = (byte) letter;
+        boolean consistent = narrowPreset(grid.getAcrossSlot(cell), cell, letter);
+        return narrowPreset(grid.getDownSlot(cell), cell, letter) && consistent;
+    }
+
+    private boolean narrowPreset(int slot, int cell, int letter) {
+        if (slot < 0 || !searchable[slot]) {
+            return true;
+        }
+        for (int p = 0; p < grid.getLength(slot); p++) {
+            if (grid.getCell(slot, p) == cell) {
+                domainCounts[slot] = index.retain(grid.getLength(slot), p, letter, domains[slot]);
+                break;
+            }
+        }
+        return domainCounts[slot] > 0;
+    }
+
+    /**
+     * Picks the unassigned slot with the fewest candidates, or -1 once every slot is filled.
+     */
+    int selectSlot() {
+        int best = -1;
+        int bestCount = Integer.MAX_VALUE;
+        for (int slot = 0; slot < domains.length; slot++) {
+            if (searchable[slot] && assignedWord[slot] < 0 && domainCounts[slot] < bestCount) {
+                best = slot;
+                bestCount = domainCounts[slot];
+                if (bestCount <= 1) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    long[] candidates(int slot) {
+        return domains[slot];
+    }
+
+    int candidateCount(int slot) {
+        return domainCounts[slot];
+    }
+
+    boolean isUsed(int length, int word) {
+        return (usedWords[length][word >>> 6] & (1L << word)) != 0;
+    }
+
+    int getAssignedWord(int slot) {
+        return assignedWord[slot];
+    }
+
+    /**
+     * Returns the letter (0-25) in {@code cell}, or {@link #NO_LETTER}.
+     */
+    int getLetter(int cell) {
+        return cellLetters[cell];
+    }
+
+    /**
+     * Places {@code word} in {@code slot} and forward-checks the crossing slots. The assignment is
+     * recorded even when it fails, so it must always be paired with {@link #undo()}.
+     *
+     * @return {@code false} if a crossing slot was left without candidates
+     */
+    boolean assign(int slot, int word) {
+        int length = grid.getLength(slot);
+        frameSlot[depth] = slot;
+        frameTrailStart[depth] = trailSize;
+        frameCellStart[depth] = cellTrailSize;
+        depth++;
+        assignedWord[slot] = word;
+        usedWords[length][word >>> 6] |= 1L << word;
+
+        boolean consistent = true;
+        for (int p = 0; p < length; p++) {
+            int cell = grid.getCell(slot, p);
+            if (cellLetters[cell] != NO_LETTER) {
+                continue;
+            }
+            int letter = index.getLetter(length, word, p);
+            cellLetters[cell] = (byte) letter;
+            cellTrail[cellTrailSize++] = cell;
+
+            int crossing = grid.getCrossingSlot(slot, p);
+            if (crossing < 0 || !searchable[crossing] || assignedWord[crossing] >= 0) {
+                continue;
+            }
+            saveDomain(crossing);
+            int count = index.retain(grid.getLength(crossing), grid.getCrossingPosition(slot, p), letter,
+                    domains[crossing]);
+            domainCounts[crossing] = count;
+            if (count == 0) {
+                consistent = false;
+                break;
+            }
+        }
+        return consistent;
+    }
+
+    /**
+     * Reverts the most recent {@link #assign}.
+     */
+    void undo() {
+        depth--;
+        int slot = frameSlot[depth];
+        int word = assignedWord[slot];
+        usedWords[grid.getLength(slot)][word >>> 6] &= ~(1L << word);
+        assignedWord[slot] = -1;
+
+        int trailStart = frameTrailStart[depth];
+        while (trailSize > trailStart) {
+            trailSize--;
+            int saved = trailSlot[trailSize];
+            long[] domain = domains[saved];
+            System.arraycopy(trailDomain[trailSize], 0, domain, 0, domain.length);
+            domainCounts[saved] = trailCount[trailSize];
+        }
+        int cellStart = frameCellStart[depth];
+        while (cellTrailSize > cellStart) {
+            cellLetters[cellTrail[--cellTrailSize]] = NO_LETTER;
+        }
+    }
+
+    private void saveDomain(int slot) {
+        if (trailSize == trailSlot.length) {
+            int capacity = trailSize * 2;
+            trailSlot = Arrays.copyOf(trailSlot, capacity);
+            trailCount = Arrays.copyOf(trailCount, capacity);
+            trailDomain = Arrays.copyOf(trailDomain, capacity);
+        }
+        long[] domain = domains[slot];
+        long[] saved = trailDomain[trailSize];
+        if (saved == null || saved.length < domain.length) {
+            saved = new long[domain.length];
+            trailDomain[trailSize] = saved;
+        }
+        System.arraycopy(domain, 0, saved, 0, domain.length);
+        trailSlot[trailSize] = slot;
+        trailCount[trailSize] = domainCounts[slot];
+        trailSize++;
+    }
+}
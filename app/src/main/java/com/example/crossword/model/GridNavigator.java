@@ -0,0 +1,149 @@
+package com.example.crossword.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Precomputed cursor movement for a puzzle.
+ *
+ * <p>Slot ids follow {@link SlotGrid}: across clues first, then down clues, each in clue-list
+ * order. For every cell and direction the navigator stores the slot through it and the cells one
+ * step forward and back along that direction's slots, continuing into the neighbouring slot at a
+ * word boundary. Moving the cursor is therefore a table lookup; only skipping filled cells has to
+ * walk, and it walks over filled cells alone.</p>
+ */
+public final class GridNavigator {
+    private final SlotGrid slots;
+    private final List<CrosswordClue> clues;
+    private final int[][] next;
+    private final int[][] previous;
+
+    private GridNavigator(SlotGrid slots, List<CrosswordClue> clues) {
+        this.slots = slots;
+        this.clues = clues;
+
+        int cellCount = slots.getRows() * slots.getColumns();
+        next = new int[2][cellCount];
+        previous = new int[2][cellCount];
+        for (int[] table : next) {
+            Arrays.fill(table, -1);
+        }
+        for (int[] table : previous) {
+            Arrays.fill(table, -1);
+        }
+        linkSlots(0, slots.getAcrossCount(), next[0], previous[0]);
+        linkSlots(slots.getAcrossCount(), slots.getSlotCount(), next[1], previous[1]);
+    }
+
+    /**
+     * Chains the cells of slots {@code [from, to)} into one cycle in clue order.
+     */
+    private void linkSlots(int from, int to, int[] nextTable, int[] previousTable) {
+        int last = -1;
+        int first = -1;
+        for (int slot = from; slot < to; slot++) {
+            for (int p = 0; p < slots.getLength(slot); p++) {
+                int cell = slots.getCell(slot, p);
+                if (last < 0) {
+                    first = cell;
+                } else {
+                    nextTable[last] = cell;
+                    previousTable[cell] = last;
+                }
+                last = cell;
+            }
+        }
+        if (last >= 0) {
+            nextTable[last] = first;
+            previousTable[first] = last;
+        }
+    }
+
+    @NonNull
+    public static GridNavigator fromPuzzle(@NonNull CrosswordPuzzle puzzle) {
+        List<CrosswordClue> clues = new ArrayList<>(puzzle.getAcrossClues().size() + puzzle.getDownClues().size());
+        clues.addAll(puzzle.getAcrossClues());
+        clues.addAll(puzzle.getDownClues());
+        return new GridNavigator(SlotGrid.fromPuzzle(puzzle), clues);
+    }
+
+    @NonNull
+    public SlotGrid getSlots() {
+        return slots;
+    }
+
+    /**
+     * Returns the slot through {@code cell} in {@code direction}, or -1 for a block or for a cell
+     * that no entry crosses in that direction.
+     */
+    public int getSlot(int cell, @NonNull CrosswordClue.Direction direction) {
+        return direction == CrosswordClue.Direction.ACROSS ? slots.getAcrossSlot(cell) : slots.getDownSlot(cell);
+    }
+
+    @NonNull
+    public CrosswordClue.Direction getDirection(int slot) {
+        return slots.isAcross(slot) ? CrosswordClue.Direction.ACROSS : CrosswordClue.Direction.DOWN;
+    }
+
+    /**
+     * Returns the index of the slot's clue within its direction's clue list.
+     */
+    public int getClueIndex(int slot) {
+        return slots.isAcross(slot) ? slot : slot - slots.getAcrossCount();
+    }
+
+    @NonNull
+    public CrosswordClue getClue(int slot) {
+        return clues.get(slot);
+    }
+
+    /**
+     * Returns the cell after {@code cell} along {@code direction}; past the end of a slot this is
+     * the first cell of the next slot, wrapping from the last clue to the first.
+     */
+    public int getNextCell(int cell, @NonNull CrosswordClue.Direction direction) {
+        return next[direction.ordinal()][cell];
+    }
+
+    /**
+     * Returns the cell before {@code cell} along {@code direction}, the mirror of {@link #getNextCell}.
+     */
+    public int getPreviousCell(int cell, @NonNull CrosswordClue.Direction direction) {
+        return previous[direction.ordinal()][cell];
+    }
+
+    /**
+     * Returns where the cursor goes after a letter is typed into {@code cell}: the first empty cell
+     * after it along {@code direction}, which is in the same slot unless the rest of that slot is
+     * filled. Returns {@code cell} itself when every other cell is filled.
+     *
+     * <p>This walks the filled cells in the way, which are usually the few typed ahead in the same
+     * entry. Links that jump straight to the next empty cell would have to follow every write to
+     * the board (typing, hints, undo, sync and restores), which costs more per keystroke than the
+     * short walk they would save.</p>
+     */
+    public int advance(@NonNull PuzzleBoard board, int cell, @NonNull CrosswordClue.Direction direction) {
+        int[] table = next[direction.ordinal()];
+        int candidate = table[cell];
+        while (candidate >= 0 && candidate != cell && !board.isEmpty(candidate)) {
+            candidate = table[candidate];
+        }
+        return candidate < 0 ? cell : candidate;
+    }
+
+    /**
+     * Returns the first empty cell of {@code slot}, or its first cell when it is full.
+     */
+    public int getEntryCell(@NonNull PuzzleBoard board, int slot) {
+        for (int p = 0; p < slots.getLength(slot); p++) {
+            int cell = slots.getCell(slot, p);
+            if (board.isEmpty(cell)) {
+                return cell;
+            }
+        }
+        return slots.getCell(slot, 0);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.crossword.model;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Loads puzzles from the app's JSON format:
+ *
+ * <pre>
+ * {
+ *   "title": "Sator Square",
+ *   "grid": ["SATOR", "AREPO", "TENET", "OPERA", "ROTAS"],
+ *   "across": ["...", ...],
+ *   "down": ["...", ...]
+ * }
+ * </pre>
+ *
+ * <p>Grid rows use {@code #} or {@code .} for black squares and are copied straight from the
+ * tokenizer's buffer into the layout array. Clue lists are in number order. Unknown keys are
+ * skipped.</p>
+ */
+public class JsonPuzzleLoader implements PuzzleLoader {
+
+    @NonNull
+    @Override
+    public CrosswordPuzzle load(@NonNull InputStream in) throws IOException {
+        PuzzleJsonReader reader = new PuzzleJsonReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        String title = null;
+        char[] layout = null;
+        int rows = 0;
+        int columns = 0;
+        List<String> across = null;
+        List<String> down = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            reader.nextName();
+            if (reader.nameEquals("title")) {
+                title = reader.nextString();
+            } else if (reader.nameEquals("grid")) {
+                layout = new char[64];
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    int length = reader.nextStringToScratch();
+                    if (rows == 0) {
+                        columns = length;
+                        if (columns == 0) {
+                            throw reader.error("Grid rows must not be empty");
+                        }
+                    } else if (length != columns) {
+                        throw reader.error("Grid row " + (rows + 1) + " has " + length
+                                + " cells, expected " + columns);
+                    }
+                    int offset = rows * columns;
+                    if (offset + columns > layout.length) {
+                        layout = Arrays.copyOf(layout, Math.max(layout.length * 2, offset + columns));
+                    }
+                    copyRow(reader, layout, offset, columns);
+                    rows++;
+                }
+                reader.endArray();
+            } else if (reader.nameEquals("across")) {
+                across = readStrings(reader);
+            } else if (reader.nameEquals("down")) {
+                down = readStrings(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (layout == null || rows == 0) {
+            throw new PuzzleFormatException("Missing \"grid\"");
+        }
+        if (across == null || down == null) {
+            throw new PuzzleFormatException("Missing \"across\" or \"down\" clues");
+        }
+
+        Iterator<String> acrossTexts = across.iterator();
+        Iterator<String> downTexts = down.iterator();
+        CrosswordPuzzle puzzle;
+        try {
+            puzzle = PuzzleData.buildPuzzle(title, rows, columns, layout, acrossTexts, downTexts);
+        } catch (IllegalArgumentException e) {
+            throw new PuzzleFormatException(e.getMessage(), e);
+        }
+        if (acrossTexts.hasNext() || downTexts.hasNext()) {
+            throw new PuzzleFormatException("More clues than the grid has entries");
+        }
+        return puzzle;
+    }
+
+    private static void copyRow(PuzzleJsonReader reader, char[] layout, int offset, int columns)
+            throws PuzzleFormatException {
+        char[] row = reader.scratch();
+        for (int c = 0; c < columns; c++) {
+            char raw = row[c];
+            if (raw == '#' || raw == '.') {
+                layout[offset + c] = PuzzleData.BLOCK;
+            } else if (PuzzleBoard.normalize(raw) != PuzzleBoard.EMPTY) {
+                layout[offset + c] = raw;
+            } else {
+                throw reader.error("Unexpected grid character '" + raw + "'");
+            }
+        }
+    }
+
+    private static List<String> readStrings(PuzzleJsonReader reader) throws IOException {
+        List<String> values = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            values.add(reader.nextString());
+        }
+        reader.endArray();
+        return values;
+    }
+}
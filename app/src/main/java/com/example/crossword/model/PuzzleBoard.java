@@ -0,0 +1,196 @@
+package com.example.crossword.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+
+/**
+ * Compact, struct-of-arrays view of a crossword grid and the player's progress on it.
+ *
+ * <p>Cells are addressed by their row-major index. Solutions, entries, statuses, pencil marks,
+ * blocks and clue numbers each live in a single primitive array so reading or updating a cell
+ * never allocates. A cell's pencil marks are the letters the player has jotted in it, as a mask
+ * with bit 0 for A.</p>
+ */
+public final class PuzzleBoard {
+
+    /** Entry value of a cell the player has not filled in. */
+    public static final char EMPTY = '\0';
+
+    public static final byte STATUS_DEFAULT = 0;
+    public static final byte STATUS_CORRECT = 1;
+    public static final byte STATUS_INCORRECT = 2;
+    public static final byte STATUS_HINTED = 3;
+
+    /** Pencil marks for every letter. */
+    public static final int ALL_MARKS = (1 << 26) - 1;
+
+    private final int rows;
+    private final int columns;
+    private final char[] solutions;
+    private final char[] entries;
+    private final byte[] statuses;
+    private final int[] marks;
+    private final long[] blocks;
+    private final short[] numbers;
+    private int fingerprint;
+
+    private PuzzleBoard(int rows, int columns) {
+        int cellCount = rows * columns;
+        this.rows = rows;
+        this.columns = columns;
+        this.solutions = new char[cellCount];
+        this.entries = new char[cellCount];
+        this.statuses = new byte[cellCount];
+        this.marks = new int[cellCount];
+        this.blocks = new long[(cellCount + 63) >>> 6];
+        this.numbers = new short[cellCount];
+    }
+
+    /**
+     * Flattens the grid of the given puzzle into a new board with no entries.
+     */
+    @NonNull
+    public static PuzzleBoard fromPuzzle(@NonNull CrosswordPuzzle puzzle) {
+        PuzzleBoard board = new PuzzleBoard(puzzle.getRows(), puzzle.getColumns());
+        CrosswordCell[][] grid = puzzle.getGrid();
+        int index = 0;
+        for (CrosswordCell[] row : grid) {
+            for (CrosswordCell cell : row) {
+                if (cell.isBlock()) {
+                    board.blocks[index >>> 6] |= 1L << index;
+                } else {
+                    board.solutions[index] = normalize(cell.getSolution());
+                    board.numbers[index] = (short) cell.getNumber();
+                }
+                index++;
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Upper-cases an ASCII letter, mapping anything that is not a letter to {@link #EMPTY}.
+     */
+    public static char normalize(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c;
+        }
+        if (c >= 'a' && c <= 'z') {
+            return (char) (c - ('a' - 'A'));
+        }
+        return EMPTY;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getCellCount() {
+        return solutions.length;
+    }
+
+    public int toIndex(int row, int column) {
+        return row * columns + column;
+    }
+
+    public int getRow(int index) {
+        return index / columns;
+    }
+
+    public int getColumn(int index) {
+        return index % columns;
+    }
+
+    public boolean isBlock(int index) {
+        return (blocks[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public char getSolution(int index) {
+        return solutions[index];
+    }
+
+    /**
+     * Returns the clue number printed in the cell, or {@code 0} if it has none.
+     */
+    public int getNumber(int index) {
+        return numbers[index];
+    }
+
+    public char getEntry(int index) {
+        return entries[index];
+    }
+
+    public void setEntry(int index, char entry) {
+        entries[index] = normalize(entry);
+    }
+
+    public byte getStatus(int index) {
+        return statuses[index];
+    }
+
+    public void setStatus(int index, byte status) {
+        statuses[index] = status;
+    }
+
+    public boolean isEmpty(int index) {
+        return entries[index] == EMPTY;
+    }
+
+    public int getMarks(int index) {
+        return marks[index];
+    }
+
+    public void setMarks(int index, int marks) {
+        this.marks[index] = marks & ALL_MARKS;
+    }
+
+    /**
+     * Adds or removes the pencil mark for {@code letter}, returning the cell's marks afterwards.
+     * Anything that is not a letter leaves the marks as they are.
+     */
+    public int toggleMark(int index, char letter) {
+        char mark = normalize(letter);
+        if (mark != EMPTY) {
+            marks[index] ^= 1 << (mark - 'A');
+        }
+        return marks[index];
+    }
+
+    /**
+     * Removes the pencil marks from every cell of {@code row}.
+     */
+    public void clearRowMarks(int row) {
+        Arrays.fill(marks, row * columns, (row + 1) * columns, 0);
+    }
+
+    /**
+     * Returns a hash of the grid shape and solution, used to tell whether saved progress belongs
+     * to this puzzle.
+     */
+    public int fingerprint() {
+        int hash = fingerprint;
+        if (hash == 0) {
+            hash = 31 * rows + columns;
+            for (char solution : solutions) {
+                hash = 31 * hash + solution;
+            }
+            for (long word : blocks) {
+                hash = 31 * hash + (int) (word ^ (word >>> 32));
+            }
+            fingerprint = hash;
+        }
+        return hash;
+    }
+
+    /**
+     * Returns {@code true} if the cell is open and holds its solution letter.
+     */
+    public boolean isCorrect(int index) {
+        return !isBlock(index) && entries[index] == solutions[index];
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.crossword.model;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Least-recently-used cache of puzzles decoded from a {@link PuzzleLibrary}, bounded by their
+ * total cell count.
+ *
+ * <p>Each entry is a task that decodes the puzzle once. {@link #prefetch} queues the task on a
+ * background executor; {@link #get} runs it on the calling thread if the executor has not started
+ * it yet, so a prefetch queued behind the caller can never deadlock it. The bound comes from the
+ * library index, so entries are weighed before they are decoded.</p>
+ */
+public class PuzzleCache {
+    private final PuzzleLibrary library;
+    private final int maxCells;
+    private final Executor prefetchExecutor;
+    private final LinkedHashMap<Integer, FutureTask<CrosswordPuzzle>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private int cachedCells;
+    private int hitCount;
+    private int missCount;
+
+    /**
+     * @param maxCells upper bound on the summed {@code rows * columns} of cached puzzles; the most
+     *                 recent puzzle is kept even if it alone is larger
+     */
+    public PuzzleCache(@NonNull PuzzleLibrary library, int maxCells, @NonNull Executor prefetchExecutor) {
+        this.library = library;
+        this.maxCells = maxCells;
+        this.prefetchExecutor = prefetchExecutor;
+    }
+
+    @NonNull
+    public PuzzleLibrary getLibrary() {
+        return library;
+    }
+
+    /**
+     * Returns the puzzle at {@code position}, decoding it if it is not cached, and prefetches the
+     * puzzle after it.
+     */
+    @NonNull
+    public CrosswordPuzzle get(int position) throws IOException {
+        FutureTask<CrosswordPuzzle> task;
+        synchronized (this) {
+            task = entries.get(position);
+            if (task == null) {
+                missCount++;
+                task = insert(position);
+            } else {
+                hitCount++;
+            }
+        }
+        // No-op if the task already ran or is running on the prefetch executor.
+        task.run();
+        CrosswordPuzzle puzzle = await(position, task);
+        prefetch(position + 1);
+        return puzzle;
+    }
+
+    /**
+     * Starts decoding the puzzle at {@code position} in the background unless it is cached or out
+     * of range.
+     */
+    public void prefetch(int position) {
+        if (position < 0 || position >= library.getCount()) {
+            return;
+        }
+        FutureTask<CrosswordPuzzle> task;
+        synchronized (this) {
+            if (entries.containsKey(position)) {
+                return;
+            }
+            task = insert(position);
+        }
+        prefetchExecutor.execute(task);
+    }
+
+    public synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized int getMissCount() {
+        return missCount;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        cachedCells = 0;
+    }
+
+    private FutureTask<CrosswordPuzzle> insert(int position) {
+        FutureTask<CrosswordPuzzle> task = new FutureTask<>(() -> library.load(position));
+        entries.put(position, task);
+        cachedCells += cellsOf(position);
+        Iterator<Map.Entry<Integer, FutureTask<CrosswordPuzzle>>> eldest = entries.entrySet().iterator();
+        while (cachedCells > maxCells && entries.size() > 1) {
+            Map.Entry<Integer, FutureTask<CrosswordPuzzle>> entry = eldest.next();
+            cachedCells -= cellsOf(entry.getKey());
+            eldest.remove();
+        }
+        return task;
+    }
+
+    private int cellsOf(int position) {
+        return library.getRows(position) * library.getColumns(position);
+    }
+
+    private CrosswordPuzzle await(int position, FutureTask<CrosswordPuzzle> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading puzzle " + position);
+        } catch (ExecutionException e) {
+            synchronized (this) {
+                // Forget the failure so a later call can retry.
+                if (entries.get(position) == task) {
+                    entries.remove(position);
+                    cachedCells -= cellsOf(position);
+                }
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Could not load puzzle " + position, cause);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.crossword.model;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -9,6 +10,9 @@ import java.util.List;
  */
 public final class PuzzleData {
 
+    /** Layout character that marks a black square. */
+    public static final char BLOCK = '#';
+
     private PuzzleData() {
         // Utility class.
     }
@@ -43,28 +47,63 @@ public final class PuzzleData {
 
         int rowsCount = rows.length;
         int columnsCount = rows[0].length();
+        char[] layout = new char[rowsCount * columnsCount];
+        for (int r = 0; r < rowsCount; r++) {
+            rows[r].getChars(0, columnsCount, layout, r * columnsCount);
+        }
+
+        return buildPuzzle("Sator Square", rowsCount, columnsCount, layout,
+                acrossClueTexts.iterator(), downClueTexts.iterator());
+    }
+
+    /**
+     * Numbers a grid and collects its clue positions.
+     *
+     * <p>Cells are visited in row-major order; every open cell that starts an across or down entry
+     * receives the next clue number, and its clue text is taken from {@code acrossTexts} before
+     * {@code downTexts}. Passing the same iterator for both directions therefore consumes clues in
+     * the interleaved order used by Across Lite files.</p>
+     *
+     * @param layout row-major solution letters, with {@link #BLOCK} marking black squares
+     * @throws IllegalArgumentException if the iterators run out of clue texts
+     */
+    public static CrosswordPuzzle buildPuzzle(String title, int rowsCount, int columnsCount, char[] layout,
+                                              Iterator<String> acrossTexts, Iterator<String> downTexts) {
+        return buildPuzzle(title, rowsCount, columnsCount, layout, 1, acrossTexts, downTexts);
+    }
+
+    /**
+     * Like {@link #buildPuzzle(String, int, int, char[], Iterator, Iterator)}, but runs shorter
+     * than {@code minEntryLength} cells are not entries: they get no clue, and a cell is numbered
+     * only if it starts a run that is long enough. Across Lite files use 2, so a cell that is
+     * checked in one direction only belongs to a single clue.
+     */
+    public static CrosswordPuzzle buildPuzzle(String title, int rowsCount, int columnsCount, char[] layout,
+                                              int minEntryLength,
+                                              Iterator<String> acrossTexts, Iterator<String> downTexts) {
         CrosswordCell[][] grid = new CrosswordCell[rowsCount][columnsCount];
         List<CrosswordClue> acrossClues = new ArrayList<>();
         List<CrosswordClue> downClues = new ArrayList<>();
 
         int clueNumber = 1;
-        int acrossIndex = 0;
-        int downIndex = 0;
 
         for (int r = 0; r < rowsCount; r++) {
+            int rowStart = r * columnsCount;
             for (int c = 0; c < columnsCount; c++) {
-                char raw = rows[r].charAt(c);
-                boolean isBlock = raw == '#';
+                char raw = layout[rowStart + c];
+                boolean isBlock = raw == BLOCK;
 
                 int number = 0;
                 boolean startAcross = false;
                 boolean startDown = false;
 
                 if (!isBlock) {
-                    if (c == 0 || rows[r].charAt(c - 1) == '#') {
+                    if ((c == 0 || layout[rowStart + c - 1] == BLOCK)
+                            && runLength(layout, rowStart + c, 1, columnsCount - c) >= minEntryLength) {
                         startAcross = true;
                     }
-                    if (r == 0 || rows[r - 1].charAt(c) == '#') {
+                    if ((r == 0 || layout[rowStart - columnsCount + c] == BLOCK)
+                            && runLength(layout, rowStart + c, columnsCount, rowsCount - r) >= minEntryLength) {
                         startDown = true;
                     }
                     if (startAcross || startDown) {
@@ -78,28 +117,47 @@ public final class PuzzleData {
                     if (startAcross) {
                         List<CrosswordClue.Position> positions = new ArrayList<>();
                         int cc = c;
-                        while (cc < columnsCount && rows[r].charAt(cc) != '#') {
+                        while (cc < columnsCount && layout[rowStart + cc] != BLOCK) {
                             positions.add(new CrosswordClue.Position(r, cc));
                             cc++;
                         }
-                        String clueText = acrossClueTexts.get(acrossIndex++);
+                        String clueText = nextClueText(acrossTexts, number, CrosswordClue.Direction.ACROSS);
                         acrossClues.add(new CrosswordClue(number, CrosswordClue.Direction.ACROSS, clueText, positions));
                     }
 
                     if (startDown) {
                         List<CrosswordClue.Position> positions = new ArrayList<>();
                         int rr = r;
-                        while (rr < rowsCount && rows[rr].charAt(c) != '#') {
+                        while (rr < rowsCount && layout[rr * columnsCount + c] != BLOCK) {
                             positions.add(new CrosswordClue.Position(rr, c));
                             rr++;
                         }
-                        String clueText = downClueTexts.get(downIndex++);
+                        String clueText = nextClueText(downTexts, number, CrosswordClue.Direction.DOWN);
                         downClues.add(new CrosswordClue(number, CrosswordClue.Direction.DOWN, clueText, positions));
                     }
                 }
             }
         }
 
-        return new CrosswordPuzzle(rowsCount, columnsCount, grid, acrossClues, downClues);
+        return new CrosswordPuzzle(title, rowsCount, columnsCount, grid, acrossClues, downClues);
+    }
+
+    /**
+     * Counts the open cells from {@code start} in steps of {@code step}, looking at no more than
+     * {@code limit} cells.
+     */
+    private static int runLength(char[] layout, int start, int step, int limit) {
+        int length = 0;
+        while (length < limit && layout[start + length * step] != BLOCK) {
+            length++;
+        }
+        return length;
+    }
+
+    private static String nextClueText(Iterator<String> texts, int number, CrosswordClue.Direction direction) {
+        if (!texts.hasNext()) {
+            throw new IllegalArgumentException("Missing clue text for " + number + " " + direction);
+        }
+        return texts.next();
     }
 }
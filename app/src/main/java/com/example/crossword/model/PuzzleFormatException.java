@@ -0,0 +1,18 @@
+package com.example.crossword.model;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a puzzle file is truncated, corrupt or otherwise not in the expected format.
+ */
+public class PuzzleFormatException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public PuzzleFormatException(String message) {
+        super(message);
+    }
+
+    public PuzzleFormatException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
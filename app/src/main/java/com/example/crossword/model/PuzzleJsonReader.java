@@ -0,0 +1,226 @@
+package com.example.crossword.model;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Minimal pull-style JSON tokenizer used by {@link JsonPuzzleLoader}.
+ *
+ * <p>It reads through a fixed character window and decodes string values into a reusable scratch
+ * buffer, so callers decide whether a value is worth turning into a {@link String}.</p>
+ */
+class PuzzleJsonReader {
+    private final Reader reader;
+    private final char[] window = new char[8192];
+    private int windowPosition;
+    private int windowLimit;
+    private long consumed;
+
+    private char[] scratch = new char[128];
+    private int scratchLength;
+
+    PuzzleJsonReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    void beginObject() throws IOException {
+        expect('{');
+    }
+
+    void endObject() throws IOException {
+        expect('}');
+    }
+
+    void beginArray() throws IOException {
+        expect('[');
+    }
+
+    void endArray() throws IOException {
+        expect(']');
+    }
+
+    /**
+     * Returns {@code true} if the current object or array has another element, consuming the
+     * separating comma if there is one.
+     */
+    boolean hasNext() throws IOException {
+        int c = peekNonWhitespace();
+        if (c == ',') {
+            windowPosition++;
+            return true;
+        }
+        return c != '}' && c != ']' && c != -1;
+    }
+
+    /**
+     * Reads an object key into the scratch buffer and consumes the following colon.
+     */
+    void nextName() throws IOException {
+        nextStringToScratch();
+        expect(':');
+    }
+
+    boolean nameEquals(String name) {
+        if (name.length() != scratchLength) {
+            return false;
+        }
+        for (int i = 0; i < scratchLength; i++) {
+            if (scratch[i] != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    String nextString() throws IOException {
+        nextStringToScratch();
+        return new String(scratch, 0, scratchLength);
+    }
+
+    /**
+     * Decodes the next string value into the scratch buffer and returns its length.
+     */
+    int nextStringToScratch() throws IOException {
+        expect('"');
+        scratchLength = 0;
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw error("Unterminated string");
+            }
+            if (c == '"') {
+                return scratchLength;
+            }
+            if (c == '\\') {
+                c = readEscape();
+            }
+            if (scratchLength == scratch.length) {
+                scratch = Arrays.copyOf(scratch, scratchLength * 2);
+            }
+            scratch[scratchLength++] = (char) c;
+        }
+    }
+
+    char[] scratch() {
+        return scratch;
+    }
+
+    /**
+     * Skips over the next value of any type, including nested objects and arrays.
+     */
+    void skipValue() throws IOException {
+        int c = peekNonWhitespace();
+        switch (c) {
+            case '"':
+                nextStringToScratch();
+                return;
+            case '{':
+                beginObject();
+                while (hasNext()) {
+                    nextName();
+                    skipValue();
+                }
+                endObject();
+                return;
+            case '[':
+                beginArray();
+                while (hasNext()) {
+                    skipValue();
+                }
+                endArray();
+                return;
+            case -1:
+                throw error("Unexpected end of input");
+            default:
+                // Numbers, booleans and null: consume up to the next structural character.
+                while ((c = peek()) != -1 && c != ',' && c != '}' && c != ']' && !isWhitespace(c)) {
+                    windowPosition++;
+                }
+        }
+    }
+
+    PuzzleFormatException error(String message) {
+        return new PuzzleFormatException(message + " at character " + (consumed + windowPosition));
+    }
+
+    private void expect(char expected) throws IOException {
+        int c = peekNonWhitespace();
+        if (c != expected) {
+            throw error(c == -1 ? "Unexpected end of input" : "Expected '" + expected + "' but found '" + (char) c + "'");
+        }
+        windowPosition++;
+    }
+
+    private int readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case '"':
+            case '\\':
+            case '/':
+                return c;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw error("Invalid unicode escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return value;
+            default:
+                throw error("Invalid escape sequence");
+        }
+    }
+
+    private int peekNonWhitespace() throws IOException {
+        int c = peek();
+        while (isWhitespace(c)) {
+            windowPosition++;
+            c = peek();
+        }
+        return c;
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t' || c == '\uFEFF';
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c != -1) {
+            windowPosition++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (windowPosition == windowLimit && !fill()) {
+            return -1;
+        }
+        return window[windowPosition];
+    }
+
+    private boolean fill() throws IOException {
+        consumed += windowLimit;
+        windowPosition = 0;
+        windowLimit = 0;
+        int count = reader.read(window, 0, window.length);
+        if (count <= 0) {
+            return false;
+        }
+        windowLimit = count;
+        return true;
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.crossword.model;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read-only collection of puzzles packed into a single memory-mapped file.
+ *
+ * <p>Layout (version 1, big-endian):</p>
+ * <pre>
+ * 'C' 'L' version 0               4 bytes
+ * entry count                     4 bytes
+ * index, one record per puzzle    32 bytes each, sorted by id
+ *   id                            4 bytes
+ *   rows, columns, difficulty, 0  4 bytes
+ *   title offset, title length    4 + 4 bytes (UTF-8)
+ *   data offset                   8 bytes
+ *   data length                   4 bytes
+ *   reserved                      4 bytes
+ * titles and puzzle data          any order; each puzzle is a .puz or JSON file
+ * </pre>
+ *
+ * <p>Metadata reads go straight to the mapped index, so browsing never decodes a puzzle;
+ * {@link #load(int)} decodes one entry on demand. Reads use absolute offsets only, so a library
+ * can be shared between threads.</p>
+ */
+public class PuzzleLibrary {
+    static final byte MAGIC_0 = 'C';
+    static final byte MAGIC_1 = 'L';
+    static final byte VERSION = 1;
+    static final int HEADER_LENGTH = 8;
+    static final int RECORD_LENGTH = 32;
+
+    private final ByteBuffer buffer;
+    private final int count;
+
+    PuzzleLibrary(@NonNull ByteBuffer buffer) throws PuzzleFormatException {
+        this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.limit() < HEADER_LENGTH || buffer.get(0) != MAGIC_0 || buffer.get(1) != MAGIC_1) {
+            throw new PuzzleFormatException("Not a puzzle library");
+        }
+        if (buffer.get(2) != VERSION) {
+            throw new PuzzleFormatException("Unsupported puzzle library version " + buffer.get(2));
+        }
+        count = buffer.getInt(4);
+        if (count < 0 || HEADER_LENGTH + (long) count * RECORD_LENGTH > buffer.limit()) {
+            throw new PuzzleFormatException("Puzzle library index is truncated");
+        }
+    }
+
+    /**
+     * Maps {@code file}; the mapping stays valid after the file is closed.
+     */
+    @NonNull
+    public static PuzzleLibrary open(@NonNull File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new PuzzleLibrary(buffer);
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getId(int position) {
+        return buffer.getInt(record(position));
+    }
+
+    public int getRows(int position) {
+        return buffer.get(record(position) + 4) & 0xFF;
+    }
+
+    public int getColumns(int position) {
+        return buffer.get(record(position) + 5) & 0xFF;
+    }
+
+    public int getDifficulty(int position) {
+        return buffer.get(record(position) + 6) & 0xFF;
+    }
+
+    @NonNull
+    public String getTitle(int position) {
+        int record = record(position);
+        int offset = buffer.getInt(record + 8);
+        int length = buffer.getInt(record + 12);
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the position of the puzzle with {@code id}, or -1 if the library has none.
+     */
+    public int indexOf(int id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = getId(mid);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Decodes the puzzle at {@code position}.
+     */
+    @NonNull
+    public CrosswordPuzzle load(int position) throws IOException {
+        int record = record(position);
+        long offset = buffer.getLong(record + 16);
+        int length = buffer.getInt(record + 24);
+        if (offset < 0 || offset + length > buffer.limit()) {
+            throw new PuzzleFormatException("Puzzle " + getId(position) + " lies outside the library");
+        }
+        ByteBuffer data = buffer.duplicate();
+        data.limit((int) offset + length).position((int) offset);
+        return PuzzleLoaders.load(new ByteBufferInputStream(data.slice()));
+    }
+
+    private int record(int position) {
+        if (position < 0 || position >= count) {
+            throw new IndexOutOfBoundsException("Puzzle " + position + " of " + count);
+        }
+        return HEADER_LENGTH + position * RECORD_LENGTH;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.crossword.model;
+
+import androidx.annotation.NonNull;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs puzzle files into the format read by {@link PuzzleLibrary}.
+ */
+public class PuzzleLibraryWriter {
+
+    private static final class Entry {
+        final int id;
+        final byte[] title;
+        final int rows;
+        final int columns;
+        final int difficulty;
+        final byte[] data;
+
+        Entry(int id, byte[] title, int rows, int columns, int difficulty, byte[] data) {
+            this.id = id;
+            this.title = title;
+            this.rows = rows;
+            this.columns = columns;
+            this.difficulty = difficulty;
+            this.data = data;
+        }
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Adds a puzzle.
+     *
+     * @param data the puzzle as a {@code .puz} or JSON file
+     * @throws IllegalArgumentException if a size or the difficulty does not fit in a byte
+     */
+    public PuzzleLibraryWriter add(int id, @NonNull String title, int rows, int columns, int difficulty,
+                                   @NonNull byte[] data) {
+        if (rows < 0 || rows > 255 || columns < 0 || columns > 255 || difficulty < 0 || difficulty > 255) {
+            throw new IllegalArgumentException("Puzzle " + id + " has out-of-range metadata");
+        }
+        entries.add(new Entry(id, title.getBytes(StandardCharsets.UTF_8), rows, columns, difficulty, data));
+        return this;
+    }
+
+    /**
+     * Writes the library, with entries sorted by id.
+     *
+     * @throws IllegalArgumentException if two entries share an id
+     */
+    public void write(@NonNull OutputStream stream) throws IOException {
+        entries.sort((a, b) -> Integer.compare(a.id, b.id));
+        for (int i = 1; i < entries.size(); i++) {
+            if (entries.get(i).id == entries.get(i - 1).id) {
+                throw new IllegalArgumentException("Duplicate puzzle id " + entries.get(i).id);
+            }
+        }
+
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeByte(PuzzleLibrary.MAGIC_0);
+        out.writeByte(PuzzleLibrary.MAGIC_1);
+        out.writeByte(PuzzleLibrary.VERSION);
+        out.writeByte(0);
+        out.writeInt(entries.size());
+
+        long offset = PuzzleLibrary.HEADER_LENGTH + (long) entries.size() * PuzzleLibrary.RECORD_LENGTH;
+        for (Entry entry : entries) {
+            long titleOffset = offset;
+            long dataOffset = titleOffset + entry.title.length;
+            offset = dataOffset + entry.data.length;
+            if (offset > Integer.MAX_VALUE) {
+                throw new IOException("Puzzle library exceeds 2 GB");
+            }
+            out.writeInt(entry.id);
+            out.writeByte(entry.rows);
+            out.writeByte(entry.columns);
+            out.writeByte(entry.difficulty);
+            out.writeByte(0);
+            out.writeInt((int) titleOffset);
+            out.writeInt(entry.title.length);
+            out.writeLong(dataOffset);
+            out.writeInt(entry.data.length);
+            out.writeInt(0);
+        }
+        for (Entry entry : entries) {
+            out.write(entry.title);
+            out.write(entry.data);
+        }
+        out.flush();
+    }
+
+    public void write(@NonNull File file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            write(out);
+        }
+    }
+}
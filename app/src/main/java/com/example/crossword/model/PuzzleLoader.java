@@ -0,0 +1,22 @@
+package com.example.crossword.model;
+
+import androidx.annotation.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Decodes a single crossword puzzle from a stream in one forward pass.
+ *
+ * <p>Implementations read the grid into primitive arrays and only materialise clue texts as
+ * strings; they never buffer the whole file. The stream is not closed.</p>
+ */
+public interface PuzzleLoader {
+
+    /**
+     * @throws PuzzleFormatException if the data is truncated, fails validation or is malformed
+     * @throws IOException           if reading from the stream fails
+     */
+    @NonNull
+    CrosswordPuzzle load(@NonNull InputStream in) throws IOException;
+}
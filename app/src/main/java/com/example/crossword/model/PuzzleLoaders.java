@@ -0,0 +1,75 @@
+package com.example.crossword.model;
+
+import androidx.annotation.NonNull;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Entry points for decoding puzzle files, picking the format from the file contents.
+ */
+public final class PuzzleLoaders {
+
+    private static final int SNIFF_LENGTH = 2 + AcrossLitePuzzleLoader.MAGIC.length;
+
+    private PuzzleLoaders() {
+        // Utility class.
+    }
+
+    /**
+     * Decodes a {@code .puz} or JSON puzzle from the stream, which is buffered if necessary.
+     */
+    @NonNull
+    public static CrosswordPuzzle load(@NonNull InputStream in) throws IOException {
+        InputStream source = in.markSupported() ? in : new BufferedInputStream(in);
+        source.mark(SNIFF_LENGTH);
+        byte[] prefix = new byte[SNIFF_LENGTH];
+        int read = 0;
+        while (read < SNIFF_LENGTH) {
+            int count = source.read(prefix, read, SNIFF_LENGTH - read);
+            if (count < 0) {
+                break;
+            }
+            read += count;
+        }
+        source.reset();
+        if (read == 0) {
+            throw new PuzzleFormatException("Empty puzzle file");
+        }
+        return forPrefix(prefix, read).load(source);
+    }
+
+    /**
+     * Memory-maps the file and decodes it without copying it onto the heap.
+     */
+    @NonNull
+    public static CrosswordPuzzle load(@NonNull File file) throws IOException {
+        // RandomAccessFile rather than FileChannel.open(Path), which needs API 26.
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return load(new ByteBufferInputStream(buffer));
+        }
+    }
+
+    private static PuzzleLoader forPrefix(byte[] prefix, int length) {
+        if (length == SNIFF_LENGTH) {
+            boolean magic = true;
+            for (int i = 0; i < AcrossLitePuzzleLoader.MAGIC.length; i++) {
+                if (prefix[2 + i] != AcrossLitePuzzleLoader.MAGIC[i]) {
+                    magic = false;
+                    break;
+                }
+            }
+            if (magic) {
+                return new AcrossLitePuzzleLoader();
+            }
+        }
+        return new JsonPuzzleLoader();
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.crossword.model;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A puzzle together with the derived state needed to solve it.
+ *
+ * <p>Building a session flattens the grid and indexes the clues, which scales with the grid size,
+ * so it is meant to happen off the main thread before the UI is bound.</p>
+ */
+public class PuzzleSession {
+    private final CrosswordPuzzle puzzle;
+    private final PuzzleBoard board;
+    private final ClueProgressTracker clueTracker;
+    private final GridNavigator navigator;
+    private final SolveProgressTracker progress;
+    private final SolveHistory history = new SolveHistory();
+    private final BoardTransaction transaction;
+
+    private int hintCount;
+    private long elapsedMillis;
+
+    private PuzzleSession(CrosswordPuzzle puzzle) {
+        this.puzzle = puzzle;
+        this.board = PuzzleBoard.fromPuzzle(puzzle);
+        this.clueTracker = new ClueProgressTracker(puzzle);
+        this.navigator = GridNavigator.fromPuzzle(puzzle);
+        this.progress = new SolveProgressTracker(board, navigator.getSlots());
+        this.transaction = new BoardTransaction(this);
+    }
+
+    @NonNull
+    public static PuzzleSession prepare(@NonNull CrosswordPuzzle puzzle) {
+        return new PuzzleSession(puzzle);
+    }
+
+    @NonNull
+    public CrosswordPuzzle getPuzzle() {
+        return puzzle;
+    }
+
+    @NonNull
+    public PuzzleBoard getBoard() {
+        return board;
+    }
+
+    @NonNull
+    public ClueProgressTracker getClueTracker() {
+        return clueTracker;
+    }
+
+    @NonNull
+    public GridNavigator getNavigator() {
+        return navigator;
+    }
+
+    @NonNull
+    public SolveProgressTracker getProgress() {
+        return progress;
+    }
+
+    @NonNull
+    public SolveHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Starts a multi-cell edit or an undo/redo step. The session keeps a single transaction and
+     * resets it here, so the previous one must be committed, and its results read, first.
+     */
+    @NonNull
+    public BoardTransaction beginTransaction() {
+        transaction.reset();
+        return transaction;
+    }
+
+    public int getHintCount() {
+        return hintCount;
+    }
+
+    public void recordHint() {
+        hintCount++;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void addElapsedMillis(long millis) {
+        elapsedMillis += millis;
+    }
+
+    /**
+     * Encodes the current progress with {@link SolveStateCodec}.
+     */
+    @NonNull
+    public byte[] snapshot() {
+        return SolveStateCodec.encode(board, hintCount, elapsedMillis);
+    }
+
+    /**
+     * Restores progress saved by {@link #snapshot()} and re-derives the solved clue flags and
+     * progress counters.
+     *
+     * @throws PuzzleFormatException if the snapshot is corrupt or belongs to another puzzle
+     */
+    public void restore(@NonNull byte[] data) throws PuzzleFormatException {
+        SolveStateCodec.Snapshot snapshot = SolveStateCodec.decode(data, board);
+        hintCount = snapshot.getHintCount();
+        elapsedMillis = snapshot.getElapsedMillis();
+        for (int i = 0; i < board.getCellCount(); i++) {
+            if (!board.isBlock(i)) {
+                clueTracker.setCellCorrect(i, board.isCorrect(i));
+            }
+        }
+        progress.rebuild();
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.crossword.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Slot geometry of a grid: every across and down entry as a run of cell indexes, plus the crossing
+ * entry and offset for each of its cells.
+ *
+ * <p>Slots are ordered like the clues produced by {@link PuzzleData#buildPuzzle}: all across
+ * entries in reading order, then all down entries in reading order.</p>
+ */
+public final class SlotGrid {
+    private final int rows;
+    private final int columns;
+    private final int acrossCount;
+    private final int[][] cells;
+    private final int[][] crossingSlot;
+    private final int[][] crossingPosition;
+    private final int[] acrossSlotOfCell;
+    private final int[] downSlotOfCell;
+
+    private SlotGrid(int rows, int columns, List<int[]> across, List<int[]> down) {
+        this.rows = rows;
+        this.columns = columns;
+        this.acrossCount = across.size();
+
+        int slotCount = across.size() + down.size();
+        cells = new int[slotCount][];
+        for (int i = 0; i < across.size(); i++) {
+            cells[i] = across.get(i);
+        }
+        for (int i = 0; i < down.size(); i++) {
+            cells[acrossCount + i] = down.get(i);
+        }
+
+        int cellCount = rows * columns;
+        acrossSlotOfCell = new int[cellCount];
+        downSlotOfCell = new int[cellCount];
+        int[] acrossOffset = new int[cellCount];
+        int[] downOffset = new int[cellCount];
+        Arrays.fill(acrossSlotOfCell, -1);
+        Arrays.fill(downSlotOfCell, -1);
+        for (int slot = 0; slot < slotCount; slot++) {
+            boolean isAcross = slot < acrossCount;
+            for (int p = 0; p < cells[slot].length; p++) {
+                int cell = cells[slot][p];
+                if (isAcross) {
+                    acrossSlotOfCell[cell] = slot;
+                    acrossOffset[cell] = p;
+                } else {
+                    downSlotOfCell[cell] = slot;
+                    downOffset[cell] = p;
+                }
+            }
+        }
+
+        crossingSlot = new int[slotCount][];
+        crossingPosition = new int[slotCount][];
+        for (int slot = 0; slot < slotCount; slot++) {
+            boolean isAcross = slot < acrossCount;
+            int length = cells[slot].length;
+            crossingSlot[slot] = new int[length];
+            crossingPosition[slot] = new int[length];
+            for (int p = 0; p < length; p++) {
+                int cell = cells[slot][p];
+                crossingSlot[slot][p] = isAcross ? downSlotOfCell[cell] : acrossSlotOfCell[cell];
+                crossingPosition[slot][p] = isAcross ? downOffset[cell] : acrossOffset[cell];
+            }
+        }
+    }
+
+    /**
+     * Derives slots from a row-major layout in which {@link PuzzleData#BLOCK} marks black squares.
+     */
+    @NonNull
+    public static SlotGrid fromLayout(int rows, int columns, @NonNull char[] layout) {
+        List<int[]> across = new ArrayList<>();
+        List<int[]> down = new ArrayList<>();
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                int index = r * columns + c;
+                if (layout[index] == PuzzleData.BLOCK) {
+                    continue;
+                }
+                if (c == 0 || layout[index - 1] == PuzzleData.BLOCK) {
+                    int end = c;
+                    while (end < columns && layout[r * columns + end] != PuzzleData.BLOCK) {
+                        end++;
+                    }
+                    int[] slot = new int[end - c];
+                    for (int i = 0; i < slot.length; i++) {
+                        slot[i] = index + i;
+                    }
+                    across.add(slot);
+                }
+                if (r == 0 || layout[index - columns] == PuzzleData.BLOCK) {
+                    int end = r;
+                    while (end < rows && layout[end * columns + c] != PuzzleData.BLOCK) {
+                        end++;
+                    }
+                    int[] slot = new int[end - r];
+                    for (int i = 0; i < slot.length; i++) {
+                        slot[i] = index + i * columns;
+                    }
+                    down.add(slot);
+                }
+            }
+        }
+        return new SlotGrid(rows, columns, across, down);
+    }
+
+    /**
+     * Derives slots from the position lists of the puzzle's across and down clues.
+     */
+    @NonNull
+    public static SlotGrid fromPuzzle(@NonNull CrosswordPuzzle puzzle) {
+        int columns = puzzle.getColumns();
+        return new SlotGrid(puzzle.getRows(), columns,
+                toCellRuns(puzzle.getAcrossClues(), columns), toCellRuns(puzzle.getDownClues(), columns));
+    }
+
+    private static List<int[]> toCellRuns(List<CrosswordClue> clues, int columns) {
+        List<int[]> runs = new ArrayList<>(clues.size());
+        for (CrosswordClue clue : clues) {
+            List<CrosswordClue.Position> positions = clue.getPositions();
+            int[] run = new int[positions.size()];
+            for (int i = 0; i < run.length; i++) {
+                CrosswordClue.Position position = positions.get(i);
+                run[i] = position.getRow() * columns + position.getColumn();
+            }
+            runs.add(run);
+        }
+        return runs;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+
+    public int getSlotCount() {
+        return cells.length;
+    }
+
+    public int getAcrossCount() {
+        return acrossCount;
+    }
+
+    public boolean isAcross(int slot) {
+        return slot < acrossCount;
+    }
+
+    public int getLength(int slot) {
+        return cells[slot].length;
+    }
+
+    /**
+     * Returns the cell index at {@code position} within the slot.
+     */
+    public int getCell(int slot, int position) {
+        return cells[slot][position];
+    }
+
+    /**
+     * Returns the slot crossing {@code slot} at {@code position}, or -1 if that cell is unchecked.
+     */
+    public int getCrossingSlot(int slot, int position) {
+        return crossingSlot[slot][position];
+    }
+
+    /**
+     * Returns the offset of the shared cell within {@link #getCrossingSlot the crossing slot}.
+     */
+    public int getCrossingPosition(int slot, int position) {
+        return crossingPosition[slot][position];
+    }
+
+    public int getAcrossSlot(int cell) {
+        return acrossSlotOfCell[cell];
+    }
+
+    public int getDownSlot(int cell) {
+        return downSlotOfCell[cell];
+    }
+}
@@ -0,0 +1,372 @@
+package com.example.crossword.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Append-only log of solving actions with undo and redo.
+ *
+ * <p>Each event is a varint header {@code cell << 3 | type} followed by a type-specific varint
+ * payload, appended to one growable byte array:</p>
+ * <pre>
+ * TYPED, ERASED, HINTED   previous entry | entry << 5 | previous status << 10 | status << 12
+ *                         (entries 0 = empty, 1..26 = A..Z)
+ * CHECKED                 none; the header's cell is 0
+ * UNDONE, REDONE          index of the edit event that was reverted or re-applied
+ * </pre>
+ *
+ * <p>Undo and redo are logged as events rather than by truncating, so the log is a complete,
+ * replayable record of the session. The undo and redo stacks hold event indexes and an offset
+ * table locates any event, so a step decodes only its own records and allocates nothing.</p>
+ *
+ * <p>Edits recorded between {@link #beginGroup()} and {@link #endGroup()} form one step that undo
+ * and redo revert and re-apply together. A group's edits are consecutive events, so a step is kept
+ * as its first event index and its edit count; the log itself still holds one record per cell.</p>
+ */
+public class SolveHistory {
+    public static final int EVENT_TYPED = 0;
+    public static final int EVENT_ERASED = 1;
+    public static final int EVENT_HINTED = 2;
+    public static final int EVENT_CHECKED = 3;
+    public static final int EVENT_UNDONE = 4;
+    public static final int EVENT_REDONE = 5;
+
+    private static final int TYPE_BITS = 3;
+
+    /**
+     * Receives replayed events. Undo and redo events are reported as the cell transition they
+     * caused; {@link #EVENT_CHECKED} carries cell -1 and empty values.
+     */
+    public interface Visitor {
+        void onEvent(int type, int cell, char previousEntry, char entry, byte previousStatus, byte status);
+    }
+
+    /**
+     * Receives each cell an undo or redo step changed, with the entry it held before.
+     */
+    public interface StepListener {
+        void onCellChanged(int cell, char previousEntry);
+    }
+
+    private byte[] data = new byte[256];
+    private int length;
+    private int[] offsets = new int[64];
+    private int eventCount;
+
+    // Steps, as the event index of their first edit and their number of edits.
+    private int[] undoStack = new int[32];
+    private int[] undoCounts = new int[32];
+    private int undoSize;
+    private int[] redoStack = new int[32];
+    private int[] redoCounts = new int[32];
+    private int redoSize;
+
+    private boolean grouping;
+    private int groupEdits;
+
+    // Fields of the record last decoded by decode().
+    private int decodedType;
+    private int decodedCell;
+    private int decodedPayload;
+    private int readPosition;
+
+    /**
+     * Logs a change to one cell and makes it the next step to undo, or adds it to the open group's
+     * step; any redo history is dropped.
+     *
+     * @param type {@link #EVENT_TYPED}, {@link #EVENT_ERASED} or {@link #EVENT_HINTED}
+     */
+    public void recordEdit(int type, int cell, char previousEntry, byte previousStatus, char entry, byte status) {
+        int index = append(type, cell, packEdit(previousEntry, entry, previousStatus, status));
+        if (grouping && groupEdits++ > 0) {
+            undoCounts[undoSize - 1]++;
+        } else {
+            undoStack = push(undoStack, undoSize, index);
+            undoCounts = push(undoCounts, undoSize++, 1);
+        }
+        redoSize = 0;
+    }
+
+    /**
+     * Starts a group: the edits recorded until {@link #endGroup()} undo and redo as one step. An
+     * empty group adds no step. Nothing else may be recorded while a group is open.
+     */
+    public void beginGroup() {
+        if (grouping) {
+            throw new IllegalStateException("A group is already open");
+        }
+        grouping = true;
+        groupEdits = 0;
+    }
+
+    public void endGroup() {
+        grouping = false;
+    }
+
+    /**
+     * Logs that the answers were checked. Checks are not undoable.
+     */
+    public void recordCheck() {
+        if (grouping) {
+            throw new IllegalStateException("Checks cannot be recorded inside a group");
+        }
+        appendHeader(EVENT_CHECKED, 0);
+    }
+
+    public boolean canUndo() {
+        return undoSize > 0;
+    }
+
+    public boolean canRedo() {
+        return redoSize > 0;
+    }
+
+    /**
+     * Returns the first cell the next {@link #undo} will change, or -1 if there is nothing to undo.
+     */
+    public int getUndoCell() {
+        return undoSize == 0 ? -1 : cellOf(undoStack[undoSize - 1]);
+    }
+
+    /**
+     * Returns the first cell the next {@link #redo} will change, or -1 if there is nothing to redo.
+     */
+    public int getRedoCell() {
+        return redoSize == 0 ? -1 : cellOf(redoStack[redoSize - 1]);
+    }
+
+    /**
+     * Reverts the most recent step on {@code board}.
+     *
+     * @return the step's first cell, or -1 if there was nothing to undo
+     */
+    public int undo(@NonNull PuzzleBoard board) {
+        return undo(board, null);
+    }
+
+    /**
+     * Reverts the most recent step on {@code board}, last edit first, reporting each cell to
+     * {@code listener}.
+     *
+     * @return the step's first cell, or -1 if there was nothing to undo
+     */
+    public int undo(@NonNull PuzzleBoard board, @Nullable StepListener listener) {
+        if (undoSize == 0) {
+            return -1;
+        }
+        int first = undoStack[--undoSize];
+        int count = undoCounts[undoSize];
+        redoStack = push(redoStack, redoSize, first);
+        redoCounts = push(redoCounts, redoSize++, count);
+        for (int k = count - 1; k >= 0; k--) {
+            int index = first + k;
+            decode(index);
+            int cell = decodedCell;
+            int payload = decodedPayload;
+            char previous = board.getEntry(cell);
+            board.setEntry(cell, entryOf(payload, 0));
+            board.setStatus(cell, statusOf(payload, 10));
+            append(EVENT_UNDONE, cell, index);
+            if (listener != null) {
+                listener.onCellChanged(cell, previous);
+            }
+        }
+        return cellOf(first);
+    }
+
+    /**
+     * Re-applies the most recently undone step on {@code board}.
+     *
+     * @return the step's first cell, or -1 if there was nothing to redo
+     */
+    public int redo(@NonNull PuzzleBoard board) {
+        return redo(board, null);
+    }
+
+    /**
+     * Re-applies the most recently undone step on {@code board}, first edit first, reporting each
+     * cell to {@code listener}.
+     *
+     * @return the step's first cell, or -1 if there was nothing to redo
+     */
+    public int redo(@NonNull PuzzleBoard board, @Nullable StepListener listener) {
+        if (redoSize == 0) {
+            return -1;
+        }
+        int first = redoStack[--redoSize];
+        int count = redoCounts[redoSize];
+        undoStack = push(undoStack, undoSize, first);
+        undoCounts = push(undoCounts, undoSize++, count);
+        for (int k = 0; k < count; k++) {
+            int index = first + k;
+            decode(index);
+            int cell = decodedCell;
+            int payload = decodedPayload;
+            char previous = board.getEntry(cell);
+            board.setEntry(cell, entryOf(payload, 5));
+            board.setStatus(cell, statusOf(payload, 12));
+            append(EVENT_REDONE, cell, index);
+            if (listener != null) {
+                listener.onCellChanged(cell, previous);
+            }
+        }
+        return cellOf(first);
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Returns the number of bytes the encoded log occupies.
+     */
+    public int getByteLength() {
+        return length;
+    }
+
+    /**
+     * Streams every event in the order it was logged.
+     */
+    public void replay(@NonNull Visitor visitor) {
+        for (int i = 0; i < eventCount; i++) {
+            decode(i);
+            int type = decodedType;
+            int cell = decodedCell;
+            int payload = decodedPayload;
+            switch (type) {
+                case EVENT_CHECKED:
+                    visitor.onEvent(type, -1, PuzzleBoard.EMPTY, PuzzleBoard.EMPTY,
+                            PuzzleBoard.STATUS_DEFAULT, PuzzleBoard.STATUS_DEFAULT);
+                    break;
+                case EVENT_UNDONE:
+                case EVENT_REDONE:
+                    decode(payload);
+                    boolean undone = type == EVENT_UNDONE;
+                    int edit = decodedPayload;
+                    visitor.onEvent(type, cell,
+                            entryOf(edit, undone ? 5 : 0), entryOf(edit, undone ? 0 : 5),
+                            statusOf(edit, undone ? 12 : 10), statusOf(edit, undone ? 10 : 12));
+                    break;
+                default:
+                    visitor.onEvent(type, cell, entryOf(payload, 0), entryOf(payload, 5),
+                            statusOf(payload, 10), statusOf(payload, 12));
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Replays the log onto {@code board}, leaving its entries and statuses as they were after the
+     * last logged edit. Statuses assigned by a check are not logged and are not reproduced.
+     */
+    public void applyTo(@NonNull PuzzleBoard board) {
+        for (int i = 0; i < eventCount; i++) {
+            decode(i);
+            int type = decodedType;
+            if (type == EVENT_CHECKED) {
+                continue;
+            }
+            int cell = decodedCell;
+            int payload = decodedPayload;
+            int shift = 5;
+            if (type == EVENT_UNDONE || type == EVENT_REDONE) {
+                decode(payload);
+                payload = decodedPayload;
+                shift = type == EVENT_UNDONE ? 0 : 5;
+            }
+            board.setEntry(cell, entryOf(payload, shift));
+            board.setStatus(cell, statusOf(payload, shift == 5 ? 12 : 10));
+        }
+    }
+
+    /**
+     * Returns a copy of the encoded log.
+     */
+    @NonNull
+    public byte[] toByteArray() {
+        return Arrays.copyOf(data, length);
+    }
+
+    private static int packEdit(char previousEntry, char entry, byte previousStatus, byte status) {
+        return entryCode(previousEntry) | entryCode(entry) << 5 | previousStatus << 10 | status << 12;
+    }
+
+    private static int entryCode(char entry) {
+        return entry == PuzzleBoard.EMPTY ? 0 : entry - 'A' + 1;
+    }
+
+    private static char entryOf(int payload, int shift) {
+        int code = (payload >>> shift) & 0x1F;
+        return code == 0 ? PuzzleBoard.EMPTY : (char) ('A' + code - 1);
+    }
+
+    private static byte statusOf(int payload, int shift) {
+        return (byte) ((payload >>> shift) & 0x3);
+    }
+
+    private int cellOf(int index) {
+        decode(index);
+        return decodedCell;
+    }
+
+    private int append(int type, int cell, int payload) {
+        int index = appendHeader(type, cell);
+        ensureCapacity(5);
+        length = writeVarint(data, length, payload);
+        return index;
+    }
+
+    private int appendHeader(int type, int cell) {
+        if (eventCount == offsets.length) {
+            offsets = Arrays.copyOf(offsets, eventCount * 2);
+        }
+        offsets[eventCount] = length;
+        ensureCapacity(5);
+        length = writeVarint(data, length, cell << TYPE_BITS | type);
+        return eventCount++;
+    }
+
+    private void decode(int index) {
+        readPosition = offsets[index];
+        int header = readVarint();
+        decodedType = header & ((1 << TYPE_BITS) - 1);
+        decodedCell = header >>> TYPE_BITS;
+        decodedPayload = decodedType == EVENT_CHECKED ? 0 : readVarint();
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + extra));
+        }
+    }
+
+    private static int[] push(int[] stack, int size, int value) {
+        if (size == stack.length) {
+            stack = Arrays.copyOf(stack, size * 2);
+        }
+        stack[size] = value;
+        return stack;
+    }
+
+    private static int writeVarint(byte[] data, int position, int value) {
+        while ((value & ~0x7F) != 0) {
+            data[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[position++] = (byte) value;
+        return position;
+    }
+
+    private int readVarint() {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = data[readPosition++];
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+}
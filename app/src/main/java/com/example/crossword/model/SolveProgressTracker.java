@@ -0,0 +1,291 @@
+package com.example.crossword.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntConsumer;
+
+/**
+ * Keeps running totals of correct, incorrect and empty cells so that completion, hints and checks
+ * do not rescan the board.
+ *
+ * <p>Cells that do not hold their solution are kept in a dense set, which gives constant-time
+ * membership updates and random picks. Ordered hint strategies walk a precomputed cell order with
+ * a cursor that only moves back when a cell earlier in the order becomes unresolved again, so a
+ * sequence of hints costs amortized constant time each. Cells edited since the last check are
+ * queued, and a check visits only those.</p>
+ */
+public class SolveProgressTracker {
+
+    public enum HintStrategy {
+        /** First unresolved cell in the active entry, falling back to reading order. */
+        ACTIVE_CLUE,
+        /** First unresolved cell in reading order. */
+        READING_ORDER,
+        /** Any unresolved cell, uniformly at random. */
+        RANDOM,
+        /** The unresolved cell whose across and down entries are longest together. */
+        MOST_CROSSED
+    }
+
+    private final PuzzleBoard board;
+    private final SlotGrid slots;
+    private final Random random = new Random();
+
+    private final int openCount;
+    private int correctCount;
+    private int emptyCount;
+
+    // Dense set of open cells that do not hold their solution.
+    private final int[] unresolved;
+    private final int[] unresolvedPosition;
+    private int unresolvedSize;
+
+    // Cells edited since the last check, deduplicated by the flag array.
+    private final int[] dirty;
+    private final boolean[] isDirty;
+    private int dirtySize;
+
+    private final int[] readingOrder;
+    private final int[] readingRank;
+    private int readingCursor;
+    private final int[] crossedOrder;
+    private final int[] crossedRank;
+    private int crossedCursor;
+
+    public SolveProgressTracker(@NonNull PuzzleBoard board, @NonNull SlotGrid slots) {
+        this.board = board;
+        this.slots = slots;
+
+        int cellCount = board.getCellCount();
+        int open = 0;
+        for (int i = 0; i < cellCount; i++) {
+            if (!board.isBlock(i)) {
+                open++;
+            }
+        }
+        openCount = open;
+        unresolved = new int[open];
+        unresolvedPosition = new int[cellCount];
+        dirty = new int[open];
+        isDirty = new boolean[cellCount];
+
+        readingOrder = new int[open];
+        crossedOrder = new int[open];
+        long[] crossedKeys = new long[open];
+        int n = 0;
+        for (int i = 0; i < cellCount; i++) {
+            if (board.isBlock(i)) {
+                continue;
+            }
+            readingOrder[n] = i;
+            // Sort descending by combined entry length, then ascending by cell.
+            crossedKeys[n] = ((long) (Integer.MAX_VALUE - crossingWeight(i)) << 32) | i;
+            n++;
+        }
+        Arrays.sort(crossedKeys);
+        for (int k = 0; k < open; k++) {
+            crossedOrder[k] = (int) crossedKeys[k];
+        }
+        readingRank = rankOf(readingOrder, cellCount);
+        crossedRank = rankOf(crossedOrder, cellCount);
+
+        rebuild();
+    }
+
+    private int crossingWeight(int cell) {
+        int across = slots.getAcrossSlot(cell);
+        int down = slots.getDownSlot(cell);
+        return (across < 0 ? 0 : slots.getLength(across)) + (down < 0 ? 0 : slots.getLength(down));
+    }
+
+    private static int[] rankOf(int[] order, int cellCount) {
+        int[] rank = new int[cellCount];
+        Arrays.fill(rank, -1);
+        for (int k = 0; k < order.length; k++) {
+            rank[order[k]] = k;
+        }
+        return rank;
+    }
+
+    /**
+     * Recomputes every counter from the board, e.g. after progress was restored. Every filled cell
+     * is queued for the next check.
+     */
+    public void rebuild() {
+        correctCount = 0;
+        emptyCount = 0;
+        unresolvedSize = 0;
+        Arrays.fill(unresolvedPosition, -1);
+        for (int k = 0; k < dirtySize; k++) {
+            isDirty[dirty[k]] = false;
+        }
+        dirtySize = 0;
+        readingCursor = 0;
+        crossedCursor = 0;
+
+        for (int cell : readingOrder) {
+            if (board.isEmpty(cell)) {
+                emptyCount++;
+            } else {
+                markDirty(cell);
+            }
+            if (board.isCorrect(cell)) {
+                correctCount++;
+            } else {
+                addUnresolved(cell);
+            }
+        }
+    }
+
+    /**
+     * Updates the counters after the entry at {@code cell} was changed from {@code previous}.
+     */
+    public void onEntryChanged(int cell, char previous) {
+        char entry = board.getEntry(cell);
+        markDirty(cell);
+        if (entry == previous) {
+            return;
+        }
+        char solution = board.getSolution(cell);
+        if (previous == PuzzleBoard.EMPTY) {
+            emptyCount--;
+        } else if (entry == PuzzleBoard.EMPTY) {
+            emptyCount++;
+        }
+        if (previous == solution) {
+            correctCount--;
+            addUnresolved(cell);
+        } else if (entry == solution) {
+            correctCount++;
+            removeUnresolved(cell);
+        }
+    }
+
+    public int getOpenCount() {
+        return openCount;
+    }
+
+    public int getCorrectCount() {
+        return correctCount;
+    }
+
+    public int getEmptyCount() {
+        return emptyCount;
+    }
+
+    /**
+     * Returns the number of filled cells that do not hold their solution.
+     */
+    public int getIncorrectCount() {
+        return openCount - correctCount - emptyCount;
+    }
+
+    public boolean isComplete() {
+        return correctCount == openCount;
+    }
+
+    /**
+     * Returns the cell to reveal next, or -1 if every cell is already correct.
+     *
+     * @param activeSlot slot the cursor is in, used by {@link HintStrategy#ACTIVE_CLUE}; may be -1
+     */
+    public int nextHintCell(@NonNull HintStrategy strategy, int activeSlot) {
+        if (unresolvedSize == 0) {
+            return -1;
+        }
+        switch (strategy) {
+            case ACTIVE_CLUE:
+                if (activeSlot >= 0) {
+                    for (int p = 0; p < slots.getLength(activeSlot); p++) {
+                        int cell = slots.getCell(activeSlot, p);
+                        if (unresolvedPosition[cell] >= 0) {
+                            return cell;
+                        }
+                    }
+                }
+                return nextInReadingOrder();
+            case RANDOM:
+                return unresolved[random.nextInt(unresolvedSize)];
+            case MOST_CROSSED:
+                while (unresolvedPosition[crossedOrder[crossedCursor]] < 0) {
+                    crossedCursor++;
+                }
+                return crossedOrder[crossedCursor];
+            case READING_ORDER:
+            default:
+                return nextInReadingOrder();
+        }
+    }
+
+    private int nextInReadingOrder() {
+        while (unresolvedPosition[readingOrder[readingCursor]] < 0) {
+            readingCursor++;
+        }
+        return readingOrder[readingCursor];
+    }
+
+    /**
+     * Marks the cells edited since the last check as correct or incorrect, leaving hinted cells
+     * that are still correct alone, and reports each cell whose status changed.
+     */
+    public void check(@NonNull IntConsumer onStatusChanged) {
+        for (int k = 0; k < dirtySize; k++) {
+            int cell = dirty[k];
+            isDirty[cell] = false;
+            checkCell(cell, onStatusChanged);
+        }
+        dirtySize = 0;
+    }
+
+    /**
+     * Checks every cell of one entry, edited or not, like {@link #check}. The cells stay queued
+     * for the next full check, which will find nothing to change in them unless they are edited
+     * again.
+     */
+    public void checkSlot(int slot, @NonNull IntConsumer onStatusChanged) {
+        for (int p = 0; p < slots.getLength(slot); p++) {
+            checkCell(slots.getCell(slot, p), onStatusChanged);
+        }
+    }
+
+    private void checkCell(int cell, IntConsumer onStatusChanged) {
+        byte status = board.getStatus(cell);
+        if (board.isEmpty(cell)) {
+            status = PuzzleBoard.STATUS_DEFAULT;
+        } else if (board.isCorrect(cell)) {
+            if (status != PuzzleBoard.STATUS_HINTED) {
+                status = PuzzleBoard.STATUS_CORRECT;
+            }
+        } else {
+            status = PuzzleBoard.STATUS_INCORRECT;
+        }
+        if (status != board.getStatus(cell)) {
+            board.setStatus(cell, status);
+            onStatusChanged.accept(cell);
+        }
+    }
+
+    private void markDirty(int cell) {
+        if (!isDirty[cell]) {
+            isDirty[cell] = true;
+            dirty[dirtySize++] = cell;
+        }
+    }
+
+    private void addUnresolved(int cell) {
+        unresolvedPosition[cell] = unresolvedSize;
+        unresolved[unresolvedSize++] = cell;
+        readingCursor = Math.min(readingCursor, readingRank[cell]);
+        crossedCursor = Math.min(crossedCursor, crossedRank[cell]);
+    }
+
+    private void removeUnresolved(int cell) {
+        int position = unresolvedPosition[cell];
+        int last = unresolved[--unresolvedSize];
+        unresolved[position] = last;
+        unresolvedPosition[last] = position;
+        unresolvedPosition[cell] = -1;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.crossword.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Persists encoded solves in a private directory, one file per puzzle fingerprint.
+ *
+ * <p>Writes go to a temporary file that is synced and then renamed over the previous save, so a
+ * crash mid-write leaves either the old or the new snapshot, never a torn one.</p>
+ */
+public class SolveStateStore {
+    private static final String SUFFIX = ".solve";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File directory;
+
+    public SolveStateStore(@NonNull File directory) {
+        this.directory = directory;
+    }
+
+    public void write(int fingerprint, @NonNull byte[] data) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        File target = fileFor(fingerprint);
+        File temp = new File(directory, target.getName() + TEMP_SUFFIX);
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(data);
+            out.getFD().sync();
+        }
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            throw new IOException("Cannot replace " + target);
+        }
+    }
+
+    /**
+     * Returns the saved bytes for the puzzle, or {@code null} if nothing was saved.
+     */
+    @Nullable
+    public byte[] read(int fingerprint) throws IOException {
+        File file = fileFor(fingerprint);
+        try (FileInputStream in = new FileInputStream(file)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.max(32, file.length()));
+            byte[] buffer = new byte[4096];
+            int count;
+            while ((count = in.read(buffer)) > 0) {
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+    }
+
+    public void delete(int fingerprint) {
+        fileFor(fingerprint).delete();
+    }
+
+    private File fileFor(int fingerprint) {
+        return new File(directory, Integer.toHexString(fingerprint) + SUFFIX);
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.crossword.model;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read-only word list in a memory-mapped file, answering "what fits here" pattern queries.
+ *
+ * <p>Layout (version 1, big-endian), written by {@link WordDictionaryWriter}:</p>
+ * <pre>
+ * 'C' 'D' version 0                 4 bytes
+ * maximum word length               4 bytes
+ * one record per length 1..max      16 bytes each
+ *   word count                      4 bytes
+ *   longs per bitset                4 bytes
+ *   letters offset                  4 bytes
+ *   bitsets offset                  4 bytes (8-aligned)
+ * letters                           sorted words, one byte per letter (0 = A)
+ * bitsets                           one per (position, letter), as in {@link WordIndex}
+ * </pre>
+ *
+ * <p>The words of a pattern such as {@code S?T?R} are the intersection of the bitsets of its fixed
+ * letters, so a query touches only the bitsets it needs and never decodes a word that does not
+ * match. The words stay in the page cache instead of on the heap.</p>
+ */
+public class WordDictionary {
+    /** Pattern character for an unknown letter; any other non-letter works too. */
+    public static final char WILDCARD = '?';
+
+    static final byte MAGIC_0 = 'C';
+    static final byte MAGIC_1 = 'D';
+    static final byte VERSION = 1;
+    static final int HEADER_LENGTH = 8;
+    static final int RECORD_LENGTH = 16;
+
+    private final ByteBuffer buffer;
+    private final int maxLength;
+
+    WordDictionary(@NonNull ByteBuffer buffer) throws PuzzleFormatException {
+        this.buffer = buffer.order(ByteOrder.BIG_ENDIAN);
+        if (buffer.limit() < HEADER_LENGTH || buffer.get(0) != MAGIC_0 || buffer.get(1) != MAGIC_1) {
+            throw new PuzzleFormatException("Not a word dictionary");
+        }
+        if (buffer.get(2) != VERSION) {
+            throw new PuzzleFormatException("Unsupported word dictionary version " + buffer.get(2));
+        }
+        maxLength = buffer.getInt(4);
+        if (maxLength < 0 || HEADER_LENGTH + (long) maxLength * RECORD_LENGTH > buffer.limit()) {
+            throw new PuzzleFormatException("Word dictionary index is truncated");
+        }
+        for (int length = 1; length <= maxLength; length++) {
+            int count = getWordCount(length);
+            long lettersEnd = letters(length) + (long) count * length;
+            long masksEnd = masks(length) + 8L * length * WordIndex.ALPHABET * getMaskWords(length);
+            if (count < 0 || lettersEnd > buffer.limit() || masksEnd > buffer.limit()) {
+                throw new PuzzleFormatException("Word dictionary bucket " + length + " is truncated");
+            }
+        }
+    }
+
+    /**
+     * Maps {@code file}; the mapping stays valid after the file is closed.
+     */
+    @NonNull
+    public static WordDictionary open(@NonNull File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            return new WordDictionary(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    public int getWordCount(int length) {
+        return length < 1 || length > maxLength ? 0 : buffer.getInt(record(length));
+    }
+
+    /**
+     * Returns the number of {@code long}s in a result bitset for words of {@code length}.
+     */
+    public int getMaskWords(int length) {
+        return length < 1 || length > maxLength ? 0 : buffer.getInt(record(length) + 4);
+    }
+
+    @NonNull
+    public String getWord(int length, int id) {
+        int offset = letters(length) + id * length;
+        char[] word = new char[length];
+        for (int p = 0; p < length; p++) {
+            word[p] = (char) ('A' + buffer.get(offset + p));
+        }
+        return new String(word);
+    }
+
+    /**
+     * Sets {@code result} to the bitset of word ids matching {@code pattern}.
+     *
+     * @param result at least {@link #getMaskWords} longs for the pattern's length
+     * @return the number of matching words
+     */
+    public int match(@NonNull CharSequence pattern, @NonNull long[] result) {
+        int length = pattern.length();
+        int count = getWordCount(length);
+        int words = getMaskWords(length);
+        if (count == 0) {
+            return 0;
+        }
+        fillAll(length, result);
+
+        int masks = masks(length);
+        int matches = count;
+        for (int p = 0; p < length && matches > 0; p++) {
+            char c = PuzzleBoard.normalize(pattern.charAt(p));
+            if (c == PuzzleBoard.EMPTY) {
+                continue;
+            }
+            int base = masks + ((p * WordIndex.ALPHABET + c - 'A') * words << 3);
+            matches = 0;
+            for (int i = 0; i < words; i++) {
+                long value = result[i];
+                if (value != 0) {
+                    value &= buffer.getLong(base + (i << 3));
+                    result[i] = value;
+                    matches += Long.bitCount(value);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns up to {@code limit} words matching {@code pattern}, in alphabetical order.
+     */
+    @NonNull
+    public List<String> match(@NonNull CharSequence pattern, int limit) {
+        int length = pattern.length();
+        long[] result = new long[getMaskWords(length)];
+        int matches = match(pattern, result);
+        List<String> words = new ArrayList<>(Math.min(matches, limit));
+        for (int i = 0; i < result.length && words.size() < limit; i++) {
+            long bits = result[i];
+            while (bits != 0 && words.size() < limit) {
+                words.add(getWord(length, (i << 6) + Long.numberOfTrailingZeros(bits)));
+                bits &= bits - 1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Returns up to {@code limit} words that fit the entry of {@code clue} as filled on
+     * {@code board}.
+     */
+    @NonNull
+    public List<String> match(@NonNull PuzzleBoard board, @NonNull CrosswordClue clue, int limit) {
+        return match(patternOf(board, clue), limit);
+    }
+
+    /**
+     * Returns the entry of {@code clue} on {@code board}, with {@link #WILDCARD} for empty cells.
+     */
+    @NonNull
+    public static String patternOf(@NonNull PuzzleBoard board, @NonNull CrosswordClue clue) {
+        List<CrosswordClue.Position> positions = clue.getPositions();
+        char[] pattern = new char[positions.size()];
+        for (int i = 0; i < pattern.length; i++) {
+            CrosswordClue.Position position = positions.get(i);
+            char entry = board.getEntry(board.toIndex(position.getRow(), position.getColumn()));
+            pattern[i] = entry == PuzzleBoard.EMPTY ? WILDCARD : entry;
+        }
+        return new String(pattern);
+    }
+
+    /**
+     * Sets {@code target} to the bitset of every word of {@code length}.
+     */
+    void fillAll(int length, @NonNull long[] target) {
+        int count = getWordCount(length);
+        int full = count >>> 6;
+        Arrays.fill(target, 0, full, -1L);
+        if ((count & 63) != 0) {
+            target[full] = (1L << count) - 1;
+        }
+    }
+
+    /**
+     * Returns the letter (0 = A .. 25 = Z) of word {@code id} at {@code position}.
+     */
+    int getLetter(int length, int id, int position) {
+        return buffer.get(letters(length) + id * length + position);
+    }
+
+    /**
+     * Intersects {@code target} with the words of {@code length} that have {@code letter} at
+     * {@code position}, or with the words that do not if {@code exclude} is set, returning the
+     * number of words left.
+     */
+    int retain(int length, int position, int letter, boolean exclude, @NonNull long[] target) {
+        int base = bitset(length, position, letter);
+        long flip = exclude ? -1L : 0L;
+        int count = 0;
+        for (int i = 0; i < target.length; i++) {
+            long value = target[i];
+            if (value != 0) {
+                value &= buffer.getLong(base + (i << 3)) ^ flip;
+                target[i] = value;
+                count += Long.bitCount(value);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Adds the words of {@code length} that have {@code letter} at {@code position} to
+     * {@code target}.
+     */
+    void add(int length, int position, int letter, @NonNull long[] target) {
+        int base = bitset(length, position, letter);
+        for (int i = 0; i < target.length; i++) {
+            target[i] |= buffer.getLong(base + (i << 3));
+        }
+    }
+
+    /**
+     * Returns {@code true} if any word in {@code candidates} has {@code letter} at {@code position}.
+     */
+    boolean intersects(int length, int position, int letter, @NonNull long[] candidates) {
+        int base = bitset(length, position, letter);
+        for (int i = 0; i < candidates.length; i++) {
+            if ((candidates[i] & buffer.getLong(base + (i << 3))) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int bitset(int length, int position, int letter) {
+        return masks(length) + ((position * WordIndex.ALPHABET + letter) * getMaskWords(length) << 3);
+    }
+
+    private int record(int length) {
+        return HEADER_LENGTH + (length - 1) * RECORD_LENGTH;
+    }
+
+    private int letters(int length) {
+        return buffer.getInt(record(length) + 8);
+    }
+
+    private int masks(int length) {
+        return buffer.getInt(record(length) + 12);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.crossword.model;
+
+import androidx.annotation.NonNull;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Packs a word list into the format read by {@link WordDictionary}.
+ */
+public class WordDictionaryWriter {
+    private final WordIndex index;
+
+    /**
+     * Indexes {@code words} as {@link WordIndex#build} does: upper-cased, with duplicates and words
+     * containing anything other than A-Z dropped.
+     */
+    public WordDictionaryWriter(@NonNull Iterable<? extends CharSequence> words) {
+        index = WordIndex.build(words);
+    }
+
+    public void write(@NonNull OutputStream stream) throws IOException {
+        int maxLength = index.getMaxLength();
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeByte(WordDictionary.MAGIC_0);
+        out.writeByte(WordDictionary.MAGIC_1);
+        out.writeByte(WordDictionary.VERSION);
+        out.writeByte(0);
+        out.writeInt(maxLength);
+
+        long offset = WordDictionary.HEADER_LENGTH + (long) maxLength * WordDictionary.RECORD_LENGTH;
+        int[] masksPadding = new int[maxLength + 1];
+        for (int length = 1; length <= maxLength; length++) {
+            int count = index.getWordCount(length);
+            long lettersOffset = offset;
+            long masksOffset = align8(lettersOffset + (long) count * length);
+            masksPadding[length] = (int) (masksOffset - lettersOffset - (long) count * length);
+            offset = masksOffset + 8L * length * WordIndex.ALPHABET * index.getMaskWords(length);
+            if (offset > Integer.MAX_VALUE) {
+                throw new IOException("Word dictionary exceeds 2 GB");
+            }
+            out.writeInt(count);
+            out.writeInt(index.getMaskWords(length));
+            out.writeInt((int) lettersOffset);
+            out.writeInt((int) masksOffset);
+        }
+
+        for (int length = 1; length <= maxLength; length++) {
+            int count = index.getWordCount(length);
+            for (int id = 0; id < count; id++) {
+                for (int p = 0; p < length; p++) {
+                    out.writeByte(index.getLetter(length, id, p));
+                }
+            }
+            for (int i = 0; i < masksPadding[length]; i++) {
+                out.writeByte(0);
+            }
+            writeMasks(out, length, count);
+        }
+        out.flush();
+    }
+
+    public void write(@NonNull File file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            write(out);
+        }
+    }
+
+    private void writeMasks(DataOutputStream out, int length, int count) throws IOException {
+        int words = index.getMaskWords(length);
+        long[] mask = new long[words];
+        for (int p = 0; p < length; p++) {
+            for (int letter = 0; letter < WordIndex.ALPHABET; letter++) {
+                index.fillAll(length, mask);
+                if (count > 0) {
+                    index.retain(length, p, letter, mask);
+                }
+                for (long value : mask) {
+                    out.writeLong(value);
+                }
+            }
+        }
+    }
+
+    private static long align8(long offset) {
+        return (offset + 7) & ~7L;
+    }
+}
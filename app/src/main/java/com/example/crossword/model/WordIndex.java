@@ -0,0 +1,213 @@
+package com.example.crossword.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Word list bucketed by length with a bitset per (length, position, letter).
+ *
+ * <p>Within a length bucket every word has a dense id. The bitset for (position, letter) has bit
+ * {@code id} set when that word has the letter at that position, so the words matching a partial
+ * pattern are the intersection of one bitset per fixed letter.</p>
+ */
+public final class WordIndex {
+    public static final int ALPHABET = 26;
+
+    private final int[] counts;
+    private final byte[][] letters;
+    private final long[][] masks;
+    private final int[] maskWords;
+
+    private WordIndex(List<List<byte[]>> buckets) {
+        int maxLength = buckets.size() - 1;
+        counts = new int[maxLength + 1];
+        letters = new byte[maxLength + 1][];
+        masks = new long[maxLength + 1][];
+        maskWords = new int[maxLength + 1];
+
+        for (int length = 1; length <= maxLength; length++) {
+            List<byte[]> words = buckets.get(length);
+            int count = words.size();
+            int wordsPerMask = (count + 63) >>> 6;
+            byte[] flat = new byte[count * length];
+            long[] lengthMasks = new long[length * ALPHABET * wordsPerMask];
+            for (int id = 0; id < count; id++) {
+                byte[] word = words.get(id);
+                System.arraycopy(word, 0, flat, id * length, length);
+                for (int p = 0; p < length; p++) {
+                    lengthMasks[(p * ALPHABET + word[p]) * wordsPerMask + (id >>> 6)] |= 1L << id;
+                }
+            }
+            counts[length] = count;
+            letters[length] = flat;
+            masks[length] = lengthMasks;
+            maskWords[length] = wordsPerMask;
+        }
+    }
+
+    /**
+     * Indexes the given words. Letters are upper-cased; words containing anything other than
+     * A-Z are skipped, as are duplicates.
+     */
+    @NonNull
+    public static WordIndex build(@NonNull Iterable<? extends CharSequence> words) {
+        List<List<byte[]>> buckets = new ArrayList<>();
+        buckets.add(new ArrayList<>());
+        for (CharSequence raw : words) {
+            byte[] word = encode(raw);
+            if (word == null) {
+                continue;
+            }
+            while (buckets.size() <= word.length) {
+                buckets.add(new ArrayList<>());
+            }
+            buckets.get(word.length).add(word);
+        }
+        for (int i = 0; i < buckets.size(); i++) {
+            buckets.set(i, sortedUnique(buckets.get(i)));
+        }
+        return new WordIndex(buckets);
+    }
+
+    private static List<byte[]> sortedUnique(List<byte[]> bucket) {
+        bucket.sort(WordIndex::compare);
+        List<byte[]> unique = new ArrayList<>(bucket.size());
+        for (byte[] word : bucket) {
+            if (unique.isEmpty() || compare(unique.get(unique.size() - 1), word) != 0) {
+                unique.add(word);
+            }
+        }
+        return unique;
+    }
+
+    private static byte[] encode(CharSequence raw) {
+        int length = raw.length();
+        if (length == 0) {
+            return null;
+        }
+        byte[] word = new byte[length];
+        for (int i = 0; i < length; i++) {
+            char c = PuzzleBoard.normalize(raw.charAt(i));
+            if (c == PuzzleBoard.EMPTY) {
+                return null;
+            }
+            word[i] = (byte) (c - 'A');
+        }
+        return word;
+    }
+
+    private static int compare(byte[] a, byte[] b) {
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i]) {
+                return a[i] - b[i];
+            }
+        }
+        return 0;
+    }
+
+    public int getMaxLength() {
+        return counts.length - 1;
+    }
+
+    public int getWordCount(int length) {
+        return length < counts.length ? counts[length] : 0;
+    }
+
+    /**
+     * Returns the number of {@code long}s in a candidate bitset for words of {@code length}.
+     */
+    public int getMaskWords(int length) {
+        return length < maskWords.length ? maskWords[length] : 0;
+    }
+
+    /**
+     * Returns the letter (0 = A .. 25 = Z) of word {@code id} at {@code position}.
+     */
+    public int getLetter(int length, int id, int position) {
+        return letters[length][id * length + position];
+    }
+
+    @NonNull
+    public String getWord(int length, int id) {
+        char[] word = new char[length];
+        for (int p = 0; p < length; p++) {
+            word[p] = (char) ('A' + letters[length][id * length + p]);
+        }
+        return new String(word);
+    }
+
+    /**
+     * Sets {@code target} to the bitset of every word of {@code length}.
+     */
+    public void fillAll(int length, @NonNull long[] target) {
+        int count = getWordCount(length);
+        int full = count >>> 6;
+        Arrays.fill(target, 0, full, -1L);
+        if ((count & 63) != 0) {
+            target[full] = (1L << count) - 1;
+        }
+    }
+
+    /**
+     * Intersects {@code target} with the words of {@code length} that have {@code letter} at
+     * {@code position}, returning the number of words left.
+     */
+    public int retain(int length, int position, int letter, @NonNull long[] target) {
+        long[] lengthMasks = masks[length];
+        int words = maskWords[length];
+        int base = (position * ALPHABET + letter) * words;
+        int count = 0;
+        for (int i = 0; i < words; i++) {
+            long value = target[i] & lengthMasks[base + i];
+            target[i] = value;
+            count += Long.bitCount(value);
+        }
+        return count;
+    }
+
+    /**
+     * Returns {@code true} if any word in {@code candidates} has {@code letter} at {@code position}.
+     */
+    public boolean intersects(int length, int position, int letter, @NonNull long[] candidates) {
+        long[] lengthMasks = masks[length];
+        int words = maskWords[length];
+        int base = (position * ALPHABET + letter) * words;
+        for (int i = 0; i < words; i++) {
+            if ((candidates[i] & lengthMasks[base + i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the word id for an upper-case word, or -1 if it is not in the index.
+     */
+    public int find(@NonNull CharSequence word) {
+        int length = word.length();
+        if (length >= counts.length || counts[length] == 0) {
+            return -1;
+        }
+        byte[] flat = letters[length];
+        int low = 0;
+        int high = counts[length] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = 0;
+            for (int p = 0; p < length && cmp == 0; p++) {
+                cmp = flat[mid * length + p] - (word.charAt(p) - 'A');
+            }
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+}
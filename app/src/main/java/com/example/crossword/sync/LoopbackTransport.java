@@ -0,0 +1,55 @@
+package com.example.crossword.sync;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process transport: every endpoint connected to the same hub receives the batches of all the
+ * others, synchronously on the sender's thread.
+ */
+public final class LoopbackTransport implements SyncTransport {
+
+    /**
+     * A set of connected endpoints, standing in for a server.
+     */
+    public static final class Hub {
+        private final List<LoopbackTransport> endpoints = new CopyOnWriteArrayList<>();
+
+        @NonNull
+        public LoopbackTransport connect() {
+            LoopbackTransport endpoint = new LoopbackTransport(this);
+            endpoints.add(endpoint);
+            return endpoint;
+        }
+    }
+
+    private final Hub hub;
+    private volatile Receiver receiver;
+
+    private LoopbackTransport(Hub hub) {
+        this.hub = hub;
+    }
+
+    @Override
+    public void setReceiver(@Nullable Receiver receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void send(@NonNull byte[] batch) {
+        for (LoopbackTransport endpoint : hub.endpoints) {
+            Receiver target = endpoint.receiver;
+            if (endpoint != this && target != null) {
+                target.onBatch(batch);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        hub.endpoints.remove(this);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.crossword.sync;
+
+import java.io.IOException;
+
+/**
+ * Thrown when a received batch is truncated, corrupt or from an unsupported protocol version.
+ */
+public class SyncFormatException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public SyncFormatException(String message) {
+        super(message);
+    }
+}
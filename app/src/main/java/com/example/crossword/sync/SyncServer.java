@@ -0,0 +1,146 @@
+package com.example.crossword.sync;
+
+import androidx.annotation.NonNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Reference relay for {@link TcpSyncTransport}: every frame a client sends is forwarded to all
+ * other connected clients. The server never decodes batches, so it works for any puzzle and needs
+ * no state beyond its connections.
+ *
+ * <pre>
+ * java com.example.crossword.sync.SyncServer [port] [--bind address]
+ * </pre>
+ *
+ * <p>It listens on the loopback address unless {@code --bind} names another, such as
+ * {@code 0.0.0.0} to accept players from the network. The relay authenticates no one, so only
+ * widen it on a network you trust. An emulator reaches the host's loopback as {@code 10.0.2.2}.</p>
+ */
+public final class SyncServer implements Closeable {
+    public static final int DEFAULT_PORT = 7777;
+    static final int MAX_FRAME_LENGTH = 1 << 20;
+
+    private final ServerSocket serverSocket;
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+
+    /**
+     * Listens on {@code port} (0 for any free port) on the loopback address only.
+     */
+    public SyncServer(int port) throws IOException {
+        this(port, InetAddress.getLoopbackAddress());
+    }
+
+    /**
+     * Listens on {@code port} (0 for any free port) on the given address.
+     */
+    public SyncServer(int port, @NonNull InetAddress address) throws IOException {
+        serverSocket = new ServerSocket(port, 50, address);
+        Thread acceptor = new Thread(this::acceptLoop, "sync-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getClientCount() {
+        return clients.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Client client : clients) {
+            client.close();
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = DEFAULT_PORT;
+        InetAddress address = InetAddress.getLoopbackAddress();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--bind") && i + 1 < args.length) {
+                address = InetAddress.getByName(args[++i]);
+            } else {
+                port = Integer.parseInt(args[i]);
+            }
+        }
+        SyncServer server = new SyncServer(port, address);
+        System.out.println("Crossword sync server listening on " + address.getHostAddress() + ":" + server.getPort());
+        Thread.currentThread().join();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Client client = new Client(socket);
+                clients.add(client);
+                Thread reader = new Thread(client::readLoop, "sync-client-" + socket.getPort());
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                // Closed, or a connection failed before it was accepted.
+            }
+        }
+    }
+
+    private final class Client {
+        private final Socket socket;
+        private final DataOutputStream out;
+
+        Client(Socket socket) throws IOException {
+            this.socket = socket;
+            out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        void readLoop() {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+                byte[] batch;
+                while ((batch = TcpSyncTransport.readFrame(in, MAX_FRAME_LENGTH)) != null) {
+                    for (Client other : clients) {
+                        if (other != this) {
+                            other.forward(batch);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // Client went away.
+            } finally {
+                close();
+            }
+        }
+
+        void forward(byte[] batch) {
+            try {
+                synchronized (out) {
+                    TcpSyncTransport.writeFrame(out, batch);
+                }
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        void close() {
+            clients.remove(this);
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // Already closing.
+            }
+        }
+    }
+}
@@ -0,0 +1,490 @@
+package com.example.crossword.sync;
+
+import androidx.annotation.NonNull;
+
+import com.example.crossword.model.PuzzleBoard;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Keeps one player's board in step with the other players of the same puzzle.
+ *
+ * <p>Local edits are stamped with a Lamport clock and queued, at most one per cell, so repeated
+ * edits to a cell between two {@link #flush()}es are sent once. A flush encodes the queue as one
+ * batch of deltas:</p>
+ * <pre>
+ * 'S' version                     2 bytes
+ * puzzle fingerprint              4 bytes, big-endian
+ * replica id, base clock, count   varints
+ * per edit, by ascending cell     cell - previous cell, clock - base clock   varints
+ *                                 entry (0 = empty, 1..26 = A..Z) | status &lt;&lt; 5   1 byte
+ * </pre>
+ *
+ * <p>Conflicts resolve as last-writer-wins on the stamp {@code (clock, replica id)}, which every
+ * peer orders the same way, so all boards converge whatever order the batches arrive in. Edits
+ * that lose are dropped without reaching the {@link Listener}. Batches for another puzzle are
+ * ignored.</p>
+ *
+ * <p>A player who joins, or comes back from another puzzle, has missed earlier batches, so
+ * {@link #join()} sends the whole board once with every cell's stamp and asks the others to answer
+ * in kind:</p>
+ * <pre>
+ * 'F' version                     2 bytes
+ * puzzle fingerprint              4 bytes, big-endian
+ * flags                           1 byte; 1 = answer with your state
+ * replica id, clock, count        varints
+ * per cell, by ascending cell     cell - previous cell, clock, replica id   varints
+ *                                 entry | status &lt;&lt; 5   1 byte
+ * </pre>
+ * <p>A letter that no one has stamped yet, such as progress made before joining, goes out at
+ * clock 0 under its player's replica id, so any stamped edit beats it and every peer settles a tie
+ * between such letters the same way. {@link #saveState()} uses the same layout to carry the stamps
+ * and clock over to a later session for the same puzzle.</p>
+ *
+ * <p>Not thread-safe: record, flush and receive on one thread, typically the main thread.</p>
+ */
+public class SyncSession {
+
+    public interface Listener {
+        /**
+         * Called for each remote edit that wins over what the cell currently shows.
+         */
+        void onRemoteEdit(int cell, char entry, byte status);
+    }
+
+    static final byte MAGIC = 'S';
+    static final byte STATE_MAGIC = 'F';
+    static final byte VERSION = 1;
+
+    private static final int STATUS_SHIFT = 5;
+    private static final int FLAG_ANSWER = 1;
+    // Replica of a cell no one has stamped.
+    private static final int UNSTAMPED = -1;
+
+    private final PuzzleBoard board;
+    private final int fingerprint;
+    private final int replicaId;
+    private final SyncTransport transport;
+    private final Listener listener;
+
+    private long clock;
+    // Stamp of the edit each cell shows now; see replicaOf() for cells no one has stamped.
+    private final long[] stampClock;
+    private final int[] stampReplica;
+
+    private final int[] pendingCells;
+    private final boolean[] isPending;
+    private final byte[] pendingValue;
+    private int pendingSize;
+    private boolean stateQueued;
+    private boolean answerWanted;
+
+    private byte[] buffer = new byte[64];
+    private long sentBatches;
+    private long sentEdits;
+    private long sentBytes;
+
+    /**
+     * @param replicaId identifies this player; must differ between the players of a puzzle
+     */
+    public SyncSession(@NonNull PuzzleBoard board, int replicaId, @NonNull SyncTransport transport,
+                       @NonNull Listener listener) {
+        if (replicaId < 0) {
+            throw new IllegalArgumentException("Replica id must not be negative: " + replicaId);
+        }
+        int cellCount = board.getCellCount();
+        this.board = board;
+        this.fingerprint = board.fingerprint();
+        this.replicaId = replicaId;
+        this.transport = transport;
+        this.listener = listener;
+        stampClock = new long[cellCount];
+        stampReplica = new int[cellCount];
+        Arrays.fill(stampReplica, UNSTAMPED);
+        pendingCells = new int[cellCount];
+        isPending = new boolean[cellCount];
+        pendingValue = new byte[cellCount];
+    }
+
+    public int getReplicaId() {
+        return replicaId;
+    }
+
+    public long getClock() {
+        return clock;
+    }
+
+    /**
+     * Queues a local change to {@code cell} for the next {@link #flush()}.
+     */
+    public void recordLocalEdit(int cell, char entry, byte status) {
+        clock++;
+        stampClock[cell] = clock;
+        stampReplica[cell] = replicaId;
+        pendingValue[cell] = pack(entry, status);
+        if (!isPending[cell]) {
+            isPending[cell] = true;
+            pendingCells[pendingSize++] = cell;
+        }
+    }
+
+    /**
+     * Makes the next {@link #flush()} send the whole board with its stamps and ask the other
+     * players to answer with theirs. Call it once the session is connected.
+     */
+    public void join() {
+        stateQueued = true;
+        answerWanted = true;
+    }
+
+    /**
+     * Returns whether {@link #flush()} has anything to send: queued edits, or the board after
+     * {@link #join()} or another player's request for it.
+     */
+    public boolean hasPendingEdits() {
+        return pendingSize > 0 || stateQueued;
+    }
+
+    /**
+     * Sends every queued edit as one batch, or the whole board if it was asked for, which covers
+     * the queued edits too.
+     *
+     * @return the number of edits or cells sent
+     */
+    public int flush() throws IOException {
+        if (stateQueued) {
+            return flushState();
+        }
+        if (pendingSize == 0) {
+            return 0;
+        }
+        Arrays.sort(pendingCells, 0, pendingSize);
+        int count = 0;
+        long base = Long.MAX_VALUE;
+        for (int k = 0; k < pendingSize; k++) {
+            int cell = pendingCells[k];
+            isPending[cell] = false;
+            // A remote edit that won since this one was queued makes it moot.
+            if (stampReplica[cell] == replicaId) {
+                pendingCells[count++] = cell;
+                base = Math.min(base, stampClock[cell]);
+            }
+        }
+        pendingSize = 0;
+        if (count == 0) {
+            return 0;
+        }
+
+        ensureCapacity(2 + 4 + 3 * 10 + count * 21);
+        int length = writeHeader(MAGIC);
+        length = writeVarint(buffer, length, replicaId);
+        length = writeVarint(buffer, length, base);
+        length = writeVarint(buffer, length, count);
+        int previous = 0;
+        for (int k = 0; k < count; k++) {
+            int cell = pendingCells[k];
+            length = writeVarint(buffer, length, cell - previous);
+            length = writeVarint(buffer, length, stampClock[cell] - base);
+            buffer[length++] = pendingValue[cell];
+            previous = cell;
+        }
+
+        send(length, count);
+        return count;
+    }
+
+    private int flushState() throws IOException {
+        int flags = answerWanted ? FLAG_ANSWER : 0;
+        stateQueued = false;
+        answerWanted = false;
+        for (int k = 0; k < pendingSize; k++) {
+            isPending[pendingCells[k]] = false;
+        }
+        pendingSize = 0;
+        int count = countStateCells();
+        send(encodeState(flags, count), count);
+        return count;
+    }
+
+    private void send(int length, int count) throws IOException {
+        transport.send(Arrays.copyOf(buffer, length));
+        sentBatches++;
+        sentEdits += count;
+        sentBytes += length;
+    }
+
+    /**
+     * Encodes the clock and every cell's stamp, for {@link #restoreState} in a later session for
+     * the same puzzle and replica id.
+     */
+    @NonNull
+    public byte[] saveState() {
+        return Arrays.copyOf(buffer, encodeState(0, countStateCells()));
+    }
+
+    /**
+     * Takes over the clock and stamps saved by {@link #saveState()}, without reporting anything to
+     * the listener: the board is expected to have been restored to the same edits.
+     *
+     * @throws SyncFormatException if the state is malformed or belongs to another puzzle
+     */
+    public void restoreState(@NonNull byte[] state) throws SyncFormatException {
+        if (!isForThisPuzzle(state) || state[0] != STATE_MAGIC) {
+            throw new SyncFormatException("Sync state belongs to another puzzle");
+        }
+        readState(state, false);
+    }
+
+    /**
+     * Applies a batch from another player. A malformed batch is rejected as a whole, before any of
+     * its edits is applied.
+     *
+     * @return the number of edits that won and were passed to the listener
+     * @throws SyncFormatException if the batch is malformed
+     */
+    public int receive(@NonNull byte[] batch) throws SyncFormatException {
+        if (!isForThisPuzzle(batch)) {
+            return 0;
+        }
+        if (batch[0] == STATE_MAGIC) {
+            return readState(batch, true);
+        }
+
+        Reader reader = new Reader(batch, 6);
+        long remoteReplica = reader.readVarint();
+        long base = reader.readVarint();
+        long count = reader.readVarint();
+        if (remoteReplica > Integer.MAX_VALUE || count > stampClock.length) {
+            throw new SyncFormatException("Corrupt sync batch header");
+        }
+        // Check every edit first, so a batch corrupt partway through changes nothing.
+        int start = reader.position;
+        readEdits(reader, (int) remoteReplica, base, (int) count, false);
+        return readEdits(new Reader(batch, start), (int) remoteReplica, base, (int) count, true);
+    }
+
+    /**
+     * Reads the edits of a delta batch, checking each one, and applies them if {@code apply}.
+     */
+    private int readEdits(Reader reader, int remoteReplica, long base, int count, boolean apply)
+            throws SyncFormatException {
+        int applied = 0;
+        long cell = 0;
+        for (int k = 0; k < count; k++) {
+            cell += reader.readVarint();
+            long editClock = base + reader.readVarint();
+            int value = reader.readByte();
+            int code = value & ((1 << STATUS_SHIFT) - 1);
+            if (cell >= stampClock.length || code > 26 || value >>> STATUS_SHIFT > PuzzleBoard.STATUS_HINTED) {
+                throw new SyncFormatException("Corrupt sync edit " + k);
+            }
+            if (!apply) {
+                continue;
+            }
+            int index = (int) cell;
+            clock = Math.max(clock, editClock);
+            if (wins(editClock, remoteReplica, index)) {
+                stampClock[index] = editClock;
+                stampReplica[index] = remoteReplica;
+                listener.onRemoteEdit(index, code == 0 ? PuzzleBoard.EMPTY : (char) ('A' + code - 1),
+                        (byte) (value >>> STATUS_SHIFT));
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    public long getSentBatches() {
+        return sentBatches;
+    }
+
+    public long getSentEdits() {
+        return sentEdits;
+    }
+
+    public long getSentBytes() {
+        return sentBytes;
+    }
+
+    /**
+     * Reads a state batch, merging each cell like a remote edit, or, when {@code remote} is false,
+     * taking its stamps as they are. Nothing is taken from a malformed batch.
+     */
+    private int readState(byte[] batch, boolean remote) throws SyncFormatException {
+        Reader reader = new Reader(batch, 6);
+        int flags = reader.readByte();
+        long sender = reader.readVarint();
+        long senderClock = reader.readVarint();
+        long count = reader.readVarint();
+        if (sender > Integer.MAX_VALUE || count > stampClock.length) {
+            throw new SyncFormatException("Corrupt sync state header");
+        }
+        int start = reader.position;
+        readCells(reader, (int) count, remote, false);
+        int applied = readCells(new Reader(batch, start), (int) count, remote, true);
+        clock = Math.max(clock, senderClock);
+        if (remote && (flags & FLAG_ANSWER) != 0) {
+            stateQueued = true;
+        }
+        return applied;
+    }
+
+    /**
+     * Reads the cells of a state batch, checking each one, and takes them if {@code apply}.
+     */
+    private int readCells(Reader reader, int count, boolean remote, boolean apply) throws SyncFormatException {
+        int applied = 0;
+        long cell = 0;
+        for (int k = 0; k < count; k++) {
+            cell += reader.readVarint();
+            long editClock = reader.readVarint();
+            long editReplica = reader.readVarint();
+            int value = reader.readByte();
+            int code = value & ((1 << STATUS_SHIFT) - 1);
+            if (cell >= stampClock.length || editReplica > Integer.MAX_VALUE || code > 26
+                    || value >>> STATUS_SHIFT > PuzzleBoard.STATUS_HINTED) {
+                throw new SyncFormatException("Corrupt sync state cell " + k);
+            }
+            if (!apply) {
+                continue;
+            }
+            int index = (int) cell;
+            if (!remote) {
+                stampClock[index] = editClock;
+                stampReplica[index] = (int) editReplica;
+            } else if (wins(editClock, (int) editReplica, index)) {
+                stampClock[index] = editClock;
+                stampReplica[index] = (int) editReplica;
+                listener.onRemoteEdit(index, code == 0 ? PuzzleBoard.EMPTY : (char) ('A' + code - 1),
+                        (byte) (value >>> STATUS_SHIFT));
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Checks a batch's magic and version, and returns whether it is for this puzzle.
+     */
+    private boolean isForThisPuzzle(byte[] batch) throws SyncFormatException {
+        if (batch.length < 6 || (batch[0] != MAGIC && batch[0] != STATE_MAGIC)) {
+            throw new SyncFormatException("Not a sync batch");
+        }
+        if (batch[1] != VERSION) {
+            throw new SyncFormatException("Unsupported sync version " + batch[1]);
+        }
+        int batchFingerprint = (batch[2] & 0xFF) << 24 | (batch[3] & 0xFF) << 16
+                | (batch[4] & 0xFF) << 8 | (batch[5] & 0xFF);
+        return batchFingerprint == fingerprint;
+    }
+
+    private int writeHeader(byte magic) {
+        buffer[0] = magic;
+        buffer[1] = VERSION;
+        buffer[2] = (byte) (fingerprint >>> 24);
+        buffer[3] = (byte) (fingerprint >>> 16);
+        buffer[4] = (byte) (fingerprint >>> 8);
+        buffer[5] = (byte) fingerprint;
+        return 6;
+    }
+
+    private int countStateCells() {
+        int count = 0;
+        for (int cell = 0; cell < stampClock.length; cell++) {
+            if (replicaOf(cell) != UNSTAMPED) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int encodeState(int flags, int count) {
+        ensureCapacity(2 + 4 + 1 + 3 * 10 + count * 21);
+        int length = writeHeader(STATE_MAGIC);
+        buffer[length++] = (byte) flags;
+        length = writeVarint(buffer, length, replicaId);
+        length = writeVarint(buffer, length, clock);
+        length = writeVarint(buffer, length, count);
+        int previous = 0;
+        for (int cell = 0; cell < stampClock.length; cell++) {
+            int replica = replicaOf(cell);
+            if (replica == UNSTAMPED) {
+                continue;
+            }
+            length = writeVarint(buffer, length, cell - previous);
+            length = writeVarint(buffer, length, stampClock[cell]);
+            length = writeVarint(buffer, length, replica);
+            buffer[length++] = pack(board.getEntry(cell), board.getStatus(cell));
+            previous = cell;
+        }
+        return length;
+    }
+
+    /**
+     * Returns the replica of the cell's stamp. A cell no one has stamped counts as this player's
+     * at clock 0 if it holds a letter, so it can be shared, and as {@link #UNSTAMPED} if blank, so
+     * any stamp beats it.
+     */
+    private int replicaOf(int cell) {
+        int replica = stampReplica[cell];
+        if (replica != UNSTAMPED) {
+            return replica;
+        }
+        return board.isEmpty(cell) ? UNSTAMPED : replicaId;
+    }
+
+    private boolean wins(long editClock, int editReplica, int cell) {
+        long current = stampClock[cell];
+        return editClock > current || editClock == current && editReplica > replicaOf(cell);
+    }
+
+    private static byte pack(char entry, byte status) {
+        int code = entry == PuzzleBoard.EMPTY ? 0 : entry - 'A' + 1;
+        return (byte) (code | status << STATUS_SHIFT);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (buffer.length < capacity) {
+            buffer = new byte[Math.max(capacity, buffer.length * 2)];
+        }
+    }
+
+    private static int writeVarint(byte[] data, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            data[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[position++] = (byte) value;
+        return position;
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data, int position) {
+            this.data = data;
+            this.position = position;
+        }
+
+        int readByte() throws SyncFormatException {
+            if (position >= data.length) {
+                throw new SyncFormatException("Truncated sync batch");
+            }
+            return data[position++] & 0xFF;
+        }
+
+        long readVarint() throws SyncFormatException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if (b < 0x80) {
+                    return value;
+                }
+            }
+            throw new SyncFormatException("Malformed varint in sync batch");
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.crossword.sync;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Carries encoded edit batches between the players of one puzzle.
+ *
+ * <p>Batches are opaque byte arrays that must arrive whole, in the order each peer sent them.
+ * Neither side modifies an array once it has been handed over.</p>
+ */
+public interface SyncTransport extends Closeable {
+
+    interface Receiver {
+        /**
+         * Called with each batch sent by another peer, on a thread chosen by the transport.
+         */
+        void onBatch(@NonNull byte[] batch);
+    }
+
+    void setReceiver(@Nullable Receiver receiver);
+
+    /**
+     * Sends {@code batch} to every other peer. May return before the batch is delivered.
+     */
+    void send(@NonNull byte[] batch) throws IOException;
+}
@@ -0,0 +1,131 @@
+package com.example.crossword.sync;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Client side of the plain-TCP protocol spoken by {@link SyncServer}: each batch is framed as a
+ * 4-byte big-endian length followed by its bytes.
+ *
+ * <p>Writes go through a dedicated thread, so {@link #send} never blocks the caller on the
+ * network; batches are received on a reader thread.</p>
+ */
+public final class TcpSyncTransport implements SyncTransport {
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+
+    private final Socket socket;
+    private final DataOutputStream out;
+    private final ExecutorService writer;
+    private volatile Receiver receiver;
+
+    private TcpSyncTransport(Socket socket) throws IOException {
+        this.socket = socket;
+        socket.setTcpNoDelay(true);
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        writer = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "sync-writer"));
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        Thread reader = new Thread(() -> readLoop(in), "sync-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Connects to a server. Blocks, so call it off the main thread.
+     */
+    @NonNull
+    public static TcpSyncTransport connect(@NonNull String host, int port) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MILLIS);
+            return new TcpSyncTransport(socket);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void setReceiver(@Nullable Receiver receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public void send(@NonNull byte[] batch) throws IOException {
+        if (socket.isClosed()) {
+            throw new IOException("Sync connection is closed");
+        }
+        writer.execute(() -> {
+            try {
+                writeFrame(out, batch);
+            } catch (IOException e) {
+                closeQuietly();
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        writer.shutdown();
+        closeQuietly();
+    }
+
+    static void writeFrame(DataOutputStream out, byte[] batch) throws IOException {
+        out.writeInt(batch.length);
+        out.write(batch);
+        out.flush();
+    }
+
+    /**
+     * Reads one frame, or returns {@code null} at a clean end of stream.
+     */
+    @Nullable
+    static byte[] readFrame(DataInputStream in, int maxLength) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length < 0 || length > maxLength) {
+            throw new SyncFormatException("Sync frame of " + length + " bytes");
+        }
+        byte[] batch = new byte[length];
+        in.readFully(batch);
+        return batch;
+    }
+
+    private void readLoop(DataInputStream in) {
+        try {
+            byte[] batch;
+            while ((batch = readFrame(in, SyncServer.MAX_FRAME_LENGTH)) != null) {
+                Receiver target = receiver;
+                if (target != null) {
+                    target.onBatch(batch);
+                }
+            }
+        } catch (IOException e) {
+            // Connection closed or broken; the session simply stops receiving.
+        } finally {
+            closeQuietly();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // Already closing.
+        }
+    }
+}
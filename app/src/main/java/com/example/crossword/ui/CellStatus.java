@@ -1,11 +1,38 @@
 package com.example.crossword.ui;
 
+import com.example.crossword.model.PuzzleBoard;
+
 /**
  * Represents the evaluation state of a crossword cell in the UI.
  */
 public enum CellStatus {
-    DEFAULT,
-    CORRECT,
-    INCORRECT,
-    HINTED
+    DEFAULT(PuzzleBoard.STATUS_DEFAULT),
+    CORRECT(PuzzleBoard.STATUS_CORRECT),
+    INCORRECT(PuzzleBoard.STATUS_INCORRECT),
+    HINTED(PuzzleBoard.STATUS_HINTED);
+
+    private static final CellStatus[] BY_CODE = new CellStatus[4];
+
+    static {
+        for (CellStatus status : values()) {
+            BY_CODE[status.code] = status;
+        }
+    }
+
+    private final byte code;
+
+    CellStatus(byte code) {
+        this.code = code;
+    }
+
+    /**
+     * Returns the status code stored in {@link PuzzleBoard}.
+     */
+    public byte getCode() {
+        return code;
+    }
+
+    public static CellStatus fromCode(byte code) {
+        return BY_CODE[code];
+    }
 }
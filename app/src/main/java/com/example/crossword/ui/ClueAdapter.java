@@ -1,71 +1,403 @@
 package com.example.crossword.ui;
 
+import android.graphics.Color;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Trace;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.crossword.R;
+import com.example.crossword.metrics.InteractionMetrics;
 import com.example.crossword.model.CrosswordClue;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
- * RecyclerView adapter that displays crossword clues.
+ * RecyclerView adapter that displays the across and down clues as one list, each direction under
+ * its own header row.
+ *
+ * <p>Clues are copied into immutable {@link ClueItem} snapshots and diffed on a background thread,
+ * so only rows that actually changed are rebound; a flipped solved flag only recolours the row.</p>
+ *
+ * <p>Clue text is measured off the main thread: {@link #submitClues} lays out every clue with
+ * {@link PrecomputedTextCompat} on a background executor and only then shows the rows, so binding a
+ * row never measures text. The measured layouts are kept by clue text for as long as the puzzle is
+ * shown, across rebinds and solved-colour changes. The text metrics come from the first clue row
+ * created, which the adapter inflates itself when it is attached; until then clues are shown as
+ * plain text straight away.</p>
  */
-public class ClueAdapter extends RecyclerView.Adapter<ClueAdapter.ClueViewHolder> {
+public class ClueAdapter extends ListAdapter<ClueAdapter.ClueItem, RecyclerView.ViewHolder> {
 
-    private final List<CrosswordClue> clues = new ArrayList<>();
+    static final int VIEW_TYPE_HEADER = 0;
+    static final int VIEW_TYPE_CLUE = 1;
 
-    public void submitClues(List<CrosswordClue> newClues) {
-        clues.clear();
-        clues.addAll(newClues);
-        notifyDataSetChanged();
+    static final Object PAYLOAD_SOLVED = new Object();
+    static final Object PAYLOAD_ACTIVE = new Object();
+
+    private static final DiffUtil.ItemCallback<ClueItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<ClueItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull ClueItem oldItem, @NonNull ClueItem newItem) {
+            return oldItem.header == newItem.header && oldItem.number == newItem.number
+                    && oldItem.direction == newItem.direction;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull ClueItem oldItem, @NonNull ClueItem newItem) {
+            return oldItem.solved == newItem.solved && oldItem.text.equals(newItem.text);
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull ClueItem oldItem, @NonNull ClueItem newItem) {
+            return oldItem.text.equals(newItem.text) ? PAYLOAD_SOLVED : null;
+        }
+    };
+
+    private List<CrosswordClue> across = Collections.emptyList();
+    private List<CrosswordClue> down = Collections.emptyList();
+    // Last list handed to submitList; may still be diffing, so it can be ahead of getCurrentList().
+    private List<ClueItem> latest = Collections.emptyList();
+    private int activePosition = RecyclerView.NO_POSITION;
+    private final InteractionMetrics metrics = InteractionMetrics.get();
+
+    private final Executor textExecutor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private PrecomputedTextCompat.Params textParams;
+    private Map<String, PrecomputedTextCompat> precomputedTexts = Collections.emptyMap();
+    // Bumped by every submitClues so layouts measured for a replaced puzzle are dropped.
+    private int textGeneration;
+    // True while the current clues are being measured and not submitted yet.
+    private boolean textsPending;
+
+    /**
+     * @param textExecutor runs clue text measurement; must not be the main thread
+     */
+    public ClueAdapter(@NonNull Executor textExecutor) {
+        super(DIFF_CALLBACK);
+        this.textExecutor = textExecutor;
     }
 
-    public void notifyProgressChanged() {
-        notifyDataSetChanged();
+    /**
+     * Replaces the clues, showing them once their text is measured.
+     *
+     * @param onShown run on the main thread once the new rows are in the list
+     */
+    public void submitClues(List<CrosswordClue> across, List<CrosswordClue> down, @Nullable Runnable onShown) {
+        this.across = across;
+        this.down = down;
+
+        List<ClueItem> items = new ArrayList<>(across.size() + down.size() + 2);
+        items.add(ClueItem.header(CrosswordClue.Direction.ACROSS));
+        for (CrosswordClue clue : across) {
+            items.add(ClueItem.of(clue));
+        }
+        items.add(ClueItem.header(CrosswordClue.Direction.DOWN));
+        for (CrosswordClue clue : down) {
+            items.add(ClueItem.of(clue));
+        }
+        latest = items;
+        activePosition = RecyclerView.NO_POSITION;
+        precomputedTexts = Collections.emptyMap();
+        int generation = ++textGeneration;
+        if (textParams == null) {
+            textsPending = false;
+            submitList(items, onShown);
+            return;
+        }
+
+        // Drop the previous puzzle's rows now rather than diffing them against the new ones.
+        textsPending = true;
+        submitList(null);
+        PrecomputedTextCompat.Params params = textParams;
+        textExecutor.execute(() -> {
+            Map<String, PrecomputedTextCompat> texts = precompute(items, params);
+            mainHandler.post(() -> {
+                if (generation != textGeneration) {
+                    return;
+                }
+                precomputedTexts = texts;
+                textsPending = false;
+                // Solved flags may have changed meanwhile, so submit the latest snapshot.
+                submitList(latest, onShown);
+            });
+        });
+    }
+
+    private static Map<String, PrecomputedTextCompat> precompute(List<ClueItem> items,
+                                                                 PrecomputedTextCompat.Params params) {
+        Trace.beginSection("ClueAdapter.precompute");
+        try {
+            Map<String, PrecomputedTextCompat> texts = new HashMap<>(items.size() * 2);
+            for (int i = 0; i < items.size(); i++) {
+                ClueItem item = items.get(i);
+                if (!item.header && !texts.containsKey(item.text)) {
+                    texts.put(item.text, PrecomputedTextCompat.create(item.text, params));
+                }
+            }
+            return texts;
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    /**
+     * Re-snapshots a clue after its solved flag changed.
+     *
+     * @param clueIndex index of the clue within its direction's list
+     */
+    public void notifyClueChanged(CrosswordClue.Direction direction, int clueIndex) {
+        List<CrosswordClue> clues = direction == CrosswordClue.Direction.ACROSS ? across : down;
+        if (clueIndex < 0 || clueIndex >= clues.size()) {
+            return;
+        }
+        int position = toPosition(direction, clueIndex);
+        List<ClueItem> items = new ArrayList<>(latest);
+        items.set(position, latest.get(position).withSolved(clues.get(clueIndex).isSolved()));
+        latest = items;
+        if (!textsPending) {
+            submitList(items);
+        }
+    }
+
+    /**
+     * Re-snapshots several clues after a batch of edits, submitting one list for all of them.
+     *
+     * @param acrossIndexes indexes within the across list of the clues whose solved flag changed
+     * @param downIndexes   likewise for the down list
+     */
+    public void notifyCluesChanged(@NonNull int[] acrossIndexes, @NonNull int[] downIndexes) {
+        if (acrossIndexes.length == 0 && downIndexes.length == 0) {
+            return;
+        }
+        List<ClueItem> items = new ArrayList<>(latest);
+        for (int clueIndex : acrossIndexes) {
+            int position = toPosition(CrosswordClue.Direction.ACROSS, clueIndex);
+            items.set(position, items.get(position).withSolved(across.get(clueIndex).isSolved()));
+        }
+        for (int clueIndex : downIndexes) {
+            int position = toPosition(CrosswordClue.Direction.DOWN, clueIndex);
+            items.set(position, items.get(position).withSolved(down.get(clueIndex).isSolved()));
+        }
+        latest = items;
+        if (!textsPending) {
+            submitList(items);
+        }
+    }
+
+    /**
+     * Highlights the clue the cursor is typing into and returns its adapter position.
+     *
+     * @param clueIndex index of the clue within its direction's list, or -1 to clear the highlight
+     */
+    public int setActiveClue(CrosswordClue.Direction direction, int clueIndex) {
+        int position = clueIndex < 0 ? RecyclerView.NO_POSITION : toPosition(direction, clueIndex);
+        if (position != activePosition) {
+            int previous = activePosition;
+            activePosition = position;
+            // Rows not shown yet pick the highlight up when they are first bound.
+            if (previous != RecyclerView.NO_POSITION && previous < getItemCount()) {
+                notifyItemChanged(previous, PAYLOAD_ACTIVE);
+            }
+            if (position != RecyclerView.NO_POSITION && position < getItemCount()) {
+                notifyItemChanged(position, PAYLOAD_ACTIVE);
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Returns the adapter position of the highlighted clue, or -1 if there is none.
+     */
+    public int getActivePosition() {
+        return activePosition;
+    }
+
+    private int toPosition(CrosswordClue.Direction direction, int clueIndex) {
+        // Row 0 is the across header; the down header follows the last across clue.
+        return direction == CrosswordClue.Direction.ACROSS ? 1 + clueIndex : 2 + across.size() + clueIndex;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return getItem(position).header ? VIEW_TYPE_HEADER : VIEW_TYPE_CLUE;
     }
 
     @NonNull
     @Override
-    public ClueViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_clue, parent, false);
-        return new ClueViewHolder(view);
+    public RecyclerView.ViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        LayoutInflater inflater = LayoutInflater.from(parent.getContext());
+        if (viewType == VIEW_TYPE_HEADER) {
+            return new HeaderViewHolder(inflater.inflate(R.layout.item_clue_header, parent, false));
+        }
+        ClueViewHolder holder = new ClueViewHolder(inflater.inflate(R.layout.item_clue, parent, false));
+        if (textParams == null) {
+            textParams = TextViewCompat.getTextMetricsParams(holder.clueView);
+        }
+        return holder;
     }
 
     @Override
-    public void onBindViewHolder(@NonNull ClueViewHolder holder, int position) {
-        holder.bind(clues.get(position));
+    public void onAttachedToRecyclerView(@NonNull RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        if (textParams == null) {
+            // Creating one row early gives the text metrics before the first clues arrive.
+            recyclerView.getRecycledViewPool().putRecycledView(createViewHolder(recyclerView, VIEW_TYPE_CLUE));
+        }
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position) {
+        Trace.beginSection("ClueAdapter.bind");
+        try {
+            metrics.onBind();
+            ClueItem item = getItem(position);
+            if (item.header) {
+                ((HeaderViewHolder) holder).bind(item.direction);
+            } else {
+                ClueViewHolder clueHolder = (ClueViewHolder) holder;
+                PrecomputedTextCompat text = precomputedTexts.get(item.text);
+                metrics.onClueTextBound(text != null);
+                clueHolder.bind(item, text);
+                clueHolder.bindActive(position == activePosition);
+            }
+        } finally {
+            Trace.endSection();
+        }
     }
 
     @Override
-    public int getItemCount() {
-        return clues.size();
+    public void onBindViewHolder(@NonNull RecyclerView.ViewHolder holder, int position,
+                                 @NonNull List<Object> payloads) {
+        if (payloads.isEmpty() || !payloadsArePartial(payloads) || !(holder instanceof ClueViewHolder)) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        Trace.beginSection("ClueAdapter.bindPayloads");
+        try {
+            metrics.onBind();
+            ClueViewHolder clueHolder = (ClueViewHolder) holder;
+            for (int i = 0; i < payloads.size(); i++) {
+                if (payloads.get(i) == PAYLOAD_SOLVED) {
+                    clueHolder.bindSolved(getItem(position).solved);
+                } else {
+                    clueHolder.bindActive(position == activePosition);
+                }
+            }
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    private static boolean payloadsArePartial(List<Object> payloads) {
+        for (int i = 0; i < payloads.size(); i++) {
+            Object payload = payloads.get(i);
+            if (payload != PAYLOAD_SOLVED && payload != PAYLOAD_ACTIVE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Immutable copy of the parts of a {@link CrosswordClue} that a row displays, or a direction
+     * header.
+     */
+    static final class ClueItem {
+        final boolean header;
+        final int number;
+        final String numberText;
+        final CrosswordClue.Direction direction;
+        final String text;
+        final boolean solved;
+
+        private ClueItem(boolean header, int number, String numberText, CrosswordClue.Direction direction,
+                         String text, boolean solved) {
+            this.header = header;
+            this.number = number;
+            this.numberText = numberText;
+            this.direction = direction;
+            this.text = text;
+            this.solved = solved;
+        }
+
+        static ClueItem of(CrosswordClue clue) {
+            return new ClueItem(false, clue.getNumber(), String.valueOf(clue.getNumber()), clue.getDirection(),
+                    clue.getText(), clue.isSolved());
+        }
+
+        static ClueItem header(CrosswordClue.Direction direction) {
+            return new ClueItem(true, 0, "", direction, "", false);
+        }
+
+        ClueItem withSolved(boolean solved) {
+            return solved == this.solved ? this : new ClueItem(header, number, numberText, direction, text, solved);
+        }
+    }
+
+    static class HeaderViewHolder extends RecyclerView.ViewHolder {
+        private final TextView titleView;
+
+        HeaderViewHolder(@NonNull View itemView) {
+            super(itemView);
+            titleView = (TextView) itemView;
+        }
+
+        void bind(CrosswordClue.Direction direction) {
+            titleView.setText(direction == CrosswordClue.Direction.ACROSS
+                    ? R.string.clue_header_across : R.string.clue_header_down);
+        }
     }
 
     static class ClueViewHolder extends RecyclerView.ViewHolder {
         private final TextView numberView;
         private final TextView clueView;
+        private final int solvedColor;
+        private final int unsolvedColor;
+        private final int activeColor;
 
         ClueViewHolder(@NonNull View itemView) {
             super(itemView);
             numberView = itemView.findViewById(R.id.clueNumber);
             clueView = itemView.findViewById(R.id.clueText);
+            solvedColor = ContextCompat.getColor(itemView.getContext(), R.color.grid_match);
+            unsolvedColor = ContextCompat.getColor(itemView.getContext(), android.R.color.black);
+            activeColor = ContextCompat.getColor(itemView.getContext(), R.color.grid_highlight);
+        }
+
+        void bind(ClueItem clue, @Nullable PrecomputedTextCompat text) {
+            numberView.setText(clue.numberText);
+            if (text != null) {
+                TextViewCompat.setPrecomputedText(clueView, text);
+            } else {
+                clueView.setText(clue.text);
+            }
+            bindSolved(clue.solved);
         }
 
-        void bind(CrosswordClue clue) {
-            numberView.setText(String.valueOf(clue.getNumber()));
-            clueView.setText(clue.getText());
+        void bindSolved(boolean solved) {
+            int color = solved ? solvedColor : unsolvedColor;
+            clueView.setTextColor(color);
+            numberView.setTextColor(color);
+        }
 
-            int colorRes = clue.isSolved() ? R.color.grid_match : android.R.color.black;
-            clueView.setTextColor(ContextCompat.getColor(clueView.getContext(), colorRes));
-            numberView.setTextColor(ContextCompat.getColor(numberView.getContext(), colorRes));
+        void bindActive(boolean active) {
+            itemView.setBackgroundColor(active ? activeColor : Color.TRANSPARENT);
         }
     }
 }
@@ -0,0 +1,1090 @@
+package com.example.crossword.ui;
+
+import android.content.ClipboardManager;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Trace;
+import android.text.InputType;
+import android.util.AttributeSet;
+import android.view.GestureDetector;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
+import android.view.View;
+import android.view.inputmethod.BaseInputConnection;
+import android.view.inputmethod.EditorInfo;
+import android.view.inputmethod.InputConnection;
+import android.view.inputmethod.InputMethodManager;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.core.content.ContextCompat;
+
+import com.example.crossword.R;
+import com.example.crossword.metrics.InteractionMetrics;
+import com.example.crossword.model.CandidateTracker;
+import com.example.crossword.model.ClueProgressTracker;
+import com.example.crossword.model.CrosswordClue;
+import com.example.crossword.model.GridNavigator;
+import com.example.crossword.model.PuzzleBoard;
+import com.example.crossword.model.SlotGrid;
+
+import java.util.Arrays;
+
+/**
+ * Draws the whole crossword grid on a single canvas and takes keyboard input through one hidden
+ * input connection.
+ *
+ * <p>Grids too small to read at the view's size can be pinch-zoomed and panned. Cells are rendered
+ * into square tiles of about {@value #TILE_TARGET_PX} pixels, kept in an LRU cache bounded by a few
+ * screens' worth of pixels, so memory does not grow with the grid. Tiles are rendered at a level,
+ * a power-of-two multiple of the cell size that fits the whole grid, and scaled by 2/3 to 4/3 while
+ * drawing. When a cell changes only that cell is redrawn into its tile,
+ * if the tile is cached, so the cost of an edit does not depend on the size of the grid. At levels
+ * too small for letters, tiles show only blocks and fill colours. {@link #onDraw} just blits the
+ * visible tiles, the highlighted entry and the cursor.</p>
+ *
+ * <p>The cursor types along a direction; moving it is delegated to a {@link GridNavigator}. Tapping
+ * the selected cell or pressing space switches direction, and tab jumps to the next unsolved
+ * clue. While the view is disabled it ignores touches, keys and soft-keyboard text.</p>
+ */
+public class CrosswordGridView extends View {
+
+    public interface OnCellValueChangedListener {
+        /**
+         * Called with the upper-case letter now in the cell, or {@link PuzzleBoard#EMPTY}.
+         */
+        void onCellValueChanged(int row, int column, char value);
+
+        /**
+         * Called when several letters arrive at once, e.g. a pasted answer, with the cells they go
+         * into and their upper-case letters.
+         */
+        void onCellValuesChanged(@NonNull int[] cells, @NonNull char[] values);
+
+        /**
+         * Called in pencil mode with the pencil marks the cell should now hold, as a mask with bit
+         * 0 for A.
+         */
+        void onCellMarksChanged(int index, int marks);
+    }
+
+    public interface OnSelectionChangedListener {
+        /**
+         * Called when the cursor cell or typing direction changes; {@code index} is -1 when nothing
+         * is selected.
+         */
+        void onSelectionChanged(int index, @NonNull CrosswordClue.Direction direction);
+    }
+
+    private static final char[] LETTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ".toCharArray();
+    private static final char[] MORE_MARKS = {'+'};
+    // Pencil marks sit in a grid below the clue number; past its size the last slot shows MORE_MARKS.
+    private static final int MARK_COLUMNS = 4;
+    private static final int MARK_ROWS = 2;
+
+    private static final int TILE_TARGET_PX = 256;
+    // Zooming stops once cells are this large.
+    private static final float MAX_CELL_DP = 48;
+    // Below this, tiles skip borders, numbers and letters.
+    private static final float MIN_DETAILED_CELL_DP = 12;
+    // Visible tiles hold up to 2.25 screens of pixels at their level; the rest keeps neighbours.
+    private static final int CACHED_SCREENS = 4;
+
+    private final InteractionMetrics metrics = InteractionMetrics.get();
+    private final Paint blockPaint = new Paint();
+    private final Paint[] statusPaints = new Paint[CellStatus.values().length];
+    private final Paint borderPaint = new Paint();
+    private final Paint letterPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint numberPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint candidateCountPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint markPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint impossiblePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint cursorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint highlightPaint = new Paint();
+    private final Paint entryShadePaint = new Paint();
+    private final Paint bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    private final RectF cellRect = new RectF();
+    private final RectF tileRect = new RectF();
+    private final Canvas tileCanvas = new Canvas();
+    private final ScaleGestureDetector scaleDetector;
+    private final GestureDetector gestureDetector;
+    private final char[] numberDigits = new char[5];
+    // Where each pencil mark slot is drawn relative to the cell's corner, for the current level.
+    private final float[] markCenterX = new float[MARK_COLUMNS];
+    private final float[] markBaseline = new float[MARK_ROWS];
+    private final GridInputConnection inputConnection = new GridInputConnection();
+
+    private PuzzleBoard board;
+    private GridNavigator navigator;
+    private ClueProgressTracker clueTracker;
+    private CandidateTracker candidates;
+    private CrosswordClue.Direction direction = CrosswordClue.Direction.ACROSS;
+    private OnCellValueChangedListener listener;
+    private OnSelectionChangedListener selectionListener;
+    private int selectedIndex = -1;
+    private boolean pencilMode;
+    private int placeholderRows;
+    private int placeholderColumns;
+
+    // On-screen geometry: cellSize = fitCellSize * scale, with the grid's top-left at (gridLeft, gridTop).
+    private float fitCellSize;
+    private float maxScale = 1;
+    private float scale = 1;
+    private float cellSize;
+    private float gridLeft;
+    private float gridTop;
+
+    // Tiles of the current level, keyed by tileId(row, column) over tileRows x tileColumns.
+    private TileCache tiles;
+    private int levelCellSize;
+    private int tileCells;
+    private int tileRows;
+    private int tileColumns;
+    private boolean detailed;
+
+    public CrosswordGridView(Context context) {
+        this(context, null);
+    }
+
+    public CrosswordGridView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        setFocusable(true);
+        setFocusableInTouchMode(true);
+
+        blockPaint.setColor(ContextCompat.getColor(context, R.color.grid_blocked));
+        statusPaints[CellStatus.DEFAULT.getCode()] = fillPaint(context, R.color.grid_filled);
+        statusPaints[CellStatus.CORRECT.getCode()] = fillPaint(context, R.color.grid_match);
+        statusPaints[CellStatus.INCORRECT.getCode()] = fillPaint(context, R.color.grid_mismatch);
+        statusPaints[CellStatus.HINTED.getCode()] = fillPaint(context, R.color.teal_200);
+
+        float density = getResources().getDisplayMetrics().density;
+        borderPaint.setStyle(Paint.Style.STROKE);
+        borderPaint.setStrokeWidth(2);
+        borderPaint.setColor(ContextCompat.getColor(context, R.color.grid_border));
+
+        letterPaint.setColor(ContextCompat.getColor(context, R.color.black));
+        letterPaint.setTextAlign(Paint.Align.CENTER);
+        letterPaint.setFakeBoldText(true);
+        numberPaint.setColor(ContextCompat.getColor(context, R.color.black));
+        numberPaint.setFakeBoldText(true);
+        markPaint.setColor(ContextCompat.getColor(context, R.color.grid_candidates));
+        markPaint.setTextAlign(Paint.Align.CENTER);
+        candidateCountPaint.setColor(ContextCompat.getColor(context, R.color.grid_candidates));
+        candidateCountPaint.setTextAlign(Paint.Align.RIGHT);
+        impossiblePaint.setStyle(Paint.Style.STROKE);
+        impossiblePaint.setStrokeWidth(2 * density);
+        impossiblePaint.setColor(ContextCompat.getColor(context, R.color.grid_impossible));
+
+        cursorPaint.setStyle(Paint.Style.STROKE);
+        cursorPaint.setStrokeWidth(3 * density);
+        cursorPaint.setColor(ContextCompat.getColor(context, R.color.purple_500));
+        highlightPaint.setColor(ContextCompat.getColor(context, R.color.grid_highlight));
+        // Marks filled cells when letters are too small to draw.
+        entryShadePaint.setColor(ContextCompat.getColor(context, R.color.black));
+        entryShadePaint.setAlpha(64);
+
+        scaleDetector = new ScaleGestureDetector(context, new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            @Override
+            public boolean onScale(@NonNull ScaleGestureDetector detector) {
+                zoomTo(scale * detector.getScaleFactor(), detector.getFocusX(), detector.getFocusY());
+                return true;
+            }
+        });
+        gestureDetector = new GestureDetector(context, new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDown(@NonNull MotionEvent e) {
+                return true;
+            }
+
+            @Override
+            public boolean onScroll(@Nullable MotionEvent e1, @NonNull MotionEvent e2, float distanceX, float distanceY) {
+                if (scaleDetector.isInProgress()) {
+                    return false;
+                }
+                panBy(-distanceX, -distanceY);
+                return true;
+            }
+
+            @Override
+            public boolean onSingleTapUp(@NonNull MotionEvent e) {
+                selectAt(e.getX(), e.getY());
+                requestFocus();
+                showKeyboard();
+                performClick();
+                return true;
+            }
+        });
+    }
+
+    private static Paint fillPaint(Context context, int colorRes) {
+        Paint paint = new Paint();
+        paint.setColor(ContextCompat.getColor(context, colorRes));
+        return paint;
+    }
+
+    public void setOnCellValueChangedListener(@Nullable OnCellValueChangedListener listener) {
+        this.listener = listener;
+    }
+
+    public void setOnSelectionChangedListener(@Nullable OnSelectionChangedListener listener) {
+        this.selectionListener = listener;
+    }
+
+    /**
+     * Shows {@code board}, moving the cursor with {@code navigator} and finding unsolved clues with
+     * {@code clueTracker}, which must all be built from the same puzzle.
+     */
+    public void setBoard(@Nullable PuzzleBoard board, @Nullable GridNavigator navigator,
+                         @Nullable ClueProgressTracker clueTracker) {
+        this.board = board;
+        this.navigator = navigator;
+        this.clueTracker = clueTracker;
+        candidates = null;
+        selectedIndex = -1;
+        direction = CrosswordClue.Direction.ACROSS;
+        scale = 1;
+        updateGeometry();
+        invalidateBoard();
+        if (board != null && navigator != null && navigator.getSlots().getSlotCount() > 0) {
+            setSelection(navigator.getEntryCell(board, 0), CrosswordClue.Direction.ACROSS);
+        }
+    }
+
+    /**
+     * Sets the size of the empty grid drawn while there is no board, so the first frame already
+     * has the puzzle's shape while it is being prepared. Zero rows draws nothing.
+     */
+    public void setPlaceholder(int rows, int columns) {
+        placeholderRows = rows;
+        placeholderColumns = columns;
+        invalidate();
+    }
+
+    /**
+     * In pencil mode, typed letters toggle pencil marks in the selected cell and delete clears
+     * them, without moving the cursor.
+     */
+    public void setPencilMode(boolean pencilMode) {
+        this.pencilMode = pencilMode;
+    }
+
+    public boolean isPencilMode() {
+        return pencilMode;
+    }
+
+    /**
+     * Shows how many letters can still go in each empty cell and outlines cells that nothing fits,
+     * or hides them when {@code tracker} is {@code null}. The tracker must follow the current
+     * board; call {@link #invalidateCell} for each cell whose candidates change.
+     */
+    public void setCandidateTracker(@Nullable CandidateTracker tracker) {
+        candidates = tracker;
+        invalidateBoard();
+    }
+
+    /**
+     * Re-renders a single cell after its entry or status changed.
+     */
+    public void invalidateCell(int index) {
+        if (tiles == null) {
+            return;
+        }
+        int row = board.getRow(index);
+        int column = board.getColumn(index);
+        // Tiles that are not cached pick the change up when they are next rendered.
+        Bitmap tile = tiles.get(tileId(row / tileCells, column / tileCells));
+        if (tile != null) {
+            tileCanvas.setBitmap(tile);
+            renderCell(index, (column % tileCells) * levelCellSize, (row % tileCells) * levelCellSize);
+            tileCanvas.setBitmap(null);
+        }
+        invalidate();
+    }
+
+    /**
+     * Re-renders the given cells after a batch of edits, invalidating the view once.
+     */
+    public void invalidateCells(@NonNull int[] cells) {
+        if (tiles == null) {
+            return;
+        }
+        // Past a tile's worth of cells it is cheaper to drop the tiles and render the visible ones.
+        if (cells.length > tileCells * tileCells) {
+            invalidateBoard();
+            return;
+        }
+        for (int cell : cells) {
+            int row = board.getRow(cell);
+            int column = board.getColumn(cell);
+            Bitmap tile = tiles.get(tileId(row / tileCells, column / tileCells));
+            if (tile != null) {
+                tileCanvas.setBitmap(tile);
+                renderCell(cell, (column % tileCells) * levelCellSize, (row % tileCells) * levelCellSize);
+                tileCanvas.setBitmap(null);
+            }
+        }
+        invalidate();
+    }
+
+    /**
+     * Re-renders every cell, e.g. after the board was restored.
+     */
+    public void invalidateBoard() {
+        if (tiles != null) {
+            tiles.evictAll();
+        }
+        invalidate();
+    }
+
+    /**
+     * Returns the zoom factor relative to the size that fits the whole grid.
+     */
+    public float getScale() {
+        return scale;
+    }
+
+    public int getSelectedIndex() {
+        return selectedIndex;
+    }
+
+    @NonNull
+    public CrosswordClue.Direction getDirection() {
+        return direction;
+    }
+
+    /**
+     * Returns the slot the cursor is typing into, or -1 when nothing is selected.
+     */
+    public int getActiveSlot() {
+        return selectedIndex < 0 || navigator == null ? -1 : navigator.getSlot(selectedIndex, direction);
+    }
+
+    public void setSelectedIndex(int index) {
+        setSelection(index, direction);
+    }
+
+    public void setSelection(int index, @NonNull CrosswordClue.Direction direction) {
+        if (index >= 0 && navigator != null && navigator.getSlot(index, direction) < 0) {
+            // An unchecked cell belongs to one entry only; type along that one.
+            direction = direction == CrosswordClue.Direction.ACROSS
+                    ? CrosswordClue.Direction.DOWN : CrosswordClue.Direction.ACROSS;
+        }
+        if (index == selectedIndex && direction == this.direction) {
+            return;
+        }
+        selectedIndex = index;
+        this.direction = direction;
+        if (index >= 0) {
+            scrollToCell(index);
+        }
+        invalidate();
+        if (selectionListener != null) {
+            selectionListener.onSelectionChanged(index, direction);
+        }
+    }
+
+    /**
+     * Switches between typing across and down through the selected cell.
+     */
+    public void toggleDirection() {
+        CrosswordClue.Direction other = direction == CrosswordClue.Direction.ACROSS
+                ? CrosswordClue.Direction.DOWN : CrosswordClue.Direction.ACROSS;
+        if (selectedIndex >= 0 && navigator.getSlot(selectedIndex, other) >= 0) {
+            setSelection(selectedIndex, other);
+        }
+    }
+
+    /**
+     * Moves the cursor to the next clue that is not solved yet.
+     */
+    public void selectNextUnsolvedClue() {
+        // With no slot selected, -1 starts the search at the first clue instead of after it.
+        int target = clueTracker.getNextUnsolvedSlot(getActiveSlot());
+        if (target >= 0) {
+            setSelection(navigator.getEntryCell(board, target), navigator.getDirection(target));
+        }
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateGeometry();
+        invalidateBoard();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        // Hand the tile memory back while off screen; tiles are re-rendered on the next draw.
+        if (tiles != null) {
+            tiles.evictAll();
+        }
+    }
+
+    private void updateGeometry() {
+        tiles = null;
+        levelCellSize = 0;
+        cellSize = 0;
+        int width = getWidth() - getPaddingLeft() - getPaddingRight();
+        int height = getHeight() - getPaddingTop() - getPaddingBottom();
+        if (board == null || width <= 0 || height <= 0) {
+            return;
+        }
+
+        fitCellSize = (float) Math.floor(Math.min(width / (float) board.getColumns(), height / (float) board.getRows()));
+        if (fitCellSize <= 0) {
+            return;
+        }
+        float density = getResources().getDisplayMetrics().density;
+        maxScale = Math.max(1f, MAX_CELL_DP * density / fitCellSize);
+        scale = Math.min(scale, maxScale);
+        cellSize = fitCellSize * scale;
+        // Start centred; clampOffsets() keeps the grid centred on any axis where it fits.
+        gridLeft = getPaddingLeft() + (width - cellSize * board.getColumns()) / 2f;
+        gridTop = getPaddingTop() + (height - cellSize * board.getRows()) / 2f;
+        if (selectedIndex >= 0) {
+            scrollToCell(selectedIndex);
+        }
+        clampOffsets();
+
+        tiles = new TileCache(CACHED_SCREENS * width * height * 4);
+        updateLevel();
+    }
+
+    /**
+     * Picks the tile level for the current zoom: the smallest power-of-two multiple of the fitted
+     * cell size that is at least three quarters of the cells on screen. Changing level drops every
+     * tile.
+     */
+    private void updateLevel() {
+        int size = (int) fitCellSize;
+        while (size < cellSize * 0.75f) {
+            size <<= 1;
+        }
+        if (size == levelCellSize) {
+            return;
+        }
+        levelCellSize = size;
+        tileCells = Math.max(1, TILE_TARGET_PX / size);
+        tileRows = (board.getRows() + tileCells - 1) / tileCells;
+        tileColumns = (board.getColumns() + tileCells - 1) / tileCells;
+        detailed = size >= MIN_DETAILED_CELL_DP * getResources().getDisplayMetrics().density;
+        letterPaint.setTextSize(size * 0.5f);
+        numberPaint.setTextSize(size * 0.25f);
+        candidateCountPaint.setTextSize(size * 0.25f);
+        markPaint.setTextSize(size * 0.22f);
+        float markHeight = size * 0.62f / MARK_ROWS;
+        for (int c = 0; c < MARK_COLUMNS; c++) {
+            markCenterX[c] = size * (c + 0.5f) / MARK_COLUMNS;
+        }
+        for (int r = 0; r < MARK_ROWS; r++) {
+            float center = size * 0.34f + markHeight * (r + 0.5f);
+            markBaseline[r] = center - (markPaint.descent() + markPaint.ascent()) / 2f;
+        }
+        tiles.reset(tileRows * tileColumns);
+    }
+
+    private void zoomTo(float newScale, float focusX, float focusY) {
+        newScale = Math.max(1f, Math.min(newScale, maxScale));
+        if (tiles == null || newScale == scale) {
+            return;
+        }
+        // Keep the grid point under the focus where it is.
+        float newCellSize = fitCellSize * newScale;
+        gridLeft = focusX - (focusX - gridLeft) * newCellSize / cellSize;
+        gridTop = focusY - (focusY - gridTop) * newCellSize / cellSize;
+        scale = newScale;
+        cellSize = newCellSize;
+        clampOffsets();
+        updateLevel();
+        invalidate();
+    }
+
+    private void panBy(float dx, float dy) {
+        if (tiles == null) {
+            return;
+        }
+        gridLeft += dx;
+        gridTop += dy;
+        clampOffsets();
+        invalidate();
+    }
+
+    /**
+     * Pans the least distance that brings the cell at {@code index} fully into view.
+     */
+    private void scrollToCell(int index) {
+        if (cellSize <= 0) {
+            return;
+        }
+        float left = gridLeft + board.getColumn(index) * cellSize;
+        float top = gridTop + board.getRow(index) * cellSize;
+        float right = getWidth() - getPaddingRight();
+        float bottom = getHeight() - getPaddingBottom();
+        if (left < getPaddingLeft()) {
+            gridLeft += getPaddingLeft() - left;
+        } else if (left + cellSize > right) {
+            gridLeft -= left + cellSize - right;
+        }
+        if (top < getPaddingTop()) {
+            gridTop += getPaddingTop() - top;
+        } else if (top + cellSize > bottom) {
+            gridTop -= top + cellSize - bottom;
+        }
+        clampOffsets();
+    }
+
+    /**
+     * Centres the grid on each axis where it fits and otherwise stops it from leaving a gap at
+     * either edge.
+     */
+    private void clampOffsets() {
+        gridLeft = clampOffset(gridLeft, getPaddingLeft(), getWidth() - getPaddingRight(), cellSize * board.getColumns());
+        gridTop = clampOffset(gridTop, getPaddingTop(), getHeight() - getPaddingBottom(), cellSize * board.getRows());
+    }
+
+    private static float clampOffset(float offset, float start, float end, float length) {
+        if (length <= end - start) {
+            return start + (end - start - length) / 2f;
+        }
+        return Math.max(end - length, Math.min(offset, start));
+    }
+
+    private int tileId(int tileRow, int tileColumn) {
+        return tileRow * tileColumns + tileColumn;
+    }
+
+    private Bitmap renderTile(int tileRow, int tileColumn) {
+        int firstRow = tileRow * tileCells;
+        int firstColumn = tileColumn * tileCells;
+        int rows = Math.min(tileCells, board.getRows() - firstRow);
+        int columns = Math.min(tileCells, board.getColumns() - firstColumn);
+        Bitmap tile = Bitmap.createBitmap(columns * levelCellSize, rows * levelCellSize, Bitmap.Config.ARGB_8888);
+        tileCanvas.setBitmap(tile);
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                renderCell(board.toIndex(firstRow + r, firstColumn + c), c * levelCellSize, r * levelCellSize);
+            }
+        }
+        tileCanvas.setBitmap(null);
+        tiles.put(tileId(tileRow, tileColumn), tile);
+        return tile;
+    }
+
+    /**
+     * Draws the cell at {@code index} into {@link #tileCanvas} with its top-left corner at
+     * ({@code left}, {@code top}).
+     */
+    private void renderCell(int index, float left, float top) {
+        metrics.onBind();
+        float size = levelCellSize;
+        cellRect.set(left, top, left + size, top + size);
+
+        if (board.isBlock(index)) {
+            tileCanvas.drawRect(cellRect, blockPaint);
+            return;
+        }
+
+        tileCanvas.drawRect(cellRect, statusPaints[board.getStatus(index)]);
+        char entry = board.getEntry(index);
+        if (!detailed) {
+            if (entry != PuzzleBoard.EMPTY) {
+                tileCanvas.drawRect(cellRect, entryShadePaint);
+            }
+            return;
+        }
+        cellRect.inset(1, 1);
+        tileCanvas.drawRect(cellRect, borderPaint);
+
+        int number = board.getNumber(index);
+        if (number > 0) {
+            int length = formatNumber(number);
+            tileCanvas.drawText(numberDigits, numberDigits.length - length, length,
+                    left + size * 0.08f, top + numberPaint.getTextSize(), numberPaint);
+        }
+
+        if (entry != PuzzleBoard.EMPTY) {
+            float baseline = top + size * 0.55f - (letterPaint.descent() + letterPaint.ascent()) / 2f;
+            tileCanvas.drawText(LETTERS, entry - 'A', 1, left + size / 2f, baseline, letterPaint);
+        }
+
+        int marks = entry == PuzzleBoard.EMPTY ? board.getMarks(index) : 0;
+        if (marks != 0) {
+            renderMarks(marks, left, top);
+        }
+
+        if (candidates != null) {
+            int count = candidates.getCandidateCount(index);
+            if (count == 0) {
+                cellRect.inset(impossiblePaint.getStrokeWidth() / 2f, impossiblePaint.getStrokeWidth() / 2f);
+                tileCanvas.drawRect(cellRect, impossiblePaint);
+            } else if (entry == PuzzleBoard.EMPTY && marks == 0) {
+                int length = formatNumber(count);
+                tileCanvas.drawText(numberDigits, numberDigits.length - length, length,
+                        left + size * 0.92f, top + size * 0.92f, candidateCountPaint);
+            }
+        }
+    }
+
+    /**
+     * Draws each pencil mark as a small letter in the next slot of the mark grid, in alphabetical
+     * order.
+     */
+    private void renderMarks(int marks, float left, float top) {
+        int slots = MARK_COLUMNS * MARK_ROWS;
+        boolean overflow = Integer.bitCount(marks) > slots;
+        for (int slot = 0; marks != 0 && slot < slots; slot++, marks &= marks - 1) {
+            float x = left + markCenterX[slot % MARK_COLUMNS];
+            float y = top + markBaseline[slot / MARK_COLUMNS];
+            if (overflow && slot == slots - 1) {
+                tileCanvas.drawText(MORE_MARKS, 0, 1, x, y, markPaint);
+            } else {
+                tileCanvas.drawText(LETTERS, Integer.numberOfTrailingZeros(marks), 1, x, y, markPaint);
+            }
+        }
+    }
+
+    /**
+     * Writes the decimal digits of {@code number} right-aligned into {@link #numberDigits}.
+     */
+    private int formatNumber(int number) {
+        int position = numberDigits.length;
+        do {
+            numberDigits[--position] = (char) ('0' + number % 10);
+            number /= 10;
+        } while (number > 0 && position > 0);
+        return numberDigits.length - position;
+    }
+
+    @Override
+    protected void onDraw(@NonNull Canvas canvas) {
+        super.onDraw(canvas);
+        if (tiles == null) {
+            if (board == null && placeholderRows > 0 && placeholderColumns > 0) {
+                drawPlaceholder(canvas);
+            }
+            return;
+        }
+        Trace.beginSection("CrosswordGridView.onDraw");
+        canvas.save();
+        try {
+            float contentLeft = getPaddingLeft();
+            float contentTop = getPaddingTop();
+            float contentRight = getWidth() - getPaddingRight();
+            float contentBottom = getHeight() - getPaddingBottom();
+            canvas.clipRect(contentLeft, contentTop, contentRight, contentBottom);
+
+            float tileSpan = tileCells * cellSize;
+            float tileScale = cellSize / levelCellSize;
+            int firstTileRow = Math.max(0, (int) Math.floor((contentTop - gridTop) / tileSpan));
+            int lastTileRow = Math.min(tileRows - 1, (int) Math.floor((contentBottom - gridTop) / tileSpan));
+            int firstTileColumn = Math.max(0, (int) Math.floor((contentLeft - gridLeft) / tileSpan));
+            int lastTileColumn = Math.min(tileColumns - 1, (int) Math.floor((contentRight - gridLeft) / tileSpan));
+            for (int tileRow = firstTileRow; tileRow <= lastTileRow; tileRow++) {
+                for (int tileColumn = firstTileColumn; tileColumn <= lastTileColumn; tileColumn++) {
+                    Bitmap tile = tiles.get(tileId(tileRow, tileColumn));
+                    if (tile == null) {
+                        tile = renderTile(tileRow, tileColumn);
+                    }
+                    float left = gridLeft + tileColumn * tileSpan;
+                    float top = gridTop + tileRow * tileSpan;
+                    tileRect.set(left, top, left + tile.getWidth() * tileScale, top + tile.getHeight() * tileScale);
+                    canvas.drawBitmap(tile, null, tileRect, bitmapPaint);
+                }
+            }
+
+            int slot = getActiveSlot();
+            if (slot >= 0) {
+                SlotGrid slots = navigator.getSlots();
+                for (int p = 0; p < slots.getLength(slot); p++) {
+                    int cell = slots.getCell(slot, p);
+                    float left = gridLeft + board.getColumn(cell) * cellSize;
+                    float top = gridTop + board.getRow(cell) * cellSize;
+                    canvas.drawRect(left, top, left + cellSize, top + cellSize, highlightPaint);
+                }
+            }
+
+            if (selectedIndex >= 0 && isFocused()) {
+                float left = gridLeft + board.getColumn(selectedIndex) * cellSize;
+                float top = gridTop + board.getRow(selectedIndex) * cellSize;
+                float inset = cursorPaint.getStrokeWidth() / 2f;
+                canvas.drawRect(left + inset, top + inset, left + cellSize - inset, top + cellSize - inset, cursorPaint);
+            }
+            metrics.onDraw();
+        } finally {
+            canvas.restore();
+            Trace.endSection();
+        }
+    }
+
+    /**
+     * Draws the empty grid set by {@link #setPlaceholder}, fitted and centred like a board.
+     */
+    private void drawPlaceholder(@NonNull Canvas canvas) {
+        int width = getWidth() - getPaddingLeft() - getPaddingRight();
+        int height = getHeight() - getPaddingTop() - getPaddingBottom();
+        float size = (float) Math.floor(Math.min(width / (float) placeholderColumns, height / (float) placeholderRows));
+        if (size <= 0) {
+            return;
+        }
+        float left = getPaddingLeft() + (width - size * placeholderColumns) / 2f;
+        float top = getPaddingTop() + (height - size * placeholderRows) / 2f;
+        float right = left + size * placeholderColumns;
+        float bottom = top + size * placeholderRows;
+        canvas.drawRect(left, top, right, bottom, statusPaints[CellStatus.DEFAULT.getCode()]);
+        for (int row = 0; row <= placeholderRows; row++) {
+            float y = top + row * size;
+            canvas.drawLine(left, y, right, y, borderPaint);
+        }
+        for (int column = 0; column <= placeholderColumns; column++) {
+            float x = left + column * size;
+            canvas.drawLine(x, top, x, bottom, borderPaint);
+        }
+    }
+
+    @Override
+    protected void onFocusChanged(boolean gainFocus, int direction, @Nullable Rect previouslyFocusedRect) {
+        super.onFocusChanged(gainFocus, direction, previouslyFocusedRect);
+        invalidate();
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (!isEnabled() || board == null || tiles == null) {
+            return super.onTouchEvent(event);
+        }
+        // Taps select, one-finger drags pan and pinches zoom.
+        scaleDetector.onTouchEvent(event);
+        gestureDetector.onTouchEvent(event);
+        return true;
+    }
+
+    private void selectAt(float x, float y) {
+        int column = (int) Math.floor((x - gridLeft) / cellSize);
+        int row = (int) Math.floor((y - gridTop) / cellSize);
+        if (row >= 0 && row < board.getRows() && column >= 0 && column < board.getColumns()) {
+            int index = board.toIndex(row, column);
+            if (index == selectedIndex) {
+                toggleDirection();
+            } else if (!board.isBlock(index)) {
+                setSelectedIndex(index);
+            }
+        }
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    private void showKeyboard() {
+        InputMethodManager imm = (InputMethodManager) getContext().getSystemService(Context.INPUT_METHOD_SERVICE);
+        if (imm != null) {
+            imm.showSoftInput(this, InputMethodManager.SHOW_IMPLICIT);
+        }
+    }
+
+    @Override
+    public boolean onCheckIsTextEditor() {
+        return true;
+    }
+
+    @Override
+    public InputConnection onCreateInputConnection(EditorInfo outAttrs) {
+        outAttrs.inputType = InputType.TYPE_CLASS_TEXT
+                | InputType.TYPE_TEXT_FLAG_CAP_CHARACTERS
+                | InputType.TYPE_TEXT_VARIATION_VISIBLE_PASSWORD;
+        outAttrs.imeOptions = EditorInfo.IME_FLAG_NO_EXTRACT_UI | EditorInfo.IME_FLAG_NO_FULLSCREEN
+                | EditorInfo.IME_ACTION_DONE;
+        return inputConnection;
+    }
+
+    @Override
+    public boolean onKeyDown(int keyCode, KeyEvent event) {
+        if (!isEnabled() || board == null || navigator == null || selectedIndex < 0) {
+            return super.onKeyDown(keyCode, event);
+        }
+        switch (keyCode) {
+            case KeyEvent.KEYCODE_DEL:
+                erase();
+                return true;
+            case KeyEvent.KEYCODE_DPAD_LEFT:
+                moveSelection(CrosswordClue.Direction.ACROSS, 0, -1);
+                return true;
+            case KeyEvent.KEYCODE_DPAD_RIGHT:
+                moveSelection(CrosswordClue.Direction.ACROSS, 0, 1);
+                return true;
+            case KeyEvent.KEYCODE_DPAD_UP:
+                moveSelection(CrosswordClue.Direction.DOWN, -1, 0);
+                return true;
+            case KeyEvent.KEYCODE_DPAD_DOWN:
+                moveSelection(CrosswordClue.Direction.DOWN, 1, 0);
+                return true;
+            case KeyEvent.KEYCODE_SPACE:
+                toggleDirection();
+                return true;
+            case KeyEvent.KEYCODE_TAB:
+                selectNextUnsolvedClue();
+                return true;
+            default:
+                char letter = PuzzleBoard.normalize((char) event.getUnicodeChar());
+                if (letter != PuzzleBoard.EMPTY) {
+                    type(letter);
+                    return true;
+                }
+                return super.onKeyDown(keyCode, event);
+        }
+    }
+
+    /**
+     * Types {@code text} from the cursor to the end of the active entry in one batch, overwriting
+     * filled cells, and leaves the cursor after the last letter. Letters past the entry are dropped.
+     */
+    private void typeAnswer(CharSequence text) {
+        if (!isEnabled()) {
+            return;
+        }
+        int slot = getActiveSlot();
+        if (slot < 0) {
+            for (int i = 0; i < text.length(); i++) {
+                char letter = PuzzleBoard.normalize(text.charAt(i));
+                if (letter != PuzzleBoard.EMPTY) {
+                    type(letter);
+                }
+            }
+            return;
+        }
+        SlotGrid slots = navigator.getSlots();
+        int length = slots.getLength(slot);
+        int position = 0;
+        while (slots.getCell(slot, position) != selectedIndex) {
+            position++;
+        }
+        int[] cells = new int[length - position];
+        char[] values = new char[cells.length];
+        int count = 0;
+        for (int i = 0; i < text.length() && count < cells.length; i++) {
+            char letter = PuzzleBoard.normalize(text.charAt(i));
+            if (letter != PuzzleBoard.EMPTY) {
+                cells[count] = slots.getCell(slot, position + count);
+                values[count++] = letter;
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        if (listener != null) {
+            listener.onCellValuesChanged(Arrays.copyOf(cells, count), Arrays.copyOf(values, count));
+        }
+        setSelectedIndex(navigator.advance(board, cells[count - 1], direction));
+    }
+
+    /**
+     * Types the clipboard's text into the active entry.
+     */
+    public void pasteAnswer() {
+        ClipboardManager clipboard = (ClipboardManager) getContext().getSystemService(Context.CLIPBOARD_SERVICE);
+        if (clipboard == null || !clipboard.hasPrimaryClip() || clipboard.getPrimaryClip().getItemCount() == 0) {
+            return;
+        }
+        CharSequence text = clipboard.getPrimaryClip().getItemAt(0).coerceToText(getContext());
+        if (text != null) {
+            typeAnswer(text);
+        }
+    }
+
+    private void type(char letter) {
+        if (!isEnabled() || selectedIndex < 0) {
+            return;
+        }
+        if (pencilMode) {
+            dispatchMarks(selectedIndex, board.getMarks(selectedIndex) ^ (1 << (letter - 'A')));
+            return;
+        }
+        dispatchValue(selectedIndex, letter);
+        setSelectedIndex(navigator.advance(board, selectedIndex, direction));
+    }
+
+    private void erase() {
+        if (!isEnabled() || selectedIndex < 0) {
+            return;
+        }
+        if (pencilMode) {
+            dispatchMarks(selectedIndex, 0);
+            return;
+        }
+        if (board.isEmpty(selectedIndex)) {
+            int previous = navigator.getPreviousCell(selectedIndex, direction);
+            if (previous < 0) {
+                return;
+            }
+            setSelectedIndex(previous);
+        }
+        dispatchValue(selectedIndex, PuzzleBoard.EMPTY);
+    }
+
+    private void dispatchValue(int index, char value) {
+        if (listener != null) {
+            listener.onCellValueChanged(board.getRow(index), board.getColumn(index), value);
+        }
+    }
+
+    private void dispatchMarks(int index, int marks) {
+        if (listener != null && marks != board.getMarks(index)) {
+            listener.onCellMarksChanged(index, marks);
+        }
+    }
+
+    /**
+     * Moves one open cell along an arrow key's axis; if the cursor is typing along the other axis
+     * it turns to this one first instead of moving.
+     */
+    private void moveSelection(CrosswordClue.Direction axis, int rowDelta, int columnDelta) {
+        if (axis != direction && navigator.getSlot(selectedIndex, axis) >= 0) {
+            setSelection(selectedIndex, axis);
+            return;
+        }
+        int row = board.getRow(selectedIndex) + rowDelta;
+        int column = board.getColumn(selectedIndex) + columnDelta;
+        while (row >= 0 && row < board.getRows() && column >= 0 && column < board.getColumns()) {
+            int index = board.toIndex(row, column);
+            if (!board.isBlock(index)) {
+                setSelectedIndex(index);
+                return;
+            }
+            row += rowDelta;
+            column += columnDelta;
+        }
+    }
+
+    /**
+     * Feeds soft-keyboard text straight into the grid, one character at a time.
+     *
+     * <p>Composing text is typed as it appears. When the IME revises it, for a backspace or an
+     * autocorrection, the letters it no longer has are withdrawn, giving their cells back what
+     * they held before, and the new ones are typed in their place.</p>
+     */
+    private final class GridInputConnection extends BaseInputConnection {
+
+        // Letters typed for the current composing text, with the cell each went into and the
+        // entry that cell held before.
+        private final StringBuilder composed = new StringBuilder();
+        private final StringBuilder update = new StringBuilder();
+        private int[] composedCells = new int[16];
+        private char[] composedPrevious = new char[16];
+
+        GridInputConnection() {
+            super(CrosswordGridView.this, false);
+        }
+
+        @Override
+        public boolean commitText(CharSequence text, int newCursorPosition) {
+            if (composed.length() > 0) {
+                // The committed text replaces the composing text, which autocorrect may have changed.
+                compose(text);
+                composed.setLength(0);
+                return true;
+            }
+            if (text.length() > 1 && !pencilMode) {
+                // A word from the suggestion strip or a paste: fill it in as one edit.
+                typeAnswer(text);
+                return true;
+            }
+            for (int i = 0; i < text.length(); i++) {
+                char letter = PuzzleBoard.normalize(text.charAt(i));
+                if (letter != PuzzleBoard.EMPTY) {
+                    type(letter);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean performContextMenuAction(int id) {
+            if (id == android.R.id.paste) {
+                pasteAnswer();
+                return true;
+            }
+            return super.performContextMenuAction(id);
+        }
+
+        @Override
+        public boolean setComposingText(CharSequence text, int newCursorPosition) {
+            // There is no composing region in a grid: the letters go in straight away.
+            compose(text);
+            return true;
+        }
+
+        @Override
+        public boolean finishComposingText() {
+            composed.setLength(0);
+            return true;
+        }
+
+        /**
+         * Brings the grid from the letters typed for the composing text so far to those of
+         * {@code text}: letters after the common prefix are withdrawn, newest first, then the rest
+         * of {@code text} is typed.
+         */
+        private void compose(CharSequence text) {
+            if (!isEnabled()) {
+                // The puzzle is being switched; the cells typed so far may not be on the new board.
+                composed.setLength(0);
+                return;
+            }
+            update.setLength(0);
+            for (int i = 0; i < text.length(); i++) {
+                char letter = PuzzleBoard.normalize(text.charAt(i));
+                if (letter != PuzzleBoard.EMPTY) {
+                    update.append(letter);
+                }
+            }
+            int keep = 0;
+            while (keep < composed.length() && keep < update.length() && composed.charAt(keep) == update.charAt(keep)) {
+                keep++;
+            }
+            for (int i = composed.length() - 1; i >= keep; i--) {
+                withdraw(i);
+            }
+            composed.setLength(keep);
+            for (int i = keep; i < update.length() && selectedIndex >= 0; i++) {
+                int n = composed.length();
+                if (n == composedCells.length) {
+                    composedCells = Arrays.copyOf(composedCells, n * 2);
+                    composedPrevious = Arrays.copyOf(composedPrevious, n * 2);
+                }
+                composedCells[n] = selectedIndex;
+                composedPrevious[n] = board.getEntry(selectedIndex);
+                composed.append(update.charAt(i));
+                type(update.charAt(i));
+            }
+        }
+
+        /**
+         * Takes back the {@code i}th composed letter and puts the cursor on its cell.
+         */
+        private void withdraw(int i) {
+            int cell = composedCells[i];
+            if (pencilMode) {
+                dispatchMarks(cell, board.getMarks(cell) ^ (1 << (composed.charAt(i) - 'A')));
+            } else {
+                dispatchValue(cell, composedPrevious[i]);
+            }
+            setSelectedIndex(cell);
+        }
+
+        @Override
+        public boolean deleteSurroundingText(int beforeLength, int afterLength) {
+            if (beforeLength > 0) {
+                erase();
+            }
+            return true;
+        }
+    }
+}
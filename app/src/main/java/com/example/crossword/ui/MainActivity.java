@@ -1,37 +1,132 @@
 package com.example.crossword.ui;
 
+import android.content.pm.ApplicationInfo;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.Menu;
+import android.view.MenuItem;
 import android.view.View;
+import android.view.ViewStub;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.crossword.R;
-import com.example.crossword.model.CrosswordCell;
+import com.example.crossword.metrics.InteractionMetrics;
+import com.example.crossword.model.BoardTransaction;
+import com.example.crossword.model.CandidateTracker;
+import com.example.crossword.model.ClueProgressTracker;
 import com.example.crossword.model.CrosswordClue;
 import com.example.crossword.model.CrosswordPuzzle;
+import com.example.crossword.model.GridNavigator;
+import com.example.crossword.model.PuzzleCache;
+import com.example.crossword.model.PuzzleBoard;
 import com.example.crossword.model.PuzzleData;
+import com.example.crossword.model.PuzzleSession;
+import com.example.crossword.model.SolveHistory;
+import com.example.crossword.model.SolveProgressTracker;
+import com.example.crossword.model.SlotGrid;
+import com.example.crossword.model.SolveStateStore;
+import com.example.crossword.model.WordDictionary;
+import com.example.crossword.sync.SyncFormatException;
+import com.example.crossword.sync.SyncServer;
+import com.example.crossword.sync.SyncSession;
+import com.example.crossword.sync.TcpSyncTransport;
 import com.google.android.material.appbar.MaterialToolbar;
+import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.floatingactionbutton.ExtendedFloatingActionButton;
 import com.google.android.material.snackbar.Snackbar;
 
-import java.util.ArrayList;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.io.PrintWriter;
 import java.util.List;
-
-public class MainActivity extends AppCompatActivity implements CrosswordGridAdapter.OnCellValueChangedListener {
-
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.function.IntConsumer;
+
+public class MainActivity extends AppCompatActivity implements CrosswordGridView.OnCellValueChangedListener,
+        CrosswordGridView.OnSelectionChangedListener, PuzzlePreparer.Listener {
+
+    /** Host of a {@link SyncServer} to solve together through; omit to play alone. */
+    public static final String EXTRA_SYNC_HOST = "com.example.crossword.extra.SYNC_HOST";
+    public static final String EXTRA_SYNC_PORT = "com.example.crossword.extra.SYNC_PORT";
+
+    private static final String TAG = "MainActivity";
+    private static final String STATE_SOLVE = "solve_state";
+    private static final String STATE_HINT_STRATEGY = "hint_strategy";
+    private static final String STATE_LIBRARY_POSITION = "library_position";
+    private static final String STATE_SMART_MODE = "smart_mode";
+    private static final String STATE_PENCIL_MODE = "pencil_mode";
+    private static final String STATE_SYNC_REPLICA = "sync_replica";
+    private static final String STATE_SYNC_STAMPS = "sync_stamps";
+    private static final String STATE_GRID_ROWS = "grid_rows";
+    private static final String STATE_GRID_COLUMNS = "grid_columns";
+    // The built-in puzzle shown when there is no library.
+    private static final int BUILT_IN_SIZE = 5;
+    // Enough recycled clue rows to refill the clue panel after a fling without inflating.
+    private static final int MAX_RECYCLED_CLUE_ROWS = 12;
+    // Rows inflated ahead of the puzzle so binding the clue panel does not inflate any.
+    private static final int PREWARMED_CLUE_ROWS = 8;
+    // Jumps further than this many rows scroll instantly instead of animating through every row.
+    private static final int MAX_SMOOTH_SCROLL_ROWS = 20;
+    private static final int MAX_FITTING_WORDS = 100;
+
+    private final PuzzlePreparer preparer = new PuzzlePreparer();
+    private final InteractionMetrics metrics = InteractionMetrics.get();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Choreographer.FrameCallback syncFlush = frameTimeNanos -> flushSync();
+
+    private SolveStateStore solveStore;
+    private byte[] pendingSavedState;
+    private long resumedAt;
+
+    private PuzzleSession session;
     private CrosswordPuzzle puzzle;
-    private CrosswordGridAdapter gridAdapter;
-    private ClueAdapter acrossAdapter;
-    private ClueAdapter downAdapter;
-    private final List<CrosswordGridAdapter.CellState> cellStates = new ArrayList<>();
-
-    private char[][] userEntries;
+    private PuzzleBoard board;
+    private CrosswordGridView gridView;
+    // Built once: a method reference written at each call would allocate on every keystroke.
+    private IntConsumer invalidateCell;
+    private RecyclerView clueList;
+    private LinearLayoutManager clueLayoutManager;
+    private ClueAdapter clueAdapter;
+    private ClueProgressTracker clueTracker;
+    private SolveProgressTracker progress;
+    private SolveHistory history;
+    private SolveProgressTracker.HintStrategy hintStrategy = SolveProgressTracker.HintStrategy.ACTIVE_CLUE;
+    private GridNavigator navigator;
 
     private View rootView;
+    private View loadingIndicator;
+    private ExtendedFloatingActionButton hintButton;
+    private ExtendedFloatingActionButton checkButton;
+    private View undoButton;
+    private View redoButton;
+    private ViewStub clueListStub;
+    private ViewStub libraryButtonsStub;
+    private ViewStub whatFitsButtonStub;
+    private View previousPuzzleButton;
+    private View nextPuzzleButton;
+    private WordDictionary dictionary;
+    private CandidateTracker candidateTracker;
+    private boolean smartMode;
+    private TcpSyncTransport syncTransport;
+    private SyncSession syncSession;
+    private boolean syncFlushScheduled;
+    // Kept for the life of the task, so peers keep telling this player's edits apart.
+    private int syncReplicaId;
+    // SyncSession.saveState() of each puzzle played this task, keyed by board fingerprint.
+    private Bundle syncStamps = new Bundle();
+    private int libraryPosition;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -39,188 +134,847 @@ public class MainActivity extends AppCompatActivity implements CrosswordGridAdap
         setContentView(R.layout.activity_main);
 
         rootView = findViewById(android.R.id.content);
+        // Debuggable builds record interaction latency; see dump().
+        metrics.setEnabled((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0);
 
         MaterialToolbar toolbar = findViewById(R.id.topAppBar);
         setSupportActionBar(toolbar);
 
-        puzzle = PuzzleData.createSatorSquarePuzzle();
-        userEntries = new char[puzzle.getRows()][puzzle.getColumns()];
+        loadingIndicator = findViewById(R.id.loadingIndicator);
 
         setupGrid();
         setupClues();
         setupActions();
+        setLoading(true);
+
+        solveStore = new SolveStateStore(new File(getFilesDir(), "solves"));
+        pendingSavedState = savedInstanceState != null ? savedInstanceState.getByteArray(STATE_SOLVE) : null;
+        if (savedInstanceState != null) {
+            hintStrategy = SolveProgressTracker.HintStrategy.values()[
+                    savedInstanceState.getInt(STATE_HINT_STRATEGY, hintStrategy.ordinal())];
+            libraryPosition = savedInstanceState.getInt(STATE_LIBRARY_POSITION);
+            smartMode = savedInstanceState.getBoolean(STATE_SMART_MODE);
+            gridView.setPencilMode(savedInstanceState.getBoolean(STATE_PENCIL_MODE));
+            Bundle stamps = savedInstanceState.getBundle(STATE_SYNC_STAMPS);
+            if (stamps != null) {
+                syncStamps = stamps;
+            }
+        }
+        syncReplicaId = savedInstanceState != null && savedInstanceState.containsKey(STATE_SYNC_REPLICA)
+                ? savedInstanceState.getInt(STATE_SYNC_REPLICA) : new Random().nextInt(Integer.MAX_VALUE);
+        showPlaceholder(savedInstanceState);
+        preparer.prepare(puzzleSource(libraryPosition), pendingSavedState, solveStore, this);
+        String syncHost = getIntent().getStringExtra(EXTRA_SYNC_HOST);
+        if (syncHost != null) {
+            connectSync(syncHost, getIntent().getIntExtra(EXTRA_SYNC_PORT, SyncServer.DEFAULT_PORT));
+        }
+        // Queued behind the puzzle so it never delays the first frame.
+        loadDictionary();
     }
 
-    private void setupGrid() {
-        RecyclerView gridView = findViewById(R.id.crosswordGrid);
-        gridView.setLayoutManager(new GridLayoutManager(this, puzzle.getColumns()));
+    @Override
+    protected void onResume() {
+        super.onResume();
+        resumedAt = SystemClock.elapsedRealtime();
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        flushElapsedTime();
+        saveProgress();
+    }
+
+    private void saveProgress() {
+        if (session != null) {
+            int fingerprint = board.fingerprint();
+            byte[] data = session.snapshot();
+            PuzzlePreparer.runInBackground(() -> {
+                try {
+                    solveStore.write(fingerprint, data);
+                } catch (IOException e) {
+                    Log.w(TAG, "Could not save progress", e);
+                }
+            });
+        }
+    }
+
+    @Override
+    protected void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putInt(STATE_HINT_STRATEGY, hintStrategy.ordinal());
+        outState.putInt(STATE_LIBRARY_POSITION, libraryPosition);
+        outState.putBoolean(STATE_SMART_MODE, smartMode);
+        outState.putBoolean(STATE_PENCIL_MODE, gridView.isPencilMode());
+        saveSyncState();
+        outState.putInt(STATE_SYNC_REPLICA, syncReplicaId);
+        outState.putBundle(STATE_SYNC_STAMPS, syncStamps);
+        if (board != null) {
+            outState.putInt(STATE_GRID_ROWS, board.getRows());
+            outState.putInt(STATE_GRID_COLUMNS, board.getColumns());
+        }
+        if (session != null) {
+            flushElapsedTime();
+            outState.putByteArray(STATE_SOLVE, session.snapshot());
+        } else if (pendingSavedState != null) {
+            // Recreated again before the puzzle was ready; carry the previous state forward.
+            outState.putByteArray(STATE_SOLVE, pendingSavedState);
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        // Drop in-flight preparation; a recreated activity starts its own.
+        preparer.cancel();
+        Choreographer.getInstance().removeFrameCallback(syncFlush);
+        mainHandler.removeCallbacksAndMessages(null);
+        syncSession = null;
+        if (syncTransport != null) {
+            syncTransport.close();
+        }
+        super.onDestroy();
+    }
+
+    @Override
+    public boolean onCreateOptionsMenu(Menu menu) {
+        getMenuInflater().inflate(R.menu.menu_main, menu);
+        menu.findItem(R.id.action_smart_mode).setChecked(smartMode);
+        menu.findItem(R.id.action_pencil_mode).setChecked(gridView.isPencilMode());
+        return true;
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(@NonNull MenuItem item) {
+        int id = item.getItemId();
+        if (session == null) {
+            return super.onOptionsItemSelected(item);
+        } else if (id == R.id.action_reveal_word) {
+            revealWord();
+        } else if (id == R.id.action_check_word) {
+            checkWord();
+        } else if (id == R.id.action_paste_answer) {
+            gridView.pasteAnswer();
+        } else if (id == R.id.action_reveal_puzzle) {
+            revealPuzzle();
+        } else if (id == R.id.action_clear_puzzle) {
+            clearPuzzle();
+        } else if (id == R.id.action_pencil_mode) {
+            gridView.setPencilMode(!gridView.isPencilMode());
+            item.setChecked(gridView.isPencilMode());
+        } else if (id == R.id.action_clear_word_marks) {
+            clearWordMarks();
+        } else if (id == R.id.action_clear_row_marks) {
+            clearRowMarks();
+        } else if (id == R.id.action_smart_mode) {
+            setSmartMode(!smartMode);
+            item.setChecked(smartMode);
+        } else {
+            return super.onOptionsItemSelected(item);
+        }
+        return true;
+    }
 
-        gridAdapter = new CrosswordGridAdapter(this);
-        gridView.setAdapter(gridAdapter);
+    /**
+     * Adds the interaction metrics to {@code adb shell dumpsys activity com.example.crossword}.
+     */
+    @Override
+    public void dump(@NonNull String prefix, @Nullable FileDescriptor fd, @NonNull PrintWriter writer,
+                     @Nullable String[] args) {
+        super.dump(prefix, fd, writer, args);
+        metrics.dump(prefix, writer);
+    }
 
-        buildInitialCellStates();
-        gridAdapter.submitCells(cellStates);
+    @Override
+    public void onPuzzleReady(@NonNull PuzzleSession session) {
+        this.session = session;
+        pendingSavedState = null;
+        resumedAt = SystemClock.elapsedRealtime();
+        puzzle = session.getPuzzle();
+        board = session.getBoard();
+        clueTracker = session.getClueTracker();
+        progress = session.getProgress();
+        history = session.getHistory();
+
+        navigator = session.getNavigator();
+        inflateCluePanel(false);
+        gridView.setBoard(board, navigator, clueTracker);
+        candidateTracker = null;
+        startCandidateTracking();
+        clueAdapter.submitClues(puzzle.getAcrossClues(), puzzle.getDownClues(), () -> {
+            int position = clueAdapter.getActivePosition();
+            if (position >= 0) {
+                scrollToClue(position);
+            }
+        });
+        setLoading(false);
+        updateLibraryButtons();
+        startSyncSession();
+
+        reportFullyDrawn();
+    }
+
+    @Override
+    public void onPuzzleFailed(@NonNull Exception error) {
+        loadingIndicator.setVisibility(View.GONE);
+        Snackbar.make(rootView, R.string.message_puzzle_failed, Snackbar.LENGTH_LONG).show();
+    }
+
+    private void flushElapsedTime() {
+        long now = SystemClock.elapsedRealtime();
+        if (session != null && resumedAt != 0) {
+            session.addElapsedMillis(now - resumedAt);
+        }
+        resumedAt = now;
+    }
+
+    private void setLoading(boolean loading) {
+        loadingIndicator.setVisibility(loading ? View.VISIBLE : View.GONE);
+        // While a library puzzle loads the grid still shows the outgoing board, whose progress is
+        // already saved, so it takes no more input.
+        gridView.setEnabled(!loading);
+        hintButton.setEnabled(!loading);
+        checkButton.setEnabled(!loading);
+        updateHistoryButtons();
+    }
+
+    private void setupGrid() {
+        gridView = findViewById(R.id.crosswordGrid);
+        invalidateCell = gridView::invalidateCell;
+        gridView.setOnCellValueChangedListener(this);
+        gridView.setOnSelectionChangedListener(this);
     }
 
     private void setupClues() {
-        acrossAdapter = new ClueAdapter();
-        RecyclerView acrossList = findViewById(R.id.acrossClues);
-        acrossList.setLayoutManager(new LinearLayoutManager(this));
-        acrossList.setAdapter(acrossAdapter);
-        acrossAdapter.submitClues(puzzle.getAcrossClues());
+        clueAdapter = new ClueAdapter(PuzzlePreparer::runInBackground);
+        clueListStub = findViewById(R.id.clueListStub);
+        // The panel stays empty until the puzzle is ready, so build it just after the first frame,
+        // while the puzzle is still being prepared.
+        Choreographer.getInstance().postFrameCallback(frameTimeNanos -> mainHandler.post(() -> inflateCluePanel(true)));
+    }
 
-        downAdapter = new ClueAdapter();
-        RecyclerView downList = findViewById(R.id.downClues);
-        downList.setLayoutManager(new LinearLayoutManager(this));
-        downList.setAdapter(downAdapter);
-        downAdapter.submitClues(puzzle.getDownClues());
+    /**
+     * Inflates the clue panel unless that already happened.
+     *
+     * @param prewarm also inflate rows ahead of binding; only worth it while nothing else is waiting
+     */
+    private void inflateCluePanel(boolean prewarm) {
+        if (clueList != null || isDestroyed()) {
+            return;
+        }
+        Trace.beginSection("MainActivity.inflateCluePanel");
+        try {
+            clueList = (RecyclerView) clueListStub.inflate();
+            clueListStub = null;
+            clueLayoutManager = new LinearLayoutManager(this);
+            clueList.setLayoutManager(clueLayoutManager);
+            // The panel's size comes from the layout, not from its rows, so clue changes never re-measure it.
+            clueList.setHasFixedSize(true);
+            RecyclerView.RecycledViewPool pool = clueList.getRecycledViewPool();
+            pool.setMaxRecycledViews(ClueAdapter.VIEW_TYPE_CLUE, MAX_RECYCLED_CLUE_ROWS);
+            clueList.setAdapter(clueAdapter);
+            if (prewarm) {
+                pool.putRecycledView(clueAdapter.createViewHolder(clueList, ClueAdapter.VIEW_TYPE_HEADER));
+                for (int i = 0; i < PREWARMED_CLUE_ROWS; i++) {
+                    pool.putRecycledView(clueAdapter.createViewHolder(clueList, ClueAdapter.VIEW_TYPE_CLUE));
+                }
+            }
+        } finally {
+            Trace.endSection();
+        }
     }
 
     private void setupActions() {
-        ExtendedFloatingActionButton hintButton = findViewById(R.id.hintButton);
-        ExtendedFloatingActionButton checkButton = findViewById(R.id.checkButton);
+        hintButton = findViewById(R.id.hintButton);
+        checkButton = findViewById(R.id.checkButton);
 
         hintButton.setOnClickListener(v -> provideHint());
+        hintButton.setOnLongClickListener(v -> {
+            cycleHintStrategy();
+            return true;
+        });
         checkButton.setOnClickListener(v -> checkAnswers());
+
+        undoButton = findViewById(R.id.undoButton);
+        redoButton = findViewById(R.id.redoButton);
+        undoButton.setOnClickListener(v -> undo());
+        redoButton.setOnClickListener(v -> redo());
+
+        // Library and dictionary buttons are inflated only once their files turn up.
+        libraryButtonsStub = findViewById(R.id.libraryButtonsStub);
+        whatFitsButtonStub = findViewById(R.id.whatFitsButtonStub);
     }
 
-    private void buildInitialCellStates() {
-        cellStates.clear();
-        for (CrosswordCell cell : puzzle.getAllCells()) {
-            CrosswordGridAdapter.CellState state = new CrosswordGridAdapter.CellState(cell);
-            state.setValue(cell.isBlock() ? null : "");
-            cellStates.add(state);
+    private void loadDictionary() {
+        File filesDir = getFilesDir();
+        PuzzlePreparer.runInBackground(() -> {
+            try {
+                WordDictionary opened = WordDictionaryHolder.open(filesDir);
+                if (opened != null) {
+                    runOnUiThread(() -> {
+                        dictionary = opened;
+                        if (whatFitsButtonStub != null) {
+                            whatFitsButtonStub.inflate().setOnClickListener(v -> showFittingWords());
+                            whatFitsButtonStub = null;
+                        }
+                        startCandidateTracking();
+                    });
+                }
+            } catch (IOException e) {
+                Log.w(TAG, "Could not open the word dictionary", e);
+            }
+        });
+    }
+
+    /**
+     * Lists dictionary words that fit the active entry as it is filled so far.
+     */
+    private void showFittingWords() {
+        int slot = gridView.getActiveSlot();
+        if (dictionary == null || session == null || slot < 0) {
+            return;
+        }
+        String pattern = WordDictionary.patternOf(board, navigator.getClue(slot));
+        List<String> words = dictionary.match(pattern, MAX_FITTING_WORDS);
+        if (words.isEmpty()) {
+            Snackbar.make(rootView, getString(R.string.message_nothing_fits, pattern), Snackbar.LENGTH_SHORT).show();
+            return;
         }
+        new MaterialAlertDialogBuilder(this)
+                .setTitle(getString(R.string.title_what_fits, pattern))
+                .setItems(words.toArray(new String[0]), null)
+                .show();
     }
 
-    @Override
-    public void onCellValueChanged(int row, int column, String value) {
-        int index = toIndex(row, column);
-        CrosswordGridAdapter.CellState state = cellStates.get(index);
-        state.setValue(value);
+    private void setSmartMode(boolean enabled) {
+        if (enabled && dictionary == null) {
+            Snackbar.make(rootView, R.string.message_smart_mode_unavailable, Snackbar.LENGTH_LONG).show();
+            return;
+        }
+        smartMode = enabled;
+        if (enabled) {
+            startCandidateTracking();
+        } else {
+            candidateTracker = null;
+            gridView.setCandidateTracker(null);
+        }
+    }
 
-        if (state.getStatus() != CellStatus.HINTED) {
-            state.setStatus(CellStatus.DEFAULT);
-            gridAdapter.notifyItemChanged(index);
+    /**
+     * Builds the candidate tracker for the current puzzle once smart mode is on and both the
+     * puzzle and the dictionary are ready. The first pass covers the whole grid, so it runs in the
+     * background; edits made meanwhile are caught up on before it is shown.
+     */
+    private void startCandidateTracking() {
+        if (!smartMode || session == null || dictionary == null || candidateTracker != null) {
+            return;
         }
+        PuzzleBoard trackedBoard = board;
+        SlotGrid slots = navigator.getSlots();
+        WordDictionary words = dictionary;
+        PuzzlePreparer.runInBackground(() -> {
+            CandidateTracker tracker = new CandidateTracker(trackedBoard, slots, words);
+            runOnUiThread(() -> {
+                if (!smartMode || board != trackedBoard || candidateTracker != null) {
+                    return;
+                }
+                tracker.refresh();
+                candidateTracker = tracker;
+                gridView.setCandidateTracker(tracker);
+            });
+        });
+    }
 
-        if (value == null || value.isEmpty()) {
-            userEntries[row][column] = '\0';
-        } else {
-            userEntries[row][column] = value.charAt(0);
+    /**
+     * Loads the puzzle at {@code position} in the installed library, or the built-in puzzle if
+     * there is no library. Runs on the preparer's thread, which also maps the library on first use.
+     */
+    /**
+     * Gives the grid the shape of the puzzle being prepared, as far as it is known without reading
+     * any files: the board before a configuration change, the library's index if it is already
+     * open, else the built-in puzzle.
+     */
+    private void showPlaceholder(@Nullable Bundle savedInstanceState) {
+        int rows = BUILT_IN_SIZE;
+        int columns = BUILT_IN_SIZE;
+        PuzzleCache cache = PuzzleLibraryHolder.peek();
+        if (savedInstanceState != null && savedInstanceState.containsKey(STATE_GRID_ROWS)) {
+            rows = savedInstanceState.getInt(STATE_GRID_ROWS);
+            columns = savedInstanceState.getInt(STATE_GRID_COLUMNS);
+        } else if (cache != null && libraryPosition < cache.getLibrary().getCount()) {
+            rows = cache.getLibrary().getRows(libraryPosition);
+            columns = cache.getLibrary().getColumns(libraryPosition);
         }
+        gridView.setPlaceholder(rows, columns);
+    }
 
-        updateClueSolvedStates();
+    private Callable<CrosswordPuzzle> puzzleSource(int position) {
+        File filesDir = getFilesDir();
+        return () -> {
+            PuzzleCache cache = PuzzleLibraryHolder.open(filesDir);
+            if (cache == null || position >= cache.getLibrary().getCount()) {
+                return PuzzleData.createSatorSquarePuzzle();
+            }
+            return cache.get(position);
+        };
     }
 
-    private void checkAnswers() {
-        boolean hasMistake = false;
-        boolean allFilled = true;
-
-        for (int i = 0; i < cellStates.size(); i++) {
-            CrosswordGridAdapter.CellState state = cellStates.get(i);
-            CrosswordCell cell = state.getCell();
-            if (cell.isBlock()) {
-                continue;
-            }
-
-            char solution = Character.toUpperCase(cell.getSolution());
-            String value = state.getValue();
-            if (value == null || value.isEmpty()) {
-                state.setStatus(CellStatus.DEFAULT);
-                allFilled = false;
-            } else if (value.charAt(0) == solution) {
-                if (state.getStatus() != CellStatus.HINTED) {
-                    state.setStatus(CellStatus.CORRECT);
-                }
-            } else {
-                state.setStatus(CellStatus.INCORRECT);
-                hasMistake = true;
+    private void showLibraryPuzzle(int position) {
+        PuzzleCache cache = PuzzleLibraryHolder.peek();
+        if (session == null || cache == null || position < 0 || position >= cache.getLibrary().getCount()) {
+            return;
+        }
+        flushElapsedTime();
+        saveProgress();
+        flushSync();
+        saveSyncState();
+        session = null;
+        syncSession = null;
+        libraryPosition = position;
+        setLoading(true);
+        updateLibraryButtons();
+        preparer.prepare(puzzleSource(position), null, solveStore, this);
+    }
+
+    private void updateLibraryButtons() {
+        PuzzleCache cache = PuzzleLibraryHolder.peek();
+        int count = cache == null ? 0 : cache.getLibrary().getCount();
+        if (count <= 1) {
+            return;
+        }
+        if (libraryButtonsStub != null) {
+            View buttons = libraryButtonsStub.inflate();
+            libraryButtonsStub = null;
+            previousPuzzleButton = buttons.findViewById(R.id.previousPuzzleButton);
+            nextPuzzleButton = buttons.findViewById(R.id.nextPuzzleButton);
+            previousPuzzleButton.setOnClickListener(v -> showLibraryPuzzle(libraryPosition - 1));
+            nextPuzzleButton.setOnClickListener(v -> showLibraryPuzzle(libraryPosition + 1));
+        }
+        previousPuzzleButton.setEnabled(session != null && libraryPosition > 0);
+        nextPuzzleButton.setEnabled(session != null && libraryPosition < count - 1);
+    }
+
+    @Override
+    public void onCellValueChanged(int row, int column, char value) {
+        if (session == null) {
+            return;
+        }
+        metrics.startEvent();
+        Trace.beginSection("MainActivity.onCellValueChanged");
+        try {
+            int index = board.toIndex(row, column);
+            char previous = board.getEntry(index);
+            byte previousStatus = board.getStatus(index);
+            byte status = previousStatus == PuzzleBoard.STATUS_HINTED
+                    ? PuzzleBoard.STATUS_HINTED : PuzzleBoard.STATUS_DEFAULT;
+            // Retyping a letter over itself changes nothing: no undo step, sync edit or redraw.
+            if (value == previous && status == previousStatus) {
+                return;
+            }
+            board.setEntry(index, value);
+            board.setStatus(index, status);
+            history.recordEdit(value == PuzzleBoard.EMPTY ? SolveHistory.EVENT_ERASED : SolveHistory.EVENT_TYPED,
+                    index, previous, previousStatus, board.getEntry(index), board.getStatus(index));
+            onEntryChanged(index, previous);
+            queueSyncEdit(index);
+            updateHistoryButtons();
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    @Override
+    public void onCellValuesChanged(@NonNull int[] cells, @NonNull char[] values) {
+        if (session == null) {
+            return;
+        }
+        metrics.startEvent();
+        Trace.beginSection("MainActivity.onCellValuesChanged");
+        try {
+            BoardTransaction transaction = session.beginTransaction();
+            for (int i = 0; i < cells.length; i++) {
+                byte status = board.getStatus(cells[i]) == PuzzleBoard.STATUS_HINTED
+                        ? PuzzleBoard.STATUS_HINTED : PuzzleBoard.STATUS_DEFAULT;
+                transaction.set(cells[i], values[i], status,
+                        values[i] == PuzzleBoard.EMPTY ? SolveHistory.EVENT_ERASED : SolveHistory.EVENT_TYPED);
             }
-            gridAdapter.notifyItemChanged(i);
+            commitTransaction(transaction);
+        } finally {
+            Trace.endSection();
         }
+    }
 
-        updateClueSolvedStates();
+    @Override
+    public void onCellMarksChanged(int index, int marks) {
+        if (session == null) {
+            return;
+        }
+        metrics.startEvent();
+        board.setMarks(index, marks);
+        gridView.invalidateCell(index);
+    }
+
+    @Override
+    public void onSelectionChanged(int index, @NonNull CrosswordClue.Direction direction) {
+        int slot = index < 0 ? -1 : navigator.getSlot(index, direction);
+        int position = clueAdapter.setActiveClue(direction, slot < 0 ? -1 : navigator.getClueIndex(slot));
+        // Until the clues are measured and shown, submitClues scrolls once they are.
+        if (position >= 0 && position < clueAdapter.getItemCount()) {
+            scrollToClue(position);
+        }
+    }
 
-        if (!hasMistake && allFilled && areAllCellsSolved()) {
-            Snackbar.make(rootView, R.string.message_puzzle_complete, Snackbar.LENGTH_LONG).show();
-        } else if (hasMistake) {
-            Snackbar.make(rootView, R.string.message_incorrect_letters, Snackbar.LENGTH_SHORT).show();
+    private void scrollToClue(int position) {
+        int first = clueLayoutManager.findFirstVisibleItemPosition();
+        if (first != RecyclerView.NO_POSITION && Math.abs(position - first) > MAX_SMOOTH_SCROLL_ROWS) {
+            clueLayoutManager.scrollToPositionWithOffset(position, 0);
         } else {
-            Snackbar.make(rootView, R.string.message_keep_going, Snackbar.LENGTH_SHORT).show();
+            clueList.smoothScrollToPosition(position);
+        }
+    }
+
+    private void checkAnswers() {
+        metrics.startEvent();
+        Trace.beginSection("MainActivity.checkAnswers");
+        try {
+            progress.check(invalidateCell);
+            history.recordCheck();
+
+            if (progress.isComplete()) {
+                Snackbar.make(rootView, R.string.message_puzzle_complete, Snackbar.LENGTH_LONG).show();
+            } else if (progress.getIncorrectCount() > 0) {
+                Snackbar.make(rootView, R.string.message_incorrect_letters, Snackbar.LENGTH_SHORT).show();
+            } else {
+                Snackbar.make(rootView, R.string.message_keep_going, Snackbar.LENGTH_SHORT).show();
+            }
+        } finally {
+            Trace.endSection();
         }
     }
 
     private void provideHint() {
-        for (int i = 0; i < cellStates.size(); i++) {
-            CrosswordGridAdapter.CellState state = cellStates.get(i);
-            CrosswordCell cell = state.getCell();
-            if (cell.isBlock()) {
-                continue;
-            }
-
-            char solution = Character.toUpperCase(cell.getSolution());
-            String value = state.getValue();
-            boolean matches = value != null && value.length() == 1 && value.charAt(0) == solution;
-            if (!matches) {
-                String letter = String.valueOf(solution);
-                state.setValue(letter);
-                state.setStatus(CellStatus.HINTED);
-                userEntries[cell.getRow()][cell.getColumn()] = solution;
-                gridAdapter.notifyItemChanged(i);
-                updateClueSolvedStates();
-                Snackbar.make(rootView,
-                        getString(R.string.message_hint_revealed, cell.getRow() + 1, cell.getColumn() + 1, letter),
-                        Snackbar.LENGTH_SHORT)
-                        .show();
+        metrics.startEvent();
+        Trace.beginSection("MainActivity.provideHint");
+        try {
+            int cell = progress.nextHintCell(hintStrategy, gridView.getActiveSlot());
+            if (cell < 0) {
+                Snackbar.make(rootView, R.string.message_no_hints, Snackbar.LENGTH_SHORT).show();
                 return;
             }
+
+            char previous = board.getEntry(cell);
+            byte previousStatus = board.getStatus(cell);
+            char solution = board.getSolution(cell);
+            board.setEntry(cell, solution);
+            board.setStatus(cell, PuzzleBoard.STATUS_HINTED);
+            history.recordEdit(SolveHistory.EVENT_HINTED, cell, previous, previousStatus, solution,
+                    PuzzleBoard.STATUS_HINTED);
+            session.recordHint();
+            onEntryChanged(cell, previous);
+            queueSyncEdit(cell);
+            updateHistoryButtons();
+            Snackbar.make(rootView,
+                    getString(R.string.message_hint_revealed, board.getRow(cell) + 1, board.getColumn(cell) + 1,
+                            String.valueOf(solution)),
+                    Snackbar.LENGTH_SHORT)
+                    .show();
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    private void checkWord() {
+        int slot = gridView.getActiveSlot();
+        if (slot < 0) {
+            return;
+        }
+        metrics.startEvent();
+        Trace.beginSection("MainActivity.checkWord");
+        try {
+            progress.checkSlot(slot, invalidateCell);
+        } finally {
+            Trace.endSection();
         }
+    }
 
-        Snackbar.make(rootView, R.string.message_no_hints, Snackbar.LENGTH_SHORT).show();
+    private void revealWord() {
+        int slot = gridView.getActiveSlot();
+        if (slot < 0) {
+            return;
+        }
+        metrics.startEvent();
+        Trace.beginSection("MainActivity.revealWord");
+        try {
+            BoardTransaction transaction = session.beginTransaction();
+            SlotGrid slots = navigator.getSlots();
+            for (int p = 0; p < slots.getLength(slot); p++) {
+                revealCell(transaction, slots.getCell(slot, p));
+            }
+            commitTransaction(transaction);
+        } finally {
+            Trace.endSection();
+        }
     }
 
-    private void updateClueSolvedStates() {
-        updateClueList(puzzle.getAcrossClues());
-        updateClueList(puzzle.getDownClues());
+    private void revealPuzzle() {
+        metrics.startEvent();
+        Trace.beginSection("MainActivity.revealPuzzle");
+        try {
+            BoardTransaction transaction = session.beginTransaction();
+            for (int cell = 0; cell < board.getCellCount(); cell++) {
+                if (!board.isBlock(cell)) {
+                    revealCell(transaction, cell);
+                }
+            }
+            commitTransaction(transaction);
+            if (progress.isComplete()) {
+                Snackbar.make(rootView, R.string.message_puzzle_complete, Snackbar.LENGTH_LONG).show();
+            }
+        } finally {
+            Trace.endSection();
+        }
+    }
 
-        acrossAdapter.notifyProgressChanged();
-        downAdapter.notifyProgressChanged();
+    /**
+     * Reveals one cell as a hint unless it already holds its solution.
+     */
+    private void revealCell(@NonNull BoardTransaction transaction, int cell) {
+        if (!board.isCorrect(cell) && transaction.set(cell, board.getSolution(cell), PuzzleBoard.STATUS_HINTED,
+                SolveHistory.EVENT_HINTED)) {
+            session.recordHint();
+        }
     }
 
-    private void updateClueList(@NonNull List<CrosswordClue> clues) {
-        for (CrosswordClue clue : clues) {
-            boolean solved = true;
-            for (CrosswordClue.Position position : clue.getPositions()) {
-                CrosswordCell cell = puzzle.getGrid()[position.getRow()][position.getColumn()];
-                CrosswordGridAdapter.CellState state = cellStates.get(toIndex(cell.getRow(), cell.getColumn()));
-                char solution = Character.toUpperCase(cell.getSolution());
-                String value = state.getValue();
-                if (value == null || value.length() != 1 || value.charAt(0) != solution) {
-                    solved = false;
-                    break;
+    private void clearPuzzle() {
+        metrics.startEvent();
+        Trace.beginSection("MainActivity.clearPuzzle");
+        try {
+            BoardTransaction transaction = session.beginTransaction();
+            for (int cell = 0; cell < board.getCellCount(); cell++) {
+                if (!board.isBlock(cell) && !board.isEmpty(cell)) {
+                    transaction.set(cell, PuzzleBoard.EMPTY, PuzzleBoard.STATUS_DEFAULT, SolveHistory.EVENT_ERASED);
                 }
             }
-            clue.setSolved(solved);
+            commitTransaction(transaction);
+        } finally {
+            Trace.endSection();
+        }
+    }
+
+    private void clearWordMarks() {
+        int slot = gridView.getActiveSlot();
+        if (slot < 0) {
+            return;
+        }
+        SlotGrid slots = navigator.getSlots();
+        int[] cells = new int[slots.getLength(slot)];
+        for (int p = 0; p < cells.length; p++) {
+            cells[p] = slots.getCell(slot, p);
+            board.setMarks(cells[p], 0);
         }
+        gridView.invalidateCells(cells);
     }
 
-    private boolean areAllCellsSolved() {
-        for (CrosswordGridAdapter.CellState state : cellStates) {
-            CrosswordCell cell = state.getCell();
-            if (cell.isBlock()) {
-                continue;
+    private void clearRowMarks() {
+        int cell = gridView.getSelectedIndex();
+        if (cell < 0) {
+            return;
+        }
+        int row = board.getRow(cell);
+        board.clearRowMarks(row);
+        int[] cells = new int[board.getColumns()];
+        for (int column = 0; column < cells.length; column++) {
+            cells[column] = board.toIndex(row, column);
+        }
+        gridView.invalidateCells(cells);
+    }
+
+    private void undo() {
+        if (session != null && history.canUndo()) {
+            metrics.startEvent();
+            BoardTransaction transaction = session.beginTransaction();
+            int cell = transaction.undo();
+            commitTransaction(transaction);
+            gridView.setSelectedIndex(cell);
+        }
+    }
+
+    private void redo() {
+        if (session != null && history.canRedo()) {
+            metrics.startEvent();
+            BoardTransaction transaction = session.beginTransaction();
+            int cell = transaction.redo();
+            commitTransaction(transaction);
+            gridView.setSelectedIndex(cell);
+        }
+    }
+
+    /**
+     * Refreshes the grid, clues, sync queue and history buttons once for every cell a transaction
+     * changed, however many there were.
+     */
+    private void commitTransaction(@NonNull BoardTransaction transaction) {
+        transaction.commit();
+        int[] cells = transaction.getChangedCells();
+        if (candidateTracker != null) {
+            for (int cell : cells) {
+                candidateTracker.onEntryChanged(cell, invalidateCell);
+            }
+        }
+        gridView.invalidateCells(cells);
+        clueAdapter.notifyCluesChanged(transaction.getChangedClues(CrosswordClue.Direction.ACROSS),
+                transaction.getChangedClues(CrosswordClue.Direction.DOWN));
+        for (int cell : cells) {
+            queueSyncEdit(cell);
+        }
+        updateHistoryButtons();
+    }
+
+    /**
+     * Refreshes progress, the cell and its clues after the entry at {@code cell} changed from
+     * {@code previous}. Typed letters, hints and remote edits end up here; multi-cell edits and
+     * undo/redo go through {@link #commitTransaction}.
+     */
+    private void onEntryChanged(int cell, char previous) {
+        progress.onEntryChanged(cell, previous);
+        if (candidateTracker != null) {
+            candidateTracker.onEntryChanged(cell, invalidateCell);
+        }
+        gridView.invalidateCell(cell);
+        updateClueSolvedState(cell);
+    }
+
+    private void connectSync(@NonNull String host, int port) {
+        // A thread of its own: connecting can block for seconds, which would hold up the puzzle,
+        // clue measurement and saves queued on the preparer thread.
+        new Thread(() -> {
+            try {
+                TcpSyncTransport transport = TcpSyncTransport.connect(host, port);
+                runOnUiThread(() -> {
+                    if (isDestroyed()) {
+                        transport.close();
+                        return;
+                    }
+                    syncTransport = transport;
+                    transport.setReceiver(batch -> mainHandler.post(() -> receiveSyncBatch(batch)));
+                    startSyncSession();
+                });
+            } catch (IOException e) {
+                Log.w(TAG, "Could not connect to sync server " + host + ":" + port, e);
+                runOnUiThread(() -> Snackbar.make(rootView, R.string.message_sync_failed, Snackbar.LENGTH_LONG).show());
             }
-            char solution = Character.toUpperCase(cell.getSolution());
-            String value = state.getValue();
-            if (value == null || value.length() != 1 || value.charAt(0) != solution) {
-                return false;
+        }, "sync-connect").start();
+    }
+
+    /**
+     * Starts syncing the current puzzle once both it and the connection are ready, picking up the
+     * stamps from the last time this puzzle was synced and trading whole boards with the peers.
+     */
+    private void startSyncSession() {
+        if (syncTransport == null || board == null) {
+            syncSession = null;
+            return;
+        }
+        syncSession = new SyncSession(board, syncReplicaId, syncTransport, this::applyRemoteEdit);
+        byte[] stamps = syncStamps.getByteArray(Integer.toString(board.fingerprint()));
+        if (stamps != null) {
+            try {
+                syncSession.restoreState(stamps);
+            } catch (SyncFormatException e) {
+                Log.w(TAG, "Dropping saved sync stamps", e);
             }
         }
-        return true;
+        syncSession.join();
+        scheduleSyncFlush();
+    }
+
+    private void saveSyncState() {
+        if (syncSession != null) {
+            syncStamps.putByteArray(Integer.toString(board.fingerprint()), syncSession.saveState());
+        }
+    }
+
+    private void queueSyncEdit(int cell) {
+        if (syncSession == null) {
+            return;
+        }
+        syncSession.recordLocalEdit(cell, board.getEntry(cell), board.getStatus(cell));
+        scheduleSyncFlush();
     }
 
-    private int toIndex(int row, int column) {
-        return row * puzzle.getColumns() + column;
+    private void scheduleSyncFlush() {
+        if (!syncFlushScheduled) {
+            // Everything typed before the next frame goes out as one batch.
+            syncFlushScheduled = true;
+            Choreographer.getInstance().postFrameCallback(syncFlush);
+        }
+    }
+
+    private void flushSync() {
+        syncFlushScheduled = false;
+        if (syncSession == null) {
+            return;
+        }
+        try {
+            syncSession.flush();
+        } catch (IOException e) {
+            Log.w(TAG, "Could not send edits", e);
+        }
+    }
+
+    private void receiveSyncBatch(@NonNull byte[] batch) {
+        if (syncSession == null) {
+            return;
+        }
+        try {
+            syncSession.receive(batch);
+        } catch (SyncFormatException e) {
+            Log.w(TAG, "Dropping malformed sync batch", e);
+        }
+        // A peer that just joined asks for this player's board.
+        if (syncSession.hasPendingEdits()) {
+            scheduleSyncFlush();
+        }
+    }
+
+    /**
+     * Applies another player's edit like a local one, except that it is not added to the undo
+     * history or sent back out.
+     */
+    private void applyRemoteEdit(int cell, char entry, byte status) {
+        metrics.startEvent();
+        char previous = board.getEntry(cell);
+        board.setEntry(cell, entry);
+        board.setStatus(cell, status);
+        onEntryChanged(cell, previous);
+    }
+
+    private void updateHistoryButtons() {
+        // history still holds the outgoing puzzle's steps while the next one loads.
+        undoButton.setEnabled(session != null && history.canUndo());
+        redoButton.setEnabled(session != null && history.canRedo());
+    }
+
+    private void cycleHintStrategy() {
+        SolveProgressTracker.HintStrategy[] strategies = SolveProgressTracker.HintStrategy.values();
+        hintStrategy = strategies[(hintStrategy.ordinal() + 1) % strategies.length];
+        Snackbar.make(rootView, getString(R.string.message_hint_strategy,
+                        getResources().getStringArray(R.array.hint_strategies)[hintStrategy.ordinal()]),
+                Snackbar.LENGTH_SHORT)
+                .show();
+    }
+
+    private void updateClueSolvedState(int index) {
+        Trace.beginSection("MainActivity.updateClueSolvedState");
+        try {
+            int changed = clueTracker.setCellCorrect(index, board.isCorrect(index));
+            if ((changed & ClueProgressTracker.CHANGED_ACROSS) != 0) {
+                clueAdapter.notifyClueChanged(CrosswordClue.Direction.ACROSS, clueTracker.getAcrossClueIndex(index));
+            }
+            if ((changed & ClueProgressTracker.CHANGED_DOWN) != 0) {
+                clueAdapter.notifyClueChanged(CrosswordClue.Direction.DOWN, clueTracker.getDownClueIndex(index));
+            }
+        } finally {
+            Trace.endSection();
+        }
     }
 }
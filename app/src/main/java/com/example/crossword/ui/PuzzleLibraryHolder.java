@@ -0,0 +1,55 @@
+package com.example.crossword.ui;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.crossword.model.PuzzleCache;
+import com.example.crossword.model.PuzzleLibrary;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Process-wide access to the installed puzzle library, so its mapping and decoded-puzzle cache
+ * survive activity recreation.
+ */
+final class PuzzleLibraryHolder {
+
+    static final String FILE_NAME = "library.lib";
+
+    // Room for the current puzzle, its prefetched neighbour and a few recent ones at 21x21.
+    private static final int MAX_CACHED_CELLS = 8 * 21 * 21;
+
+    private static boolean opened;
+    private static PuzzleCache cache;
+
+    private PuzzleLibraryHolder() {
+        // Utility class.
+    }
+
+    /**
+     * Maps the library in {@code filesDir} on first use. Call off the main thread.
+     *
+     * @return the cache, or {@code null} if no library is installed
+     */
+    @Nullable
+    static synchronized PuzzleCache open(@NonNull File filesDir) throws IOException {
+        if (!opened) {
+            File file = new File(filesDir, FILE_NAME);
+            if (file.isFile()) {
+                cache = new PuzzleCache(PuzzleLibrary.open(file), MAX_CACHED_CELLS,
+                        PuzzlePreparer::runInBackground);
+            }
+            opened = true;
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the cache if {@link #open} already found a library.
+     */
+    @Nullable
+    static synchronized PuzzleCache peek() {
+        return cache;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.crossword.ui;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.crossword.model.CrosswordPuzzle;
+import com.example.crossword.model.PuzzleSession;
+import com.example.crossword.model.SolveStateStore;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads and prepares a puzzle on a background thread and hands the result to the main thread.
+ *
+ * <p>A preparer belongs to one activity instance; {@link #cancel()} must be called when that
+ * instance goes away so a stale result is never delivered to a destroyed UI.</p>
+ */
+public class PuzzlePreparer {
+
+    public interface Listener {
+        void onPuzzleReady(@NonNull PuzzleSession session);
+
+        void onPuzzleFailed(@NonNull Exception error);
+    }
+
+    private static final String TAG = "PuzzlePreparer";
+
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "puzzle-preparer");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private Future<?> pending;
+    // Bumped on every prepare/cancel so results of superseded requests are dropped.
+    private volatile int generation;
+
+    /**
+     * Runs {@code task} on the preparation thread, after any work already queued there.
+     */
+    public static void runInBackground(@NonNull Runnable task) {
+        EXECUTOR.execute(task);
+    }
+
+    /**
+     * Builds a session from {@code source} and restores saved progress into it, preferring
+     * {@code savedState} (from an instance-state bundle) over the copy in {@code store}.
+     */
+    public void prepare(@NonNull Callable<CrosswordPuzzle> source, @Nullable byte[] savedState,
+                        @Nullable SolveStateStore store, @NonNull Listener listener) {
+        cancel();
+        int requestGeneration = generation;
+        pending = EXECUTOR.submit(() -> {
+            PuzzleSession session;
+            try {
+                session = PuzzleSession.prepare(source.call());
+                restoreProgress(session, savedState, store);
+            } catch (Exception e) {
+                deliver(requestGeneration, () -> listener.onPuzzleFailed(e));
+                return;
+            }
+            deliver(requestGeneration, () -> listener.onPuzzleReady(session));
+        });
+    }
+
+    private static void restoreProgress(PuzzleSession session, @Nullable byte[] savedState,
+                                        @Nullable SolveStateStore store) {
+        byte[] state = savedState;
+        try {
+            if (state == null && store != null) {
+                state = store.read(session.getBoard().fingerprint());
+            }
+            if (state != null) {
+                session.restore(state);
+            }
+        } catch (IOException e) {
+            // A missing or unreadable save just means starting fresh.
+            Log.w(TAG, "Discarding saved progress", e);
+        }
+    }
+
+    private void deliver(int requestGeneration, Runnable result) {
+        if (requestGeneration != generation || Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        mainHandler.post(() -> {
+            if (requestGeneration == generation) {
+                result.run();
+            }
+        });
+    }
+
+    public void cancel() {
+        generation++;
+        if (pending != null) {
+            pending.cancel(true);
+            pending = null;
+        }
+        mainHandler.removeCallbacksAndMessages(null);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.crossword.ui;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Least-recently-used cache of grid tile bitmaps, keyed by tile id and bounded by their total
+ * size in bytes.
+ *
+ * <p>Tiles sit in an array indexed by id, and the recency order is a doubly linked list threaded
+ * through two id arrays, so looking a tile up, hit or miss, allocates nothing. An
+ * {@link android.util.LruCache} would box a key and walk a {@code LinkedHashMap} on every call,
+ * which adds up when every keystroke and frame looks tiles up.</p>
+ *
+ * <p>Evicted bitmaps are dropped, not recycled: one may still be referenced by a frame that is
+ * being drawn.</p>
+ */
+final class TileCache {
+    private static final int NONE = -1;
+
+    private final int maxBytes;
+    private Bitmap[] tiles = new Bitmap[0];
+    private int[] newer = new int[0];
+    private int[] older = new int[0];
+    private int newest = NONE;
+    private int oldest = NONE;
+    private int bytes;
+
+    TileCache(int maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Drops every tile and makes room for ids from 0 to {@code tileCount - 1}.
+     */
+    void reset(int tileCount) {
+        evictAll();
+        if (tiles.length < tileCount) {
+            tiles = new Bitmap[tileCount];
+            newer = new int[tileCount];
+            older = new int[tileCount];
+        }
+    }
+
+    /**
+     * Returns the tile with this id, marking it most recently used, or {@code null} if it is not
+     * cached.
+     */
+    @Nullable
+    Bitmap get(int id) {
+        Bitmap tile = tiles[id];
+        if (tile != null && id != newest) {
+            unlink(id);
+            linkNewest(id);
+        }
+        return tile;
+    }
+
+    /**
+     * Caches {@code tile} as the most recently used one, then evicts the least recently used tiles
+     * until the cache fits its budget, which may include this one.
+     */
+    void put(int id, @NonNull Bitmap tile) {
+        remove(id);
+        tiles[id] = tile;
+        bytes += tile.getByteCount();
+        linkNewest(id);
+        while (bytes > maxBytes && oldest != NONE) {
+            remove(oldest);
+        }
+    }
+
+    void evictAll() {
+        while (oldest != NONE) {
+            remove(oldest);
+        }
+    }
+
+    /**
+     * Returns the total size of the cached tiles in bytes.
+     */
+    int size() {
+        return bytes;
+    }
+
+    private void remove(int id) {
+        Bitmap tile = tiles[id];
+        if (tile == null) {
+            return;
+        }
+        unlink(id);
+        tiles[id] = null;
+        bytes -= tile.getByteCount();
+    }
+
+    private void linkNewest(int id) {
+        older[id] = newest;
+        newer[id] = NONE;
+        if (newest != NONE) {
+            newer[newest] = id;
+        } else {
+            oldest = id;
+        }
+        newest = id;
+    }
+
+    private void unlink(int id) {
+        int before = older[id];
+        int after = newer[id];
+        if (before != NONE) {
+            newer[before] = after;
+        } else {
+            oldest = after;
+        }
+        if (after != NONE) {
+            older[after] = before;
+        } else {
+            newest = before;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.crossword.ui;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.crossword.model.WordDictionary;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Process-wide access to the installed word dictionary, so it is mapped once per process.
+ */
+final class WordDictionaryHolder {
+
+    static final String FILE_NAME = "words.dict";
+
+    private static boolean opened;
+    private static WordDictionary dictionary;
+
+    private WordDictionaryHolder() {
+        // Utility class.
+    }
+
+    /**
+     * Maps the dictionary in {@code filesDir} on first use. Call off the main thread.
+     *
+     * @return the dictionary, or {@code null} if none is installed
+     */
+    @Nullable
+    static synchronized WordDictionary open(@NonNull File filesDir) throws IOException {
+        if (!opened) {
+            File file = new File(filesDir, FILE_NAME);
+            if (file.isFile()) {
+                dictionary = WordDictionary.open(file);
+            }
+            opened = true;
+        }
+        return dictionary;
+    }
+}
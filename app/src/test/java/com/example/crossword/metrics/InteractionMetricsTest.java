@@ -0,0 +1,133 @@
+package com.example.crossword.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+/**
+ * Drives {@link InteractionMetrics} with a fake clock, so every latency is known exactly.
+ */
+public class InteractionMetricsTest {
+    private static final long MS = 1_000_000;
+
+    private long now;
+    private InteractionMetrics metrics;
+
+    @Before
+    public void setUp() {
+        metrics = new InteractionMetrics(() -> now);
+        metrics.setEnabled(true);
+    }
+
+    @Test
+    public void recordsFirstBindAndFirstDrawOfEachEvent() {
+        metrics.startEvent();
+        now += 3 * MS;
+        metrics.onBind();
+        now += 2 * MS;
+        metrics.onBind();
+        metrics.onDraw();
+        now += 10 * MS;
+        metrics.onBind();
+        metrics.onDraw();
+        metrics.finishEvent();
+
+        assertNear(3 * MS, metrics.getInputToBind().getMaxValue());
+        assertNear(5 * MS, metrics.getInputToDraw().getMaxValue());
+        assertEquals(1, metrics.getInputToBind().getCount());
+        assertEquals(1, metrics.getInputToDraw().getCount());
+        assertEquals(3, metrics.getBindsPerEvent().getMaxValue());
+    }
+
+    @Test
+    public void startingAnEventEndsThePreviousOne() {
+        metrics.startEvent();
+        metrics.onBind();
+        metrics.startEvent();
+        now += MS;
+        metrics.onDraw();
+        metrics.finishEvent();
+
+        assertEquals(2, metrics.getBindsPerEvent().getCount());
+        assertEquals(0, metrics.getBindsPerEvent().getValueAtPercentile(50));
+        assertEquals(1, metrics.getBindsPerEvent().getMaxValue());
+        assertNear(MS, metrics.getInputToDraw().getMaxValue());
+    }
+
+    @Test
+    public void ignoresHooksOutsideAnEvent() {
+        metrics.onBind();
+        metrics.onDraw();
+        metrics.finishEvent();
+
+        assertEquals(0, metrics.getInputToBind().getCount());
+        assertEquals(0, metrics.getInputToDraw().getCount());
+        assertEquals(0, metrics.getBindsPerEvent().getCount());
+    }
+
+    @Test
+    public void disablingDropsTheEventInProgressButKeepsTheHistograms() {
+        metrics.startEvent();
+        now += MS;
+        metrics.onBind();
+        metrics.finishEvent();
+
+        metrics.startEvent();
+        metrics.setEnabled(false);
+        metrics.onBind();
+        metrics.onClueTextBound(false);
+        metrics.setEnabled(true);
+        metrics.finishEvent();
+
+        assertEquals(1, metrics.getInputToBind().getCount());
+        assertEquals(1, metrics.getBindsPerEvent().getCount());
+        assertEquals(0, metrics.getMeasuredClueTexts());
+    }
+
+    @Test
+    public void countsClueTextsAndResets() {
+        metrics.onClueTextBound(true);
+        metrics.onClueTextBound(true);
+        metrics.onClueTextBound(false);
+        assertEquals(2, metrics.getPrecomputedClueTexts());
+        assertEquals(1, metrics.getMeasuredClueTexts());
+
+        metrics.startEvent();
+        metrics.onBind();
+        metrics.finishEvent();
+        metrics.reset();
+
+        assertEquals(0, metrics.getPrecomputedClueTexts());
+        assertEquals(0, metrics.getMeasuredClueTexts());
+        assertEquals(0, metrics.getInputToBind().getCount());
+        assertEquals(0, metrics.getBindsPerEvent().getCount());
+    }
+
+    @Test
+    public void dumpsPercentilesInMilliseconds() {
+        for (int i = 1; i <= 100; i++) {
+            metrics.startEvent();
+            now += i * MS;
+            metrics.onDraw();
+        }
+        metrics.finishEvent();
+
+        StringWriter out = new StringWriter();
+        metrics.dump("  ", new PrintWriter(out));
+        String dump = out.toString();
+
+        assertTrue(dump, dump.startsWith("  Interaction metrics:"));
+        // 50 ms and 99 ms fall in buckets that end just above them.
+        assertTrue(dump, dump.contains("input to grid draw: n=100 p50=50.33ms p99=100.66ms max=100.66ms"));
+        assertTrue(dump, dump.contains("binds per event: n=100 p50=0 p99=0 max=0"));
+    }
+
+    private static void assertNear(long expected, long actual) {
+        assertTrue(actual + " for " + expected, actual >= expected && actual - expected <= expected / 16);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.crossword.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        assertEquals(0, histogram.getMaxValue());
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int value = 0; value < 32; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(32, histogram.getCount());
+        assertEquals(15, histogram.getValueAtPercentile(50));
+        assertEquals(0, histogram.getValueAtPercentile(0));
+        assertEquals(31, histogram.getValueAtPercentile(100));
+        assertEquals(31, histogram.getMaxValue());
+    }
+
+    @Test
+    public void bucketsRoundUpByLessThanASixteenth() {
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+            long reported = LatencyHistogram.highestValueIn(LatencyHistogram.bucketOf(value));
+            assertTrue(value + " reported as " + reported, reported >= value && reported - value <= value / 16);
+        }
+        long max = LatencyHistogram.highestValueIn(LatencyHistogram.bucketOf(Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, max);
+    }
+
+    @Test
+    public void percentilesMatchASortedCopy() {
+        Random random = new Random(2);
+        LatencyHistogram histogram = new LatencyHistogram();
+        long[] values = new long[10_000];
+        for (int i = 0; i < values.length; i++) {
+            // Roughly log-normal, like frame latencies: mostly a few ms, with a long tail.
+            values[i] = (long) (2_000_000 * Math.exp(random.nextGaussian()));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[]{1, 50, 90, 99, 99.9, 100}) {
+            long expected = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long actual = histogram.getValueAtPercentile(percentile);
+            assertTrue("p" + percentile + ": " + actual + " for " + expected,
+                    actual >= expected && actual - expected <= expected / 16);
+        }
+        assertEquals(histogram.getValueAtPercentile(100), histogram.getMaxValue());
+    }
+
+    @Test
+    public void negativeValuesCountAsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+
+        assertEquals(1, histogram.getCount());
+        assertEquals(0, histogram.getMaxValue());
+    }
+
+    @Test
+    public void resetClearsEveryBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(7);
+        histogram.record(Long.MAX_VALUE);
+
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxValue());
+    }
+}
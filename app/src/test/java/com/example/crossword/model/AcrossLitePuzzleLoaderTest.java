@@ -0,0 +1,105 @@
+package com.example.crossword.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Loads {@code unchecked.puz}, a 5x5 grid in which several letters belong to one entry only:
+ *
+ * <pre>
+ * C A B # D
+ * A # E # O
+ * R E D # G
+ * # # # # #
+ * H I # # #
+ * </pre>
+ */
+public class AcrossLitePuzzleLoaderTest {
+
+    @Test
+    public void numbersOnlyRunsOfTwoOrMoreCells() throws IOException {
+        CrosswordPuzzle puzzle = load(fixture());
+
+        assertEquals("Unchecked", puzzle.getTitle());
+        assertClues(puzzle.getAcrossClues(), new int[]{1, 4, 5}, "Taxi", "Stop-light color", "Greeting");
+        assertClues(puzzle.getDownClues(), new int[]{1, 2, 3}, "Motor vehicle", "Place to sleep", "Barker");
+
+        int[][] numbers = {
+                {1, 0, 2, 0, 3},
+                {0, 0, 0, 0, 0},
+                {4, 0, 0, 0, 0},
+                {0, 0, 0, 0, 0},
+                {5, 0, 0, 0, 0},
+        };
+        for (int r = 0; r < numbers.length; r++) {
+            for (int c = 0; c < numbers[r].length; c++) {
+                assertEquals("cell " + r + "," + c, numbers[r][c], puzzle.getGrid()[r][c].getNumber());
+            }
+        }
+    }
+
+    @Test
+    public void uncheckedCellsBelongToOneSlot() throws IOException {
+        CrosswordPuzzle puzzle = load(fixture());
+        GridNavigator navigator = GridNavigator.fromPuzzle(puzzle);
+        int columns = puzzle.getColumns();
+
+        // The A of CAB and the E of RED are checked across only.
+        assertEquals(0, navigator.getSlot(1, CrosswordClue.Direction.ACROSS));
+        assertEquals(-1, navigator.getSlot(1, CrosswordClue.Direction.DOWN));
+        assertEquals(-1, navigator.getSlot(2 * columns + 1, CrosswordClue.Direction.DOWN));
+        // The O of DOG is checked down only.
+        assertEquals(-1, navigator.getSlot(columns + 4, CrosswordClue.Direction.ACROSS));
+        assertEquals(5, navigator.getSlot(columns + 4, CrosswordClue.Direction.DOWN));
+        assertEquals(6, navigator.getSlots().getSlotCount());
+    }
+
+    @Test
+    public void rejectsTruncatedFile() throws IOException {
+        byte[] bytes = fixture();
+        for (int length : new int[]{0, AcrossLitePuzzleLoader.HEADER_LENGTH - 1, 60, bytes.length - 1}) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThrows("length " + length, PuzzleFormatException.class, () -> load(truncated));
+        }
+    }
+
+    @Test
+    public void rejectsCorruptedClue() throws IOException {
+        byte[] bytes = fixture();
+        // Ends with the final 'g' of "Greeting", its terminator and the empty notes' one.
+        bytes[bytes.length - 3]++;
+        assertThrows(PuzzleFormatException.class, () -> load(bytes));
+    }
+
+    private static void assertClues(List<CrosswordClue> clues, int[] numbers, String... texts) {
+        assertEquals(numbers.length, clues.size());
+        for (int i = 0; i < numbers.length; i++) {
+            assertEquals(numbers[i], clues.get(i).getNumber());
+            assertEquals(texts[i], clues.get(i).getText());
+        }
+    }
+
+    private static CrosswordPuzzle load(byte[] bytes) throws IOException {
+        return new AcrossLitePuzzleLoader().load(new ByteArrayInputStream(bytes));
+    }
+
+    private byte[] fixture() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("unchecked.puz")) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[512];
+            for (int count; (count = in.read(buffer)) > 0; ) {
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        }
+    }
+}
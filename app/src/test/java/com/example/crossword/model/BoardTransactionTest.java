@@ -0,0 +1,150 @@
+package com.example.crossword.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.example.crossword.testing.AllocationCounter;
+import com.example.crossword.testing.TestPuzzles;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class BoardTransactionTest {
+    private static final int ROUNDS = 10;
+
+    private PuzzleSession session;
+    private PuzzleBoard board;
+    private CrosswordPuzzle puzzle;
+
+    @Before
+    public void setUp() {
+        puzzle = TestPuzzles.puzzle(15, 1);
+        session = PuzzleSession.prepare(puzzle);
+        board = session.getBoard();
+    }
+
+    @Test
+    public void revealedPuzzleUndoesAsOneStepAndReportsEachClueOnce() {
+        String before = state();
+        BoardTransaction reveal = session.beginTransaction();
+        int open = 0;
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (!board.isBlock(cell)) {
+                assertTrue(reveal.set(cell, board.getSolution(cell), PuzzleBoard.STATUS_HINTED,
+                        SolveHistory.EVENT_HINTED));
+                open++;
+            }
+        }
+
+        assertEquals(open, reveal.commit());
+        assertEquals(open, reveal.getChangedCells().length);
+        // Every clue flips to solved, and each is listed once however many of its cells changed.
+        assertEachClueOnce(reveal.getChangedClues(CrosswordClue.Direction.ACROSS), puzzle.getAcrossClues().size());
+        assertEachClueOnce(reveal.getChangedClues(CrosswordClue.Direction.DOWN), puzzle.getDownClues().size());
+        assertTrue(session.getProgress().isComplete());
+
+        BoardTransaction undo = session.beginTransaction();
+        assertTrue(undo.undo() >= 0);
+        assertEquals(open, undo.commit());
+
+        assertEquals(before, state());
+        assertFalse(session.getHistory().canUndo());
+        assertEachClueOnce(undo.getChangedClues(CrosswordClue.Direction.ACROSS), puzzle.getAcrossClues().size());
+        assertEachClueOnce(undo.getChangedClues(CrosswordClue.Direction.DOWN), puzzle.getDownClues().size());
+        for (CrosswordClue clue : puzzle.getAcrossClues()) {
+            assertFalse(clue.isSolved());
+        }
+    }
+
+    @Test
+    public void reusedTransactionReportsOnlyItsOwnChanges() {
+        int first = openCell(0);
+        int second = openCell(1);
+        BoardTransaction transaction = session.beginTransaction();
+        transaction.set(first, 'A', PuzzleBoard.STATUS_DEFAULT, SolveHistory.EVENT_TYPED);
+        transaction.commit();
+
+        assertSame(transaction, session.beginTransaction());
+        // Setting a cell to what it already holds is not a change.
+        assertFalse(transaction.set(first, 'A', PuzzleBoard.STATUS_DEFAULT, SolveHistory.EVENT_TYPED));
+        transaction.set(second, 'B', PuzzleBoard.STATUS_DEFAULT, SolveHistory.EVENT_TYPED);
+        assertEquals(1, transaction.commit());
+
+        assertArrayEquals(new int[] {second}, transaction.getChangedCells());
+        assertEquals(2, session.getHistory().getEventCount());
+    }
+
+    @Test
+    public void committedTransactionRejectsFurtherUse() {
+        BoardTransaction transaction = session.beginTransaction();
+        transaction.commit();
+
+        assertThrows(IllegalStateException.class, transaction::commit);
+        assertThrows(IllegalStateException.class, transaction::undo);
+        assertThrows(IllegalStateException.class,
+                () -> transaction.set(openCell(0), 'A', PuzzleBoard.STATUS_DEFAULT, SolveHistory.EVENT_TYPED));
+    }
+
+    @Test
+    public void undoAndRedoAllocateNothingAfterWarmUp() {
+        int cell = openCell(0);
+        BoardTransaction edit = session.beginTransaction();
+        edit.set(cell, 'A', PuzzleBoard.STATUS_DEFAULT, SolveHistory.EVENT_TYPED);
+        edit.commit();
+        for (int i = 0; i < 20_000; i++) {
+            undoThenRedo();
+        }
+
+        // As in InputPathAllocationTest, the best round leaves out one-off JIT work.
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            best = Math.min(best, AllocationCounter.measure(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    undoThenRedo();
+                }
+            }));
+        }
+        assertEquals(0, best);
+        assertEquals('A', board.getEntry(cell));
+    }
+
+    private void undoThenRedo() {
+        BoardTransaction undo = session.beginTransaction();
+        undo.undo();
+        undo.commit();
+        BoardTransaction redo = session.beginTransaction();
+        redo.redo();
+        redo.commit();
+    }
+
+    private static void assertEachClueOnce(int[] clues, int count) {
+        int[] sorted = clues.clone();
+        Arrays.sort(sorted);
+        int[] expected = new int[count];
+        Arrays.setAll(expected, i -> i);
+        assertArrayEquals(expected, sorted);
+    }
+
+    private int openCell(int n) {
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (!board.isBlock(cell) && n-- == 0) {
+                return cell;
+            }
+        }
+        throw new IllegalArgumentException();
+    }
+
+    private String state() {
+        StringBuilder state = new StringBuilder();
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            state.append(board.getEntry(cell)).append(board.getStatus(cell));
+        }
+        return state.toString();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.crossword.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.crossword.testing.TestPuzzles;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.Random;
+
+public class CandidateTrackerTest {
+    private CrosswordPuzzle puzzle;
+    private WordDictionary dictionary;
+
+    @Before
+    public void setUp() throws IOException {
+        puzzle = TestPuzzles.puzzle(15, 1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new WordDictionaryWriter(TestPuzzles.words(puzzle, 3000, 1)).write(out);
+        dictionary = new WordDictionary(ByteBuffer.wrap(out.toByteArray()));
+    }
+
+    @Test
+    public void incrementalMasksMatchARebuild() {
+        PuzzleSession session = PuzzleSession.prepare(puzzle);
+        PuzzleBoard board = session.getBoard();
+        SlotGrid slots = session.getNavigator().getSlots();
+        CandidateTracker tracker = new CandidateTracker(board, slots, dictionary);
+
+        // Right letters, wrong letters and erasures, so candidates both narrow and widen.
+        Random random = new Random(1);
+        int[] before = new int[board.getCellCount()];
+        BitSet reported = new BitSet();
+        for (int edit = 1; edit <= 2000; edit++) {
+            int cell = random.nextInt(board.getCellCount());
+            if (board.isBlock(cell)) {
+                continue;
+            }
+            int kind = random.nextInt(4);
+            char entry = kind == 0 ? PuzzleBoard.EMPTY
+                    : kind == 1 ? (char) ('A' + random.nextInt(26)) : board.getSolution(cell);
+            for (int c = 0; c < before.length; c++) {
+                before[c] = tracker.getCandidates(c);
+            }
+            boolean changed = entry != board.getEntry(cell);
+            board.setEntry(cell, entry);
+            reported.clear();
+
+            assertEquals(changed, tracker.onEntryChanged(cell, reported::set));
+
+            for (int c = 0; c < before.length; c++) {
+                assertEquals("cell " + c + " reported after edit " + edit,
+                        before[c] != tracker.getCandidates(c), reported.get(c));
+            }
+            if (edit % 100 == 0) {
+                assertSameCandidates(new CandidateTracker(board, slots, dictionary), tracker, board);
+            }
+        }
+    }
+
+    @Test
+    public void refreshCatchesUpWithUntrackedEdits() {
+        PuzzleSession session = PuzzleSession.prepare(puzzle);
+        PuzzleBoard board = session.getBoard();
+        SlotGrid slots = session.getNavigator().getSlots();
+        CandidateTracker tracker = new CandidateTracker(board, slots, dictionary);
+        int edited = 0;
+        for (int cell = 0; cell < board.getCellCount(); cell += 3) {
+            if (!board.isBlock(cell)) {
+                board.setEntry(cell, board.getSolution(cell));
+                edited++;
+            }
+        }
+
+        assertEquals(edited, tracker.refresh());
+        assertSameCandidates(new CandidateTracker(board, slots, dictionary), tracker, board);
+        assertEquals(0, tracker.refresh());
+    }
+
+    @Test
+    public void theSolutionIsAlwaysACandidate() {
+        PuzzleSession session = PuzzleSession.prepare(puzzle);
+        PuzzleBoard board = session.getBoard();
+        CandidateTracker tracker = new CandidateTracker(board, session.getNavigator().getSlots(), dictionary);
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (!board.isBlock(cell)) {
+                board.setEntry(cell, board.getSolution(cell));
+                tracker.onEntryChanged(cell, null);
+            }
+        }
+
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (!board.isBlock(cell)) {
+                assertTrue("cell " + cell, (tracker.getCandidates(cell) & 1 << (board.getSolution(cell) - 'A')) != 0);
+                assertFalse(tracker.isImpossible(cell));
+            }
+        }
+    }
+
+    private static void assertSameCandidates(CandidateTracker expected, CandidateTracker actual, PuzzleBoard board) {
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            assertEquals("cell " + cell, expected.getCandidates(cell), actual.getCandidates(cell));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.crossword.model;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.crossword.testing.TestPuzzles;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+public class ClueProgressTrackerTest {
+
+    @Test
+    public void nextUnsolvedSlotMatchesAScanOfTheClues() {
+        CrosswordPuzzle puzzle = TestPuzzles.puzzle(15, 1);
+        PuzzleSession session = PuzzleSession.prepare(puzzle);
+        PuzzleBoard board = session.getBoard();
+        ClueProgressTracker tracker = session.getClueTracker();
+        GridNavigator navigator = session.getNavigator();
+        int slotCount = navigator.getSlots().getSlotCount();
+
+        Random random = new Random(1);
+        for (int edit = 0; edit < 5000; edit++) {
+            // Mostly right letters, so clues keep getting solved and unsolved again.
+            int cell = random.nextInt(board.getCellCount());
+            if (board.isBlock(cell)) {
+                continue;
+            }
+            board.setEntry(cell, random.nextInt(4) == 0 ? 'A' : board.getSolution(cell));
+            tracker.setCellCorrect(cell, board.isCorrect(cell));
+
+            int slot = random.nextInt(slotCount);
+            assertEquals("after edit " + edit + ", from slot " + slot,
+                    scanForUnsolved(navigator, slot), tracker.getNextUnsolvedSlot(slot));
+        }
+    }
+
+    @Test
+    public void nextUnsolvedSlotIsMinusOneOnceEveryOtherClueIsSolved() {
+        CrosswordPuzzle puzzle = TestPuzzles.puzzle(5, 2);
+        PuzzleSession session = PuzzleSession.prepare(puzzle);
+        PuzzleBoard board = session.getBoard();
+        ClueProgressTracker tracker = session.getClueTracker();
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (!board.isBlock(cell)) {
+                board.setEntry(cell, board.getSolution(cell));
+                tracker.setCellCorrect(cell, true);
+            }
+        }
+
+        assertEquals(-1, tracker.getNextUnsolvedSlot(0));
+
+        List<CrosswordClue.Position> positions = puzzle.getAcrossClues().get(0).getPositions();
+        int cell = board.toIndex(positions.get(0).getRow(), positions.get(0).getColumn());
+        tracker.setCellCorrect(cell, false);
+
+        // The first across clue and the down clue crossing it are unsolved again.
+        int down = session.getNavigator().getSlot(cell, CrosswordClue.Direction.DOWN);
+        assertEquals(down, tracker.getNextUnsolvedSlot(0));
+        assertEquals(0, tracker.getNextUnsolvedSlot(down));
+    }
+
+    @Test
+    public void withoutASlotTheSearchStartsAtTheFirstClue() {
+        CrosswordPuzzle puzzle = TestPuzzles.puzzle(5, 2);
+        PuzzleSession session = PuzzleSession.prepare(puzzle);
+        PuzzleBoard board = session.getBoard();
+        ClueProgressTracker tracker = session.getClueTracker();
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (!board.isBlock(cell)) {
+                board.setEntry(cell, board.getSolution(cell));
+                tracker.setCellCorrect(cell, true);
+            }
+        }
+        assertEquals(-1, tracker.getNextUnsolvedSlot(-1));
+
+        List<CrosswordClue.Position> positions = puzzle.getAcrossClues().get(0).getPositions();
+        int cell = board.toIndex(positions.get(0).getRow(), positions.get(0).getColumn());
+        tracker.setCellCorrect(cell, false);
+
+        // Slot 0 is unsolved again. Searching from it skips it; with no slot selected it comes first.
+        assertEquals(session.getNavigator().getSlot(cell, CrosswordClue.Direction.DOWN),
+                tracker.getNextUnsolvedSlot(0));
+        assertEquals(0, tracker.getNextUnsolvedSlot(-1));
+    }
+
+    private static int scanForUnsolved(GridNavigator navigator, int slot) {
+        int count = navigator.getSlots().getSlotCount();
+        for (int step = 1; step < count; step++) {
+            int candidate = (slot + step) % count;
+            if (!navigator.getClue(candidate).isSolved()) {
+                return candidate;
+            }
+        }
+        return -1;
+    }
+}
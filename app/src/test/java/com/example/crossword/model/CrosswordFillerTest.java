@@ -0,0 +1,173 @@
+package com.example.crossword.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.example.crossword.testing.TestPuzzles;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class CrosswordFillerTest {
+
+    @Test
+    public void fillUsesOnlyIndexWordsAndNoneTwice() {
+        for (long seed = 1; seed <= 5; seed++) {
+            CrosswordPuzzle solution = TestPuzzles.puzzle(15, seed);
+            List<String> words = TestPuzzles.words(solution, 5000, seed);
+            CrosswordFiller filler = new CrosswordFiller(WordIndex.build(words)).setSeed(seed);
+            char[] layout = open(TestPuzzles.layout(15, seed));
+
+            assertTrue(filler.fillLayout(15, 15, layout));
+
+            Set<String> dictionary = new HashSet<>(words);
+            Set<String> used = new HashSet<>();
+            for (String entry : entries(15, layout)) {
+                assertTrue("seed " + seed + ": " + entry + " is not in the index", dictionary.contains(entry));
+                assertTrue("seed " + seed + ": " + entry + " is used twice", used.add(entry));
+            }
+        }
+    }
+
+    @Test
+    public void presetLettersStayInPlace() {
+        char[] solution = TestPuzzles.layout(15, 1);
+        CrosswordFiller filler = new CrosswordFiller(
+                WordIndex.build(TestPuzzles.words(TestPuzzles.puzzle(15, 1), 5000, 1))).setSeed(2);
+        char[] layout = open(solution);
+        // Keep every seventh letter of the known solution.
+        for (int cell = 0; cell < layout.length; cell += 7) {
+            layout[cell] = solution[cell];
+        }
+        char[] template = layout.clone();
+
+        assertTrue(filler.fillLayout(15, 15, layout));
+
+        for (int cell = 0; cell < layout.length; cell++) {
+            if (template[cell] != CrosswordFiller.OPEN) {
+                assertEquals("cell " + cell, template[cell], layout[cell]);
+            } else {
+                assertTrue("cell " + cell, layout[cell] >= 'A' && layout[cell] <= 'Z');
+            }
+        }
+    }
+
+    @Test
+    public void failedFillLeavesTheLayoutUnchanged() {
+        // Two across entries but only one three-letter word.
+        CrosswordFiller filler = new CrosswordFiller(WordIndex.build(List.of("ABC", "AB", "BC", "CA")));
+        char[] layout = "A.....".toCharArray();
+        char[] before = layout.clone();
+
+        assertFalse(filler.fillLayout(2, 3, layout));
+        assertArrayEquals(before, layout);
+
+        // A preset letter that no word has fails before the search starts.
+        layout = "Z.....".toCharArray();
+        before = layout.clone();
+        assertFalse(filler.fillLayout(2, 3, layout));
+        assertArrayEquals(before, layout);
+        assertNull(filler.fill(null, new String[] {"Z..", "..."}, null));
+    }
+
+    @Test
+    public void uncheckedCellIsRejected() {
+        CrosswordFiller filler = new CrosswordFiller(WordIndex.build(List.of("AB", "ABC")));
+        // The first cell is alone across and down.
+        char[] layout = ".#.#...".toCharArray();
+
+        assertThrows(IllegalArgumentException.class, () -> filler.fillLayout(1, 7, layout));
+        assertThrows(IllegalArgumentException.class, () -> filler.fill(null, new String[] {".#..", "#..."}, null));
+        // Ragged rows are rejected the same way.
+        assertThrows(IllegalArgumentException.class, () -> filler.fill(null, new String[] {"..", "."}, null));
+    }
+
+    @Test
+    public void oneCellRunsAreNotClued() {
+        for (int size : new int[] {15, 21}) {
+            CrosswordPuzzle solution = TestPuzzles.puzzle(size, 1);
+            CrosswordFiller filler = new CrosswordFiller(WordIndex.build(TestPuzzles.words(solution, 2000, 3)))
+                    .setSeed(3);
+            List<String> clued = new ArrayList<>();
+
+            CrosswordPuzzle puzzle = filler.fill("Filled", template(size, 1),
+                    (answer, direction) -> {
+                        clued.add(answer);
+                        return answer;
+                    });
+
+            assertNotNull(puzzle);
+            for (String answer : clued) {
+                assertTrue(size + "x" + size + " clued \"" + answer + "\"", answer.length() >= 2);
+            }
+            List<CrosswordClue> clues = new ArrayList<>(puzzle.getAcrossClues());
+            clues.addAll(puzzle.getDownClues());
+            assertEquals(clued.size(), clues.size());
+            for (CrosswordClue clue : clues) {
+                assertTrue(clue.getNumber() + " " + clue.getDirection(), clue.getPositions().size() >= 2);
+                assertEquals(clue.getPositions().size(), clue.getText().length());
+            }
+        }
+    }
+
+    /**
+     * Returns every run of two or more cells in a filled square layout, across then down.
+     */
+    private static List<String> entries(int size, char[] layout) {
+        List<String> entries = new ArrayList<>();
+        StringBuilder run = new StringBuilder();
+        for (int pass = 0; pass < 2; pass++) {
+            for (int line = 0; line < size; line++) {
+                for (int k = 0; k <= size; k++) {
+                    char c = k == size ? PuzzleData.BLOCK
+                            : layout[pass == 0 ? line * size + k : k * size + line];
+                    if (c != PuzzleData.BLOCK) {
+                        run.append(c);
+                        continue;
+                    }
+                    if (run.length() >= 2) {
+                        entries.add(run.toString());
+                    }
+                    run.setLength(0);
+                }
+            }
+        }
+        return entries;
+    }
+
+    private static char[] open(char[] solution) {
+        char[] layout = solution.clone();
+        for (int cell = 0; cell < layout.length; cell++) {
+            if (layout[cell] != PuzzleData.BLOCK) {
+                layout[cell] = CrosswordFiller.OPEN;
+            }
+        }
+        return layout;
+    }
+
+    /**
+     * Returns the block pattern of {@link TestPuzzles#layout} with every other cell open.
+     */
+    static String[] template(int size, long seed) {
+        char[] layout = TestPuzzles.layout(size, seed);
+        String[] rows = new String[size];
+        for (int r = 0; r < size; r++) {
+            StringBuilder row = new StringBuilder(size);
+            for (int c = 0; c < size; c++) {
+                char cell = layout[r * size + c];
+                row.append(cell == PuzzleData.BLOCK ? PuzzleData.BLOCK : CrosswordFiller.OPEN);
+            }
+            rows[r] = row.toString();
+        }
+        return rows;
+    }
+}
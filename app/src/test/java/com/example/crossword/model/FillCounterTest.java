@@ -0,0 +1,82 @@
+package com.example.crossword.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.example.crossword.testing.TestPuzzles;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class FillCounterTest {
+    // A 2x3 grid: two across entries of three letters, three down entries of two.
+    private static final char[] TWO_BY_THREE = "ABCDEF".toCharArray();
+
+    private final ForkJoinPool single = new ForkJoinPool(1);
+    private final ForkJoinPool four = new ForkJoinPool(4);
+
+    @After
+    public void tearDown() {
+        single.shutdown();
+        four.shutdown();
+    }
+
+    @Test
+    public void gridWithOneFillIsUnique() {
+        // Swapping the rows would need DA, EB and FC down, which are not words.
+        WordIndex index = WordIndex.build(List.of("ABC", "DEF", "AD", "BE", "CF"));
+        FillCounter counter = new FillCounter(index, four);
+
+        assertEquals(1, counter.countFills(twoByThree(), 10));
+        assertTrue(counter.isUnique(twoByThree()));
+    }
+
+    @Test
+    public void gridWithTwoFillsStopsAtTheUniquenessLimit() {
+        WordIndex index = WordIndex.build(List.of("ABC", "DEF", "AD", "BE", "CF", "DA", "EB", "FC"));
+        FillCounter counter = new FillCounter(index, four);
+
+        assertEquals(FillCounter.UNIQUENESS_LIMIT, counter.countFills(twoByThree(), FillCounter.UNIQUENESS_LIMIT));
+        assertFalse(counter.isUnique(twoByThree()));
+        assertEquals(2, counter.countFills(twoByThree(), 10));
+    }
+
+    @Test
+    public void countIsTheSameOnOneAndFourThreads() {
+        // 2218 fills: enough branches for the four-thread pool to fork and steal.
+        CrosswordPuzzle puzzle = TestPuzzles.puzzle(5, 1);
+        WordIndex index = WordIndex.build(TestPuzzles.words(puzzle, 600, 2));
+        FillCounter sequential = new FillCounter(index, single);
+        FillCounter parallel = new FillCounter(index, four);
+
+        int expected = sequential.countFills(puzzle, Integer.MAX_VALUE);
+        assertTrue(expected > 1000);
+        for (int run = 0; run < 5; run++) {
+            assertEquals(expected, parallel.countFills(puzzle, Integer.MAX_VALUE));
+        }
+        assertEquals(100, sequential.countFills(puzzle, 100));
+        assertEquals(100, parallel.countFills(puzzle, 100));
+    }
+
+    @Test
+    public void uncheckedCellIsRejected() {
+        // Every open cell of this checkerboard is alone in both directions.
+        char[] layout = "A#B#C#D#E".toCharArray();
+        CrosswordPuzzle puzzle = PuzzleData.buildPuzzle("Unchecked", 3, 3, layout,
+                Collections.nCopies(9, "").iterator(), Collections.nCopies(9, "").iterator());
+        FillCounter counter = new FillCounter(WordIndex.build(List.of("AB")), single);
+
+        assertThrows(IllegalArgumentException.class, () -> counter.countFills(puzzle, 2));
+    }
+
+    private static CrosswordPuzzle twoByThree() {
+        return PuzzleData.buildPuzzle("2x3", 2, 3, TWO_BY_THREE,
+                Collections.nCopies(2, "").iterator(), Collections.nCopies(3, "").iterator());
+    }
+}
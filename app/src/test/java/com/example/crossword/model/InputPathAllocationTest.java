@@ -0,0 +1,133 @@
+package com.example.crossword.model;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.crossword.metrics.InteractionMetrics;
+import com.example.crossword.sync.LoopbackTransport;
+import com.example.crossword.sync.SyncSession;
+import com.example.crossword.testing.AllocationCounter;
+import com.example.crossword.testing.TestPuzzles;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs the model side of a keystroke the way the activity does, and checks that it allocates
+ * nothing once warmed up: the board, progress and clue trackers, smart-mode candidates, the undo
+ * log, the pending sync edit, the latency metrics and the cursor's advance.
+ */
+public class InputPathAllocationTest {
+    private static final int SIZE = 21;
+    private static final int KEYSTROKES = 1000;
+    // A deoptimization or a call site the JIT re-resolves can allocate a few hundred bytes once,
+    // in whichever round it lands. A per-keystroke allocation would show in every round.
+    private static final int ROUNDS = 10;
+    // The undo log grows by doubling. After this many edits its arrays have room for the measured
+    // ones too, so any allocation left would come from the per-keystroke path itself. Warming up
+    // in several calls lets the JIT compile type() as a whole, rather than only its loop.
+    private static final int WARM_UP_KEYSTROKES = 40_000;
+    private static final int WARM_UP_CALLS = 40;
+
+    private File dictionaryFile;
+    private PuzzleBoard board;
+    private GridNavigator navigator;
+    private SolveProgressTracker progress;
+    private ClueProgressTracker clueTracker;
+    private SolveHistory history;
+    private CandidateTracker candidates;
+    private SyncSession sync;
+    private InteractionMetrics metrics;
+    private int[] changedCells;
+    private int selected;
+    private CrosswordClue.Direction direction = CrosswordClue.Direction.ACROSS;
+
+    private final IntConsumer onCandidatesChanged = cell -> changedCells[cell]++;
+
+    @Before
+    public void setUp() throws IOException {
+        CrosswordPuzzle puzzle = TestPuzzles.puzzle(SIZE, 1);
+        PuzzleSession session = PuzzleSession.prepare(puzzle);
+        board = session.getBoard();
+        navigator = session.getNavigator();
+        progress = session.getProgress();
+        clueTracker = session.getClueTracker();
+        history = session.getHistory();
+
+        dictionaryFile = File.createTempFile("words", ".dict");
+        new WordDictionaryWriter(TestPuzzles.words(puzzle, 20_000, 1)).write(dictionaryFile);
+        candidates = new CandidateTracker(board, navigator.getSlots(), WordDictionary.open(dictionaryFile));
+
+        sync = new SyncSession(board, 1, new LoopbackTransport.Hub().connect(), (cell, entry, status) -> { });
+        metrics = new InteractionMetrics(System::nanoTime);
+        metrics.setEnabled(true);
+        changedCells = new int[board.getCellCount()];
+        selected = navigator.getEntryCell(board, 0);
+    }
+
+    @After
+    public void tearDown() {
+        dictionaryFile.delete();
+    }
+
+    @Test
+    public void keystrokesAllocateNothingAfterWarmUp() {
+        for (int i = 0; i < WARM_UP_CALLS; i++) {
+            type(WARM_UP_KEYSTROKES / WARM_UP_CALLS);
+        }
+
+        long fewest = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = AllocationCounter.allocatedBytes();
+            type(KEYSTROKES);
+            fewest = Math.min(fewest, AllocationCounter.allocatedBytes() - before);
+        }
+
+        assertEquals("bytes over " + KEYSTROKES + " keystrokes", 0, fewest);
+    }
+
+    /**
+     * Types {@code count} letters, a mix of right and wrong ones and erasures, moving the cursor
+     * like the grid does and turning at every fifth key.
+     */
+    private void type(int count) {
+        for (int k = 0; k < count; k++) {
+            metrics.startEvent();
+            int cell = selected;
+            int kind = k % 7;
+            char entry = kind == 0 ? PuzzleBoard.EMPTY
+                    : kind < 4 ? board.getSolution(cell) : (char) ('A' + k % 26);
+
+            char previous = board.getEntry(cell);
+            byte previousStatus = board.getStatus(cell);
+            board.setEntry(cell, entry);
+            if (previousStatus != PuzzleBoard.STATUS_HINTED) {
+                board.setStatus(cell, PuzzleBoard.STATUS_DEFAULT);
+            }
+            history.recordEdit(entry == PuzzleBoard.EMPTY ? SolveHistory.EVENT_ERASED : SolveHistory.EVENT_TYPED,
+                    cell, previous, previousStatus, board.getEntry(cell), board.getStatus(cell));
+            progress.onEntryChanged(cell, previous);
+            candidates.onEntryChanged(cell, onCandidatesChanged);
+            clueTracker.setCellCorrect(cell, board.isCorrect(cell));
+            sync.recordLocalEdit(cell, board.getEntry(cell), board.getStatus(cell));
+            metrics.onBind();
+            metrics.onDraw();
+
+            if (k % 5 == 4) {
+                CrosswordClue.Direction other = direction == CrosswordClue.Direction.ACROSS
+                        ? CrosswordClue.Direction.DOWN : CrosswordClue.Direction.ACROSS;
+                if (navigator.getSlot(cell, other) >= 0) {
+                    direction = other;
+                }
+            }
+            selected = navigator.advance(board, cell, direction);
+            if (selected == cell) {
+                selected = navigator.getNextCell(cell, direction);
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.crossword.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.crossword.testing.AllocationCounter;
+import com.example.crossword.testing.TestPuzzles;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compares {@link PuzzleBoard} with the per-cell objects it replaced: a {@code CellState} holding a
+ * {@code String} value and a status enum for every cell, plus the activity's {@code char[][]} copy
+ * of the entries. Both sit on top of the same loaded {@link CrosswordPuzzle}, which is left out of
+ * the counts.
+ */
+public class PuzzleBoardFootprintTest {
+    private static final int[] SIZES = {15, 21, 50};
+    private static final int KEYSTROKES = 10_000;
+    private static final int WARM_UP_ROUNDS = 5;
+
+    private Object retained;
+
+    @Test
+    public void filledBoardTakesAFractionOfTheCellObjects() {
+        for (int size : SIZES) {
+            CrosswordPuzzle puzzle = TestPuzzles.puzzle(size, size);
+            for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+                retained = fillLegacy(puzzle);
+                retained = fillBoard(puzzle);
+            }
+
+            long legacyBytes = AllocationCounter.measure(() -> retained = fillLegacy(puzzle));
+            long boardBytes = AllocationCounter.measure(() -> retained = fillBoard(puzzle));
+            assertTrue(size + "x" + size + ": " + boardBytes + " vs " + legacyBytes,
+                    boardBytes * 4 < legacyBytes);
+        }
+    }
+
+    @Test
+    public void typingAllocatesNothingOnTheBoard() {
+        for (int size : SIZES) {
+            CrosswordPuzzle puzzle = TestPuzzles.puzzle(size, size);
+            PuzzleBoard board = PuzzleBoard.fromPuzzle(puzzle);
+            int[] cells = openCells(board);
+            LegacyState legacy = new LegacyState(puzzle);
+            StringBuilder editable = new StringBuilder(1);
+
+            for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+                typeOnBoard(board, cells);
+                typeLegacy(legacy, cells, editable);
+            }
+
+            long before = AllocationCounter.allocatedBytes();
+            typeOnBoard(board, cells);
+            long boardBytes = AllocationCounter.allocatedBytes() - before;
+
+            before = AllocationCounter.allocatedBytes();
+            typeLegacy(legacy, cells, editable);
+            long legacyBytes = AllocationCounter.allocatedBytes() - before;
+
+            // The board path allocates nothing; the old one at least a String per keystroke.
+            assertEquals(size + "x" + size, 0, boardBytes);
+            assertTrue(size + "x" + size + ": " + legacyBytes + " bytes for " + KEYSTROKES + " keys",
+                    legacyBytes >= KEYSTROKES * 16L);
+        }
+    }
+
+    private static PuzzleBoard fillBoard(CrosswordPuzzle puzzle) {
+        PuzzleBoard board = PuzzleBoard.fromPuzzle(puzzle);
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (!board.isBlock(cell)) {
+                board.setEntry(cell, board.getSolution(cell));
+            }
+        }
+        return board;
+    }
+
+    private static LegacyState fillLegacy(CrosswordPuzzle puzzle) {
+        LegacyState legacy = new LegacyState(puzzle);
+        for (LegacyCell state : legacy.cells) {
+            if (!state.cell.isBlock()) {
+                char letter = Character.toUpperCase(state.cell.getSolution());
+                state.value = String.valueOf(letter);
+                legacy.userEntries[state.cell.getRow()][state.cell.getColumn()] = letter;
+            }
+        }
+        return legacy;
+    }
+
+    /** The board's input path: one normalized char per keystroke, statuses reset unless hinted. */
+    private static void typeOnBoard(PuzzleBoard board, int[] cells) {
+        for (int k = 0; k < KEYSTROKES; k++) {
+            int cell = cells[k % cells.length];
+            board.setEntry(cell, PuzzleBoard.normalize((char) ('a' + k % 26)));
+            if (board.getStatus(cell) != PuzzleBoard.STATUS_HINTED) {
+                board.setStatus(cell, PuzzleBoard.STATUS_DEFAULT);
+            }
+        }
+    }
+
+    /** The old text watcher and activity callback, fed the field's text as the IME leaves it. */
+    private static void typeLegacy(LegacyState legacy, int[] cells, StringBuilder editable) {
+        for (int k = 0; k < KEYSTROKES; k++) {
+            editable.setLength(0);
+            editable.append((char) ('a' + k % 26));
+            LegacyCell state = legacy.cells.get(cells[k % cells.length]);
+            String letter = editable.toString().trim().toUpperCase(Locale.ROOT);
+            state.value = letter;
+            if (state.status != LegacyStatus.HINTED) {
+                state.status = LegacyStatus.DEFAULT;
+            }
+            legacy.userEntries[state.cell.getRow()][state.cell.getColumn()] =
+                    letter.isEmpty() ? '\0' : letter.charAt(0);
+        }
+    }
+
+    private static int[] openCells(PuzzleBoard board) {
+        int count = 0;
+        int[] cells = new int[board.getCellCount()];
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (!board.isBlock(cell)) {
+                cells[count++] = cell;
+            }
+        }
+        return Arrays.copyOf(cells, count);
+    }
+
+    private enum LegacyStatus { DEFAULT, CORRECT, INCORRECT, HINTED }
+
+    private static final class LegacyCell {
+        final CrosswordCell cell;
+        String value;
+        LegacyStatus status = LegacyStatus.DEFAULT;
+
+        LegacyCell(CrosswordCell cell) {
+            this.cell = cell;
+        }
+    }
+
+    private static final class LegacyState {
+        final List<LegacyCell> cells;
+        final char[][] userEntries;
+
+        LegacyState(CrosswordPuzzle puzzle) {
+            cells = new ArrayList<>(puzzle.getRows() * puzzle.getColumns());
+            for (CrosswordCell[] row : puzzle.getGrid()) {
+                for (CrosswordCell cell : row) {
+                    cells.add(new LegacyCell(cell));
+                }
+            }
+            userEntries = new char[puzzle.getRows()][puzzle.getColumns()];
+        }
+    }
+}
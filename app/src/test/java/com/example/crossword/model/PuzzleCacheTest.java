@@ -0,0 +1,148 @@
+package com.example.crossword.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs a cache over a library of copies of the 5x5 {@code unchecked.puz}, with a prefetch executor
+ * that only queues its tasks, so each test decides whether a prefetch has run.
+ */
+public class PuzzleCacheTest {
+    private static final int CELLS = 5 * 5;
+    private static final int COUNT = 6;
+    // Position whose data is cut short, so decoding it fails.
+    private static final int CORRUPT = COUNT - 1;
+
+    private final List<Runnable> queued = new ArrayList<>();
+    private PuzzleLibrary library;
+
+    @Before
+    public void setUp() throws IOException {
+        byte[] puz = fixture();
+        PuzzleLibraryWriter writer = new PuzzleLibraryWriter();
+        for (int i = 0; i < COUNT; i++) {
+            byte[] data = i == CORRUPT ? Arrays.copyOf(puz, puz.length / 2) : puz;
+            writer.add(100 + i, "Puzzle " + i, 5, 5, 1, data);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(out);
+        library = new PuzzleLibrary(ByteBuffer.wrap(out.toByteArray()));
+    }
+
+    @Test
+    public void secondGetIsAHitForTheSamePuzzle() throws IOException {
+        PuzzleCache cache = new PuzzleCache(library, 10 * CELLS, queued::add);
+
+        CrosswordPuzzle first = cache.get(0);
+        CrosswordPuzzle second = cache.get(0);
+
+        assertSame(first, second);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void getPrefetchesTheNextPuzzle() throws IOException {
+        PuzzleCache cache = new PuzzleCache(library, 10 * CELLS, queued::add);
+
+        cache.get(0);
+        assertEquals(1, queued.size());
+        assertEquals(2, cache.size());
+
+        // The prefetch has not run yet, so get decodes on the calling thread and counts a hit.
+        CrosswordPuzzle next = cache.get(1);
+        assertEquals("Unchecked", next.getTitle());
+        assertEquals(1, cache.getHitCount());
+
+        // Running the queued task afterwards does not decode again.
+        queued.get(0).run();
+        assertSame(next, cache.get(1));
+    }
+
+    @Test
+    public void prefetchSkipsCachedAndOutOfRangePositions() throws IOException {
+        PuzzleCache cache = new PuzzleCache(library, 10 * CELLS, queued::add);
+        cache.get(0);
+        queued.clear();
+
+        cache.prefetch(0);
+        cache.prefetch(1);
+        cache.prefetch(-1);
+        cache.prefetch(COUNT);
+
+        assertEquals(0, queued.size());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedPastTheCellBound() throws IOException {
+        PuzzleCache cache = new PuzzleCache(library, 2 * CELLS, queued::add);
+
+        CrosswordPuzzle first = cache.get(0);
+        // Caching 2 and prefetching 3 pushes out 0 and the prefetched 1.
+        cache.get(2);
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getMissCount());
+
+        CrosswordPuzzle again = cache.get(0);
+        assertNotSame(first, again);
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    public void keepsTheNewestEntryEvenIfItAloneIsOverTheBound() throws IOException {
+        PuzzleCache cache = new PuzzleCache(library, CELLS - 1, queued::add);
+
+        cache.get(0);
+
+        // The prefetch of 1 came last, so it stays and 0 goes.
+        assertEquals(1, cache.size());
+        cache.get(1);
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void forgetsAFailedLoadSoItCanBeRetried() {
+        PuzzleCache cache = new PuzzleCache(library, 10 * CELLS, queued::add);
+
+        assertThrows(PuzzleFormatException.class, () -> cache.get(CORRUPT));
+        assertEquals(0, cache.size());
+        assertThrows(PuzzleFormatException.class, () -> cache.get(CORRUPT));
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void clearEmptiesTheCache() throws IOException {
+        PuzzleCache cache = new PuzzleCache(library, 10 * CELLS, queued::add);
+        cache.get(0);
+
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        cache.get(0);
+        assertEquals(2, cache.getMissCount());
+    }
+
+    private byte[] fixture() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("unchecked.puz")) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[512];
+            for (int count; (count = in.read(buffer)) > 0; ) {
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        }
+    }
+}
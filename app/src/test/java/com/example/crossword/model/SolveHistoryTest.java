@@ -0,0 +1,198 @@
+package com.example.crossword.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.example.crossword.testing.TestPuzzles;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class SolveHistoryTest {
+    private PuzzleBoard board;
+    private SolveHistory history;
+    private int[] openCells;
+
+    @Before
+    public void setUp() {
+        board = PuzzleBoard.fromPuzzle(TestPuzzles.puzzle(15, 1));
+        history = new SolveHistory();
+        List<Integer> open = new ArrayList<>();
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (!board.isBlock(cell)) {
+                open.add(cell);
+            }
+        }
+        openCells = open.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test
+    public void undoAndRedoRestoreEveryState() {
+        Random random = new Random(1);
+        int steps = 500;
+        List<String> states = new ArrayList<>();
+        states.add(state(board));
+        for (int i = 0; i < steps; i++) {
+            edit(openCells[random.nextInt(openCells.length)], randomEntry(random), randomStatus(random));
+            states.add(state(board));
+        }
+
+        for (int i = steps; i > 0; i--) {
+            assertTrue(history.canUndo());
+            history.undo(board);
+            assertEquals("after undoing to step " + (i - 1), states.get(i - 1), state(board));
+        }
+        assertFalse(history.canUndo());
+        assertEquals(-1, history.undo(board));
+
+        for (int i = 1; i <= steps; i++) {
+            assertTrue(history.canRedo());
+            history.redo(board);
+            assertEquals("after redoing to step " + i, states.get(i), state(board));
+        }
+        assertFalse(history.canRedo());
+        assertEquals(-1, history.redo(board));
+    }
+
+    @Test
+    public void undoReportsTheStepsFirstCellAndEachPreviousEntry() {
+        int first = openCells[0];
+        int second = openCells[1];
+        edit(first, 'A', PuzzleBoard.STATUS_DEFAULT);
+        edit(second, 'B', PuzzleBoard.STATUS_DEFAULT);
+
+        assertEquals(second, history.getUndoCell());
+        List<String> changes = new ArrayList<>();
+        assertEquals(second, history.undo(board, (cell, previous) -> changes.add(cell + ":" + previous)));
+        assertEquals(List.of(second + ":B"), changes);
+        assertEquals(second, history.getRedoCell());
+        assertEquals(first, history.getUndoCell());
+    }
+
+    @Test
+    public void groupUndoesAndRedoesAsOneStep() {
+        String before = state(board);
+        history.beginGroup();
+        for (int i = 0; i < 5; i++) {
+            edit(openCells[i], (char) ('A' + i), PuzzleBoard.STATUS_HINTED);
+        }
+        history.endGroup();
+        String after = state(board);
+
+        List<Integer> order = new ArrayList<>();
+        assertEquals(openCells[0], history.undo(board, (cell, previous) -> order.add(cell)));
+        assertEquals(before, state(board));
+        assertFalse(history.canUndo());
+        assertEquals(List.of(openCells[4], openCells[3], openCells[2], openCells[1], openCells[0]), order);
+
+        history.redo(board);
+        assertEquals(after, state(board));
+    }
+
+    @Test
+    public void emptyGroupAddsNoStep() {
+        history.beginGroup();
+        history.endGroup();
+
+        assertFalse(history.canUndo());
+        assertEquals(0, history.getEventCount());
+    }
+
+    @Test
+    public void groupsCannotNestOrHoldChecks() {
+        history.beginGroup();
+
+        assertThrows(IllegalStateException.class, history::beginGroup);
+        assertThrows(IllegalStateException.class, history::recordCheck);
+    }
+
+    @Test
+    public void newEditDropsRedo() {
+        edit(openCells[0], 'A', PuzzleBoard.STATUS_DEFAULT);
+        edit(openCells[1], 'B', PuzzleBoard.STATUS_DEFAULT);
+        history.undo(board);
+        assertTrue(history.canRedo());
+
+        edit(openCells[2], 'C', PuzzleBoard.STATUS_DEFAULT);
+
+        assertFalse(history.canRedo());
+        assertEquals(-1, history.getRedoCell());
+        assertEquals(PuzzleBoard.EMPTY, board.getEntry(openCells[1]));
+    }
+
+    @Test
+    public void replayReportsEditsUndoRedoAndChecksInOrder() {
+        int cell = openCells[0];
+        edit(cell, 'A', PuzzleBoard.STATUS_DEFAULT);
+        history.recordCheck();
+        history.undo(board);
+        history.redo(board);
+
+        List<String> events = new ArrayList<>();
+        history.replay((type, eventCell, previousEntry, entry, previousStatus, status) ->
+                events.add(type + " " + eventCell + " " + previousEntry + ">" + entry));
+
+        assertEquals(List.of(
+                SolveHistory.EVENT_TYPED + " " + cell + " " + PuzzleBoard.EMPTY + ">A",
+                SolveHistory.EVENT_CHECKED + " -1 " + PuzzleBoard.EMPTY + ">" + PuzzleBoard.EMPTY,
+                SolveHistory.EVENT_UNDONE + " " + cell + " A>" + PuzzleBoard.EMPTY,
+                SolveHistory.EVENT_REDONE + " " + cell + " " + PuzzleBoard.EMPTY + ">A"), events);
+    }
+
+    @Test
+    public void applyToRebuildsTheBoardFromTheLog() {
+        Random random = new Random(2);
+        for (int i = 0; i < 300; i++) {
+            int action = random.nextInt(10);
+            if (action == 0) {
+                history.undo(board);
+            } else if (action == 1) {
+                history.redo(board);
+            } else if (action == 2) {
+                history.beginGroup();
+                for (int k = 0; k < 4; k++) {
+                    edit(openCells[random.nextInt(openCells.length)], randomEntry(random), randomStatus(random));
+                }
+                history.endGroup();
+            } else {
+                edit(openCells[random.nextInt(openCells.length)], randomEntry(random), randomStatus(random));
+            }
+        }
+
+        PuzzleBoard replayed = PuzzleBoard.fromPuzzle(TestPuzzles.puzzle(15, 1));
+        history.applyTo(replayed);
+
+        assertEquals(state(board), state(replayed));
+    }
+
+    private void edit(int cell, char entry, byte status) {
+        char previous = board.getEntry(cell);
+        byte previousStatus = board.getStatus(cell);
+        board.setEntry(cell, entry);
+        board.setStatus(cell, status);
+        history.recordEdit(entry == PuzzleBoard.EMPTY ? SolveHistory.EVENT_ERASED : SolveHistory.EVENT_TYPED,
+                cell, previous, previousStatus, entry, status);
+    }
+
+    private static char randomEntry(Random random) {
+        return random.nextInt(5) == 0 ? PuzzleBoard.EMPTY : (char) ('A' + random.nextInt(26));
+    }
+
+    private static byte randomStatus(Random random) {
+        return (byte) random.nextInt(4);
+    }
+
+    private static String state(PuzzleBoard board) {
+        StringBuilder state = new StringBuilder();
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            state.append(board.getEntry(cell)).append(board.getStatus(cell));
+        }
+        return state.toString();
+    }
+}
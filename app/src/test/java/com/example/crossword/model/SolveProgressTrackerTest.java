@@ -0,0 +1,227 @@
+package com.example.crossword.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.example.crossword.testing.TestPuzzles;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class SolveProgressTrackerTest {
+    private PuzzleBoard board;
+    private SlotGrid slots;
+    private SolveProgressTracker progress;
+
+    @Before
+    public void setUp() {
+        PuzzleSession session = PuzzleSession.prepare(TestPuzzles.puzzle(15, 1));
+        board = session.getBoard();
+        slots = session.getNavigator().getSlots();
+        progress = session.getProgress();
+    }
+
+    @Test
+    public void countersAndHintsMatchAScanOfTheBoard() {
+        Random random = new Random(1);
+        for (int edit = 0; edit < 5000; edit++) {
+            int cell = random.nextInt(board.getCellCount());
+            if (board.isBlock(cell)) {
+                continue;
+            }
+            // Mostly right letters, so cells keep getting resolved and unresolved again.
+            int kind = random.nextInt(4);
+            set(cell, kind == 0 ? PuzzleBoard.EMPTY
+                    : kind == 1 ? (char) ('A' + random.nextInt(26)) : board.getSolution(cell));
+
+            String at = "after edit " + edit;
+            int correct = 0;
+            int empty = 0;
+            for (int c = 0; c < board.getCellCount(); c++) {
+                if (!board.isBlock(c)) {
+                    correct += board.isCorrect(c) ? 1 : 0;
+                    empty += board.isEmpty(c) ? 1 : 0;
+                }
+            }
+            assertEquals(at, correct, progress.getCorrectCount());
+            assertEquals(at, empty, progress.getEmptyCount());
+            assertEquals(at, progress.getOpenCount() - correct - empty, progress.getIncorrectCount());
+            assertEquals(at, correct == progress.getOpenCount(), progress.isComplete());
+
+            assertEquals(at, firstInReadingOrder(),
+                    progress.nextHintCell(SolveProgressTracker.HintStrategy.READING_ORDER, -1));
+            assertEquals(at, mostCrossed(),
+                    progress.nextHintCell(SolveProgressTracker.HintStrategy.MOST_CROSSED, -1));
+            int slot = random.nextInt(slots.getSlotCount());
+            assertEquals(at + ", slot " + slot, firstInSlot(slot),
+                    progress.nextHintCell(SolveProgressTracker.HintStrategy.ACTIVE_CLUE, slot));
+        }
+    }
+
+    @Test
+    public void orderedHintsMoveBackWhenAnEarlierCellIsUnresolvedAgain() {
+        int first = firstInReadingOrder();
+        set(first, board.getSolution(first));
+        int second = firstInReadingOrder();
+        assertTrue(second > first);
+        assertEquals(second, progress.nextHintCell(SolveProgressTracker.HintStrategy.READING_ORDER, -1));
+
+        set(first, PuzzleBoard.EMPTY);
+
+        assertEquals(first, progress.nextHintCell(SolveProgressTracker.HintStrategy.READING_ORDER, -1));
+    }
+
+    @Test
+    public void randomHintsPickOnlyUnresolvedCells() {
+        for (int cell = 0; cell < board.getCellCount(); cell += 2) {
+            if (!board.isBlock(cell)) {
+                set(cell, board.getSolution(cell));
+            }
+        }
+        Set<Integer> picked = new HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            int cell = progress.nextHintCell(SolveProgressTracker.HintStrategy.RANDOM, -1);
+            assertFalse("cell " + cell, board.isCorrect(cell));
+            picked.add(cell);
+        }
+        assertTrue(picked.size() > 1);
+    }
+
+    @Test
+    public void everyStrategyReturnsMinusOneOnceSolved() {
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (!board.isBlock(cell)) {
+                set(cell, board.getSolution(cell));
+            }
+        }
+
+        assertTrue(progress.isComplete());
+        for (SolveProgressTracker.HintStrategy strategy : SolveProgressTracker.HintStrategy.values()) {
+            assertEquals(strategy.name(), -1, progress.nextHintCell(strategy, 0));
+        }
+    }
+
+    @Test
+    public void checkVisitsOnlyCellsEditedSinceTheLastCheck() {
+        int right = openCell(0);
+        int wrong = openCell(1);
+        int hinted = openCell(2);
+        set(right, board.getSolution(right));
+        set(wrong, wrongLetter(wrong));
+        set(hinted, board.getSolution(hinted));
+        board.setStatus(hinted, PuzzleBoard.STATUS_HINTED);
+
+        List<Integer> changed = new ArrayList<>();
+        progress.check(changed::add);
+
+        assertEquals(List.of(right, wrong), changed);
+        assertEquals(PuzzleBoard.STATUS_CORRECT, board.getStatus(right));
+        assertEquals(PuzzleBoard.STATUS_INCORRECT, board.getStatus(wrong));
+        assertEquals(PuzzleBoard.STATUS_HINTED, board.getStatus(hinted));
+
+        // Nothing was edited since, so nothing is visited, even a cell changed behind its back.
+        board.setStatus(right, PuzzleBoard.STATUS_DEFAULT);
+        changed.clear();
+        progress.check(changed::add);
+        assertEquals(List.of(), changed);
+
+        set(wrong, PuzzleBoard.EMPTY);
+        progress.check(changed::add);
+        assertEquals(List.of(wrong), changed);
+        assertEquals(PuzzleBoard.STATUS_DEFAULT, board.getStatus(wrong));
+    }
+
+    @Test
+    public void checkSlotVisitsEveryCellOfTheEntry() {
+        int slot = 0;
+        for (int p = 0; p < slots.getLength(slot); p++) {
+            int cell = slots.getCell(slot, p);
+            set(cell, board.getSolution(cell));
+        }
+        progress.check(cell -> { });
+        int cell = slots.getCell(slot, 0);
+        board.setStatus(cell, PuzzleBoard.STATUS_DEFAULT);
+
+        List<Integer> changed = new ArrayList<>();
+        progress.checkSlot(slot, changed::add);
+
+        assertEquals(List.of(cell), changed);
+        assertEquals(PuzzleBoard.STATUS_CORRECT, board.getStatus(cell));
+    }
+
+    @Test
+    public void rebuildQueuesEveryFilledCell() {
+        int cell = openCell(0);
+        board.setEntry(cell, wrongLetter(cell));
+
+        progress.rebuild();
+
+        assertEquals(1, progress.getIncorrectCount());
+        List<Integer> changed = new ArrayList<>();
+        progress.check(changed::add);
+        assertEquals(List.of(cell), changed);
+    }
+
+    private void set(int cell, char entry) {
+        char previous = board.getEntry(cell);
+        board.setEntry(cell, entry);
+        progress.onEntryChanged(cell, previous);
+    }
+
+    private char wrongLetter(int cell) {
+        return board.getSolution(cell) == 'A' ? 'B' : 'A';
+    }
+
+    private int openCell(int n) {
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (!board.isBlock(cell) && n-- == 0) {
+                return cell;
+            }
+        }
+        throw new IllegalArgumentException();
+    }
+
+    private int firstInReadingOrder() {
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (!board.isBlock(cell) && !board.isCorrect(cell)) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    private int firstInSlot(int slot) {
+        for (int p = 0; p < slots.getLength(slot); p++) {
+            int cell = slots.getCell(slot, p);
+            if (!board.isCorrect(cell)) {
+                return cell;
+            }
+        }
+        return firstInReadingOrder();
+    }
+
+    private int mostCrossed() {
+        int best = -1;
+        int bestWeight = -1;
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (board.isBlock(cell) || board.isCorrect(cell)) {
+                continue;
+            }
+            int across = slots.getAcrossSlot(cell);
+            int down = slots.getDownSlot(cell);
+            int weight = (across < 0 ? 0 : slots.getLength(across)) + (down < 0 ? 0 : slots.getLength(down));
+            if (weight > bestWeight) {
+                best = cell;
+                bestWeight = weight;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.crossword.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.example.crossword.testing.TestPuzzles;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class SolveStateCodecTest {
+    private static final int ROUND_TRIPS = 5000;
+    private static final int MAX_SIZE = 25;
+
+    private final CrosswordPuzzle[] puzzles = new CrosswordPuzzle[MAX_SIZE + 1];
+
+    @Test
+    public void roundTripsRandomStates() throws PuzzleFormatException {
+        Random random = new Random(1);
+        for (int i = 0; i < ROUND_TRIPS; i++) {
+            int size = 1 + random.nextInt(MAX_SIZE);
+            PuzzleBoard board = randomBoard(size, random);
+            int hintCount = random.nextInt(4) == 0 ? random.nextInt(Integer.MAX_VALUE) : random.nextInt(20);
+            long elapsedMillis = random.nextInt(4) == 0 ? random.nextLong() >>> 1 : random.nextInt(10_000_000);
+
+            byte[] data = SolveStateCodec.encode(board, hintCount, elapsedMillis);
+            PuzzleBoard restored = randomBoard(size, random);
+            SolveStateCodec.Snapshot snapshot = SolveStateCodec.decode(data, restored);
+
+            assertSameState("round trip " + i, board, restored);
+            assertEquals(hintCount, snapshot.getHintCount());
+            assertEquals(elapsedMillis, snapshot.getElapsedMillis());
+        }
+    }
+
+    @Test
+    public void fitsAnUnmarkedGridInUnder400Bytes() {
+        PuzzleBoard board = randomBoard(21, new Random(2));
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            board.setMarks(cell, 0);
+        }
+        byte[] data = SolveStateCodec.encode(board, 3, 3_600_000L);
+        assertTrue(data.length + " bytes", data.length < 400);
+    }
+
+    @Test
+    public void decodesVersion1WithoutMarks() throws PuzzleFormatException {
+        Random random = new Random(3);
+        for (int size = 1; size <= MAX_SIZE; size++) {
+            PuzzleBoard board = randomBoard(size, random);
+            for (int cell = 0; cell < board.getCellCount(); cell++) {
+                board.setMarks(cell, 0);
+            }
+            byte[] data = encodeVersion1(board, 7, 123_456L);
+
+            PuzzleBoard restored = randomBoard(size, random);
+            SolveStateCodec.Snapshot snapshot = SolveStateCodec.decode(data, restored);
+
+            assertSameState("version 1, " + size + "x" + size, board, restored);
+            assertEquals(7, snapshot.getHintCount());
+            assertEquals(123_456L, snapshot.getElapsedMillis());
+        }
+    }
+
+    @Test
+    public void rejectsTruncationAtEveryLength() {
+        Random random = new Random(4);
+        for (int size : new int[]{1, 5, 15, 21}) {
+            byte[] data = SolveStateCodec.encode(randomBoard(size, random), 300, 1L << 40);
+            byte[] v1 = encodeVersion1(randomBoard(size, random), 300, 1L << 40);
+            for (byte[] encoded : new byte[][]{data, v1}) {
+                for (int length = 0; length < encoded.length; length++) {
+                    assertRejected(size + "x" + size + " cut to " + length,
+                            Arrays.copyOf(encoded, length), randomBoard(size, random));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void rejectsCorruptHeaders() {
+        Random random = new Random(5);
+        byte[] data = SolveStateCodec.encode(randomBoard(15, random), 1, 1000);
+
+        byte[] badMagic = data.clone();
+        badMagic[1] = 'X';
+        assertRejected("magic", badMagic, randomBoard(15, random));
+
+        for (byte version : new byte[]{0, 3, -1}) {
+            byte[] badVersion = data.clone();
+            badVersion[2] = version;
+            assertRejected("version " + version, badVersion, randomBoard(15, random));
+        }
+
+        // Same size, different solution letters.
+        PuzzleBoard other = PuzzleBoard.fromPuzzle(TestPuzzles.puzzle(15, 99));
+        assertRejected("fingerprint", data, other);
+
+        byte[] longVarint = Arrays.copyOf(data, 7 + 11);
+        Arrays.fill(longVarint, 7, longVarint.length, (byte) 0xFF);
+        assertRejected("varint", longVarint, randomBoard(15, random));
+    }
+
+    @Test
+    public void rejectsInvalidLetterWithoutTouchingTheBoard() {
+        Random random = new Random(6);
+        PuzzleBoard board = randomBoard(15, random);
+        byte[] data = SolveStateCodec.encode(board, 0, 0);
+        // With no hints and no time, the letters start right after the two one-byte varints. Put
+        // letter code 31 in the last open cell so every earlier cell would have been restored.
+        int openCells = 0;
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (!board.isBlock(cell)) {
+                openCells++;
+            }
+        }
+        long bit = 9 * 8 + (openCells - 1) * 5L;
+        for (int i = 0; i < 5; i++, bit++) {
+            data[(int) (bit >>> 3)] |= (byte) (0x80 >>> (bit & 7));
+        }
+        assertRejected("letter", data, randomBoard(15, random));
+    }
+
+    private static void assertRejected(String message, byte[] data, PuzzleBoard board) {
+        PuzzleBoard before = copy(board);
+        assertThrows(message, PuzzleFormatException.class, () -> SolveStateCodec.decode(data, board));
+        assertSameState(message + " left the board", before, board);
+    }
+
+    private PuzzleBoard randomBoard(int size, Random random) {
+        if (puzzles[size] == null) {
+            puzzles[size] = TestPuzzles.puzzle(size, size);
+        }
+        PuzzleBoard board = PuzzleBoard.fromPuzzle(puzzles[size]);
+        int style = random.nextInt(4);
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (board.isBlock(cell)) {
+                continue;
+            }
+            if (style > 0 && random.nextBoolean()) {
+                board.setEntry(cell, (char) ('A' + random.nextInt(26)));
+            }
+            board.setStatus(cell, style > 0 ? (byte) random.nextInt(4) : PuzzleBoard.STATUS_DEFAULT);
+            int kind = style < 2 ? 0 : random.nextInt(5);
+            board.setMarks(cell, kind == 1 ? random.nextInt(PuzzleBoard.ALL_MARKS + 1)
+                    : kind == 2 ? PuzzleBoard.ALL_MARKS : kind == 3 ? 1 : 0);
+        }
+        return board;
+    }
+
+    private static PuzzleBoard copy(PuzzleBoard board) {
+        PuzzleBoard copy = PuzzleBoard.fromPuzzle(TestPuzzles.build(board.getRows(), solutionLayout(board)));
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (!board.isBlock(cell)) {
+                copy.setEntry(cell, board.getEntry(cell));
+                copy.setStatus(cell, board.getStatus(cell));
+                copy.setMarks(cell, board.getMarks(cell));
+            }
+        }
+        return copy;
+    }
+
+    private static char[] solutionLayout(PuzzleBoard board) {
+        char[] layout = new char[board.getCellCount()];
+        for (int cell = 0; cell < layout.length; cell++) {
+            layout[cell] = board.isBlock(cell) ? PuzzleData.BLOCK : board.getSolution(cell);
+        }
+        return layout;
+    }
+
+    private static void assertSameState(String message, PuzzleBoard expected, PuzzleBoard actual) {
+        assertEquals(message, expected.getCellCount(), actual.getCellCount());
+        for (int cell = 0; cell < expected.getCellCount(); cell++) {
+            assertEquals(message + ", entry " + cell, expected.getEntry(cell), actual.getEntry(cell));
+            assertEquals(message + ", status " + cell, expected.getStatus(cell), actual.getStatus(cell));
+            assertEquals(message + ", marks " + cell, expected.getMarks(cell), actual.getMarks(cell));
+        }
+    }
+
+    /**
+     * Writes the version 1 layout from scratch: the version 2 one without the pencil marks.
+     */
+    private static byte[] encodeVersion1(PuzzleBoard board, int hintCount, long elapsedMillis) {
+        StringBuilder bits = new StringBuilder();
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (!board.isBlock(cell)) {
+                char entry = board.getEntry(cell);
+                appendBits(bits, entry == PuzzleBoard.EMPTY ? 0 : entry - 'A' + 1, 5);
+            }
+        }
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (!board.isBlock(cell)) {
+                appendBits(bits, board.getStatus(cell), 2);
+            }
+        }
+
+        byte[] header = new byte[32];
+        header[0] = 'C';
+        header[1] = 'S';
+        header[2] = 1;
+        int fingerprint = board.fingerprint();
+        for (int i = 0; i < 4; i++) {
+            header[3 + i] = (byte) (fingerprint >>> (24 - 8 * i));
+        }
+        int position = 7;
+        for (long value : new long[]{hintCount, elapsedMillis}) {
+            while ((value & ~0x7FL) != 0) {
+                header[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            header[position++] = (byte) value;
+        }
+
+        byte[] data = Arrays.copyOf(header, position + (bits.length() + 7) / 8);
+        for (int i = 0; i < bits.length(); i++) {
+            if (bits.charAt(i) == '1') {
+                data[position + i / 8] |= (byte) (0x80 >>> (i % 8));
+            }
+        }
+        return data;
+    }
+
+    private static void appendBits(StringBuilder bits, int value, int count) {
+        for (int i = count - 1; i >= 0; i--) {
+            bits.append((value >>> i) & 1);
+        }
+    }
+}
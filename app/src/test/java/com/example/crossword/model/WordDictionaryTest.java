@@ -0,0 +1,215 @@
+package com.example.crossword.model;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Checks the mapped dictionary against the {@link WordIndex} it was written from, since both keep
+ * their own copy of the per-letter bitset logic.
+ */
+public class WordDictionaryTest {
+    private static final int MAX_LENGTH = 9;
+
+    private final List<String> words = new ArrayList<>();
+    private WordIndex index;
+    private byte[] bytes;
+    private WordDictionary dictionary;
+
+    @Before
+    public void setUp() throws IOException {
+        Random random = new Random(1);
+        // Mostly from a small alphabet, so patterns match a lot of words, in buckets of several longs.
+        for (int i = 0; i < 5000; i++) {
+            int length = 2 + random.nextInt(MAX_LENGTH - 1);
+            char[] word = new char[length];
+            for (int p = 0; p < length; p++) {
+                word[p] = (char) ('A' + (random.nextInt(4) == 0 ? random.nextInt(26) : random.nextInt(5)));
+            }
+            words.add(new String(word));
+        }
+        // Dropped by the writer: a duplicate in lower case, and a word that is not all letters.
+        words.add(words.get(0).toLowerCase());
+        words.add("NO-GO");
+        index = WordIndex.build(words);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new WordDictionaryWriter(words).write(out);
+        bytes = out.toByteArray();
+        dictionary = new WordDictionary(ByteBuffer.wrap(bytes));
+    }
+
+    @Test
+    public void fileRoundTripKeepsEveryWord() throws IOException {
+        File file = File.createTempFile("words", ".dict");
+        try {
+            new WordDictionaryWriter(words).write(file);
+            WordDictionary opened = WordDictionary.open(file);
+
+            assertEquals(MAX_LENGTH, opened.getMaxLength());
+            for (int length = 1; length <= MAX_LENGTH; length++) {
+                assertEquals(index.getWordCount(length), opened.getWordCount(length));
+                assertEquals(index.getMaskWords(length), opened.getMaskWords(length));
+                for (int id = 0; id < index.getWordCount(length); id++) {
+                    assertEquals(index.getWord(length, id), opened.getWord(length, id));
+                }
+            }
+            assertEquals(0, opened.getWordCount(MAX_LENGTH + 1));
+            assertEquals(new TreeSet<>(upperCaseLetterWords()).size(), totalWords(opened));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void bitsetsMatchTheWordIndex() {
+        Random random = new Random(2);
+        for (int length = 2; length <= MAX_LENGTH; length++) {
+            int longs = index.getMaskWords(length);
+            long[] expected = new long[longs];
+            long[] actual = new long[longs];
+            index.fillAll(length, expected);
+            dictionary.fillAll(length, actual);
+            assertArrayEquals(expected, actual);
+
+            for (int position = 0; position < length; position++) {
+                for (int letter = 0; letter < WordIndex.ALPHABET; letter++) {
+                    String at = length + "/" + position + "/" + (char) ('A' + letter);
+                    long[] candidates = randomBits(random, length, longs);
+                    long[] excluded = candidates.clone();
+                    System.arraycopy(candidates, 0, expected, 0, longs);
+                    System.arraycopy(candidates, 0, actual, 0, longs);
+
+                    assertEquals(at, index.intersects(length, position, letter, candidates),
+                            dictionary.intersects(length, position, letter, candidates));
+                    assertEquals(at, index.retain(length, position, letter, expected),
+                            dictionary.retain(length, position, letter, false, actual));
+                    assertArrayEquals(at, expected, actual);
+
+                    // Excluding keeps exactly the candidates that retaining dropped.
+                    dictionary.retain(length, position, letter, true, excluded);
+                    for (int i = 0; i < longs; i++) {
+                        assertEquals(at, candidates[i], actual[i] | excluded[i]);
+                        assertEquals(at, 0, actual[i] & excluded[i]);
+                    }
+
+                    long[] union = new long[longs];
+                    dictionary.add(length, position, letter, union);
+                    long[] all = new long[longs];
+                    index.fillAll(length, all);
+                    index.retain(length, position, letter, all);
+                    assertArrayEquals(at, all, union);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void matchFindsEveryWordThatFitsThePattern() {
+        Random random = new Random(3);
+        List<String> valid = new ArrayList<>(new TreeSet<>(upperCaseLetterWords()));
+        for (int query = 0; query < 500; query++) {
+            // Start from a real word, so most patterns have matches.
+            char[] pattern = valid.get(random.nextInt(valid.size())).toCharArray();
+            for (int p = 0; p < pattern.length; p++) {
+                if (random.nextInt(3) != 0) {
+                    pattern[p] = WordDictionary.WILDCARD;
+                }
+            }
+            String text = new String(pattern);
+            List<String> expected = new ArrayList<>();
+            for (String word : valid) {
+                if (fits(text, word)) {
+                    expected.add(word);
+                }
+            }
+
+            assertEquals(text, expected, dictionary.match(text, Integer.MAX_VALUE));
+            assertEquals(text, expected.subList(0, Math.min(3, expected.size())), dictionary.match(text, 3));
+            long[] result = new long[dictionary.getMaskWords(pattern.length)];
+            assertEquals(text, expected.size(), dictionary.match(text, result));
+            // Lower case letters match like upper case ones.
+            assertEquals(text, expected, dictionary.match(text.toLowerCase(), Integer.MAX_VALUE));
+        }
+        assertEquals(List.of(), dictionary.match("??????????????", 10));
+    }
+
+    @Test
+    public void rejectsCorruptFiles() {
+        assertThrows(PuzzleFormatException.class, () -> new WordDictionary(ByteBuffer.wrap(new byte[0])));
+
+        byte[] badMagic = bytes.clone();
+        badMagic[1] = 'X';
+        assertThrows(PuzzleFormatException.class, () -> new WordDictionary(ByteBuffer.wrap(badMagic)));
+
+        byte[] badVersion = bytes.clone();
+        badVersion[2] = WordDictionary.VERSION + 1;
+        assertThrows(PuzzleFormatException.class, () -> new WordDictionary(ByteBuffer.wrap(badVersion)));
+
+        byte[] hugeLength = bytes.clone();
+        hugeLength[4] = 0x7F;
+        assertThrows(PuzzleFormatException.class, () -> new WordDictionary(ByteBuffer.wrap(hugeLength)));
+
+        // Cut anywhere, the file is too short for the buckets its index describes.
+        for (int length : new int[] {WordDictionary.HEADER_LENGTH, WordDictionary.HEADER_LENGTH + 20,
+                bytes.length / 2, bytes.length - 1}) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThrows("cut at " + length, PuzzleFormatException.class,
+                    () -> new WordDictionary(ByteBuffer.wrap(truncated)));
+        }
+    }
+
+    private List<String> upperCaseLetterWords() {
+        List<String> valid = new ArrayList<>();
+        for (String word : words) {
+            String upper = word.toUpperCase();
+            if (upper.chars().allMatch(c -> c >= 'A' && c <= 'Z')) {
+                valid.add(upper);
+            }
+        }
+        return valid;
+    }
+
+    private static boolean fits(String pattern, String word) {
+        if (pattern.length() != word.length()) {
+            return false;
+        }
+        for (int p = 0; p < pattern.length(); p++) {
+            char c = pattern.charAt(p);
+            if (c != WordDictionary.WILDCARD && c != word.charAt(p)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long[] randomBits(Random random, int length, int longs) {
+        long[] bits = new long[longs];
+        index.fillAll(length, bits);
+        for (int i = 0; i < longs; i++) {
+            bits[i] &= random.nextLong();
+        }
+        return bits;
+    }
+
+    private static int totalWords(WordDictionary dictionary) {
+        int total = 0;
+        for (int length = 1; length <= dictionary.getMaxLength(); length++) {
+            total += dictionary.getWordCount(length);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.crossword.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.example.crossword.model.CrosswordPuzzle;
+import com.example.crossword.model.PuzzleBoard;
+import com.example.crossword.testing.TestPuzzles;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SyncSessionTest {
+    private final CrosswordPuzzle puzzle = TestPuzzles.puzzle(15, 1);
+    private final LoopbackTransport.Hub hub = new LoopbackTransport.Hub();
+
+    @Test
+    public void editsReachTheOtherPlayer() throws IOException {
+        Player alice = new Player(1);
+        Player bob = new Player(2);
+        int cell = openCell(0);
+
+        alice.type(cell, 'Q');
+        alice.session.flush();
+
+        assertEquals('Q', bob.board.getEntry(cell));
+    }
+
+    @Test
+    public void lateJoinerAndHostTradeBoards() throws IOException {
+        Player alice = new Player(1);
+        alice.type(openCell(0), 'A');
+        alice.type(openCell(1), 'B');
+        alice.session.flush();
+
+        Player bob = new Player(2);
+        bob.type(openCell(2), 'C');
+        bob.session.join();
+        bob.session.flush();
+        assertTrue("Alice should answer with her board", alice.session.hasPendingEdits());
+        alice.session.flush();
+
+        assertSameBoard(alice.board, bob.board);
+        assertEquals('A', bob.board.getEntry(openCell(0)));
+        assertEquals('C', alice.board.getEntry(openCell(2)));
+        // The answer asks for nothing back.
+        assertFalse(bob.session.hasPendingEdits());
+    }
+
+    @Test
+    public void lettersFromBeforeJoiningSettleTheSameWayEverywhere() throws IOException {
+        Player alice = new Player(3);
+        Player bob = new Player(7);
+        int shared = openCell(0);
+        // Entered before the session, so neither is stamped.
+        alice.board.setEntry(shared, 'A');
+        bob.board.setEntry(shared, 'B');
+        alice.board.setEntry(openCell(1), 'X');
+
+        alice.session.join();
+        alice.session.flush();
+        bob.session.flush();
+
+        assertSameBoard(alice.board, bob.board);
+        assertEquals("the higher replica id wins a tie", 'B', alice.board.getEntry(shared));
+        assertEquals("a letter beats a blank", 'X', bob.board.getEntry(openCell(1)));
+    }
+
+    @Test
+    public void stampedEditsBeatUnstampedLetters() throws IOException {
+        Player alice = new Player(1);
+        Player bob = new Player(2);
+        int cell = openCell(0);
+        bob.board.setEntry(cell, 'B');
+        alice.type(cell, 'A');
+        alice.session.flush();
+
+        assertEquals('A', bob.board.getEntry(cell));
+    }
+
+    @Test
+    public void restoredStampsKeepLaterEditsWinning() throws IOException, SyncFormatException {
+        Player alice = new Player(1);
+        Player bob = new Player(2);
+        int cell = openCell(0);
+        for (char letter = 'A'; letter <= 'E'; letter++) {
+            alice.type(cell, letter);
+            alice.session.flush();
+        }
+        byte[] state = alice.session.saveState();
+        alice.transport.close();
+
+        // Alice comes back, e.g. after a rotation, with the same replica id.
+        Player back = new Player(1, alice.board);
+        back.session.restoreState(state);
+        assertEquals(alice.session.getClock(), back.session.getClock());
+        back.type(cell, 'Z');
+        back.session.flush();
+
+        assertEquals('Z', bob.board.getEntry(cell));
+    }
+
+    @Test
+    public void restoreRejectsAnotherPuzzlesState() {
+        Player alice = new Player(1);
+        alice.type(openCell(0), 'A');
+        byte[] state = alice.session.saveState();
+
+        PuzzleBoard other = PuzzleBoard.fromPuzzle(TestPuzzles.puzzle(15, 2));
+        SyncSession session = new SyncSession(other, 1, hub.connect(), (cell, entry, status) -> { });
+
+        assertThrows(SyncFormatException.class, () -> session.restoreState(state));
+    }
+
+    @Test
+    public void batchCorruptPartwayThroughChangesNothing() throws IOException, SyncFormatException {
+        List<byte[]> sent = new ArrayList<>();
+        hub.connect().setReceiver(sent::add);
+        Player alice = new Player(1);
+        int first = openCell(0);
+        int last = openCell(1);
+        alice.type(first, 'A');
+        alice.type(last, 'B');
+        alice.session.flush();
+        alice.session.join();
+        alice.session.flush();
+        byte[] edits = sent.get(0);
+        byte[] state = sent.get(1);
+
+        Player bob = new Player(2);
+        // The first edit or cell is well-formed; the last one has a letter code past Z.
+        for (byte[] batch : new byte[][] {edits, state}) {
+            byte[] corrupt = batch.clone();
+            corrupt[corrupt.length - 1] = 27;
+            assertThrows(SyncFormatException.class, () -> bob.session.receive(corrupt));
+            assertEquals(PuzzleBoard.EMPTY, bob.board.getEntry(first));
+            assertEquals(0, bob.session.getClock());
+            assertFalse("a rejected join is not answered", bob.session.hasPendingEdits());
+        }
+        byte[] corruptState = alice.session.saveState();
+        corruptState[corruptState.length - 1] = 27;
+        SyncSession restored = new SyncSession(bob.board, 1, hub.connect(), (cell, entry, status) -> { });
+        assertThrows(SyncFormatException.class, () -> restored.restoreState(corruptState));
+        assertEquals(0, restored.getClock());
+
+        // No stamp was taken from the corrupt batches, so the intact one still applies in full.
+        assertEquals(2, bob.session.receive(edits));
+        assertEquals('A', bob.board.getEntry(first));
+        assertEquals('B', bob.board.getEntry(last));
+    }
+
+    private int openCell(int n) {
+        PuzzleBoard board = PuzzleBoard.fromPuzzle(puzzle);
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (!board.isBlock(cell) && n-- == 0) {
+                return cell;
+            }
+        }
+        throw new IllegalArgumentException();
+    }
+
+    private static void assertSameBoard(PuzzleBoard expected, PuzzleBoard actual) {
+        for (int cell = 0; cell < expected.getCellCount(); cell++) {
+            assertEquals("entry " + cell, expected.getEntry(cell), actual.getEntry(cell));
+            assertEquals("status " + cell, expected.getStatus(cell), actual.getStatus(cell));
+        }
+    }
+
+    private final class Player {
+        final PuzzleBoard board;
+        final LoopbackTransport transport = hub.connect();
+        final SyncSession session;
+
+        Player(int replicaId) {
+            this(replicaId, PuzzleBoard.fromPuzzle(puzzle));
+        }
+
+        Player(int replicaId, PuzzleBoard board) {
+            this.board = board;
+            session = new SyncSession(board, replicaId, transport, (cell, entry, status) -> {
+                board.setEntry(cell, entry);
+                board.setStatus(cell, status);
+            });
+            transport.setReceiver(batch -> {
+                try {
+                    session.receive(batch);
+                } catch (SyncFormatException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+
+        void type(int cell, char letter) {
+            board.setEntry(cell, letter);
+            session.recordLocalEdit(cell, letter, board.getStatus(cell));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.crossword.sync;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.example.crossword.model.PuzzleBoard;
+import com.example.crossword.testing.TestPuzzles;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends an edit between two sessions through a real {@link SyncServer} on the loopback address,
+ * the way the app reaches {@code runSyncServer}.
+ */
+public class TcpSyncTransportTest {
+    private SyncServer server;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new SyncServer(0);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void editCrossesTheRelay() throws Exception {
+        PuzzleBoard aliceBoard = PuzzleBoard.fromPuzzle(TestPuzzles.puzzle(15, 1));
+        PuzzleBoard bobBoard = PuzzleBoard.fromPuzzle(TestPuzzles.puzzle(15, 1));
+        int cell = 0;
+        while (aliceBoard.isBlock(cell)) {
+            cell++;
+        }
+
+        CountDownLatch received = new CountDownLatch(1);
+        try (TcpSyncTransport alice = TcpSyncTransport.connect("127.0.0.1", server.getPort());
+             TcpSyncTransport bob = TcpSyncTransport.connect("127.0.0.1", server.getPort())) {
+            SyncSession aliceSession = new SyncSession(aliceBoard, 1, alice, (c, entry, status) -> { });
+            SyncSession bobSession = new SyncSession(bobBoard, 2, bob, (c, entry, status) -> {
+                bobBoard.setEntry(c, entry);
+                bobBoard.setStatus(c, status);
+                received.countDown();
+            });
+            bob.setReceiver(batch -> {
+                try {
+                    bobSession.receive(batch);
+                } catch (SyncFormatException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            waitForClients(2);
+
+            aliceBoard.setEntry(cell, 'Q');
+            aliceSession.recordLocalEdit(cell, 'Q', aliceBoard.getStatus(cell));
+            aliceSession.flush();
+
+            assertTrue("edit not relayed", received.await(5, TimeUnit.SECONDS));
+            assertEquals('Q', bobBoard.getEntry(cell));
+        }
+    }
+
+    private void waitForClients(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (server.getClientCount() < count) {
+            assertTrue("clients not accepted", System.nanoTime() < deadline);
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.crossword.testing;
+
+import com.example.crossword.model.CrosswordClue;
+import com.example.crossword.model.CrosswordPuzzle;
+import com.example.crossword.model.PuzzleData;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Builds square puzzles of any size for tests.
+ */
+public final class TestPuzzles {
+
+    private TestPuzzles() {
+        // Utility class.
+    }
+
+    /**
+     * Returns a row-major layout of random solution letters with {@link PuzzleData#BLOCK} on a
+     * fixed diagonal pattern, about one cell in five.
+     */
+    public static char[] layout(int size, long seed) {
+        Random random = new Random(seed);
+        char[] layout = new char[size * size];
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                layout[r * size + c] = (r + 2 * c) % 5 == 4
+                        ? PuzzleData.BLOCK : (char) ('A' + random.nextInt(26));
+            }
+        }
+        return layout;
+    }
+
+    public static CrosswordPuzzle puzzle(int size, long seed) {
+        return build(size, layout(size, seed));
+    }
+
+    public static CrosswordPuzzle build(int size, char[] layout) {
+        return PuzzleData.buildPuzzle("Test " + size + "x" + size, size, size, layout,
+                clueTexts(), clueTexts());
+    }
+
+    /**
+     * Returns the answer of every clue in {@code puzzle} followed by {@code extraWords} random
+     * words of the same lengths, so the solution is one of the word list's fills.
+     */
+    public static List<String> words(CrosswordPuzzle puzzle, int extraWords, long seed) {
+        List<String> words = new ArrayList<>();
+        List<CrosswordClue> clues = new ArrayList<>(puzzle.getAcrossClues());
+        clues.addAll(puzzle.getDownClues());
+        for (CrosswordClue clue : clues) {
+            StringBuilder word = new StringBuilder();
+            for (CrosswordClue.Position position : clue.getPositions()) {
+                word.append(puzzle.getGrid()[position.getRow()][position.getColumn()].getSolution());
+            }
+            words.add(word.toString());
+        }
+
+        Random random = new Random(seed);
+        int answers = words.size();
+        for (int i = 0; i < extraWords; i++) {
+            int length = words.get(random.nextInt(answers)).length();
+            StringBuilder word = new StringBuilder(length);
+            for (int p = 0; p < length; p++) {
+                word.append((char) ('A' + random.nextInt(26)));
+            }
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    private static Iterator<String> clueTexts() {
+        return new Iterator<String>() {
+            private int count;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public String next() {
+                return "Test clue " + ++count;
+            }
+        };
+    }
+}
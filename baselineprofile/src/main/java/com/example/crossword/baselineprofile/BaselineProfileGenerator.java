@@ -0,0 +1,36 @@
+package com.example.crossword.baselineprofile;
+
+import androidx.benchmark.macro.junit4.BaselineProfileRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import kotlin.Unit;
+
+/**
+ * Records the classes and methods used by cold start and a short solve, so release builds ship
+ * them precompiled instead of interpreting them on first launch.
+ *
+ * <p>Run with {@code gradle :app:generateBaselineProfile} on a device or emulator running API 28
+ * or later; the plugin copies the result into the app module.</p>
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class BaselineProfileGenerator {
+
+    @Rule
+    public final BaselineProfileRule rule = new BaselineProfileRule();
+
+    @Test
+    public void generate() {
+        rule.collect(CrosswordJourneys.PACKAGE_NAME, scope -> {
+            scope.pressHome();
+            CrosswordJourneys.startAndWaitForPuzzle(scope);
+            CrosswordJourneys.solveSomeCells(scope);
+            return Unit.INSTANCE;
+        });
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.crossword.baselineprofile;
+
+import android.view.KeyEvent;
+
+import androidx.annotation.NonNull;
+import androidx.benchmark.macro.MacrobenchmarkScope;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.Direction;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+/**
+ * User journeys shared by the profile generator and the startup benchmark.
+ */
+final class CrosswordJourneys {
+
+    static final String PACKAGE_NAME = "com.example.crossword";
+
+    private static final long TIMEOUT_MS = 10_000;
+    private static final String LETTERS = "SATOR";
+
+    private CrosswordJourneys() {
+        // Utility class.
+    }
+
+    /**
+     * Cold-starts the app and waits until the puzzle and its clues are on screen, which is when
+     * the activity reports itself fully drawn.
+     */
+    static void startAndWaitForPuzzle(@NonNull MacrobenchmarkScope scope) {
+        scope.startActivityAndWait();
+        scope.getDevice().wait(Until.hasObject(By.res(PACKAGE_NAME, "clueText")), TIMEOUT_MS);
+    }
+
+    /**
+     * Types a word, takes a hint, checks the grid and scrolls the clues.
+     */
+    static void solveSomeCells(@NonNull MacrobenchmarkScope scope) {
+        UiDevice device = scope.getDevice();
+        UiObject2 grid = device.findObject(By.res(PACKAGE_NAME, "crosswordGrid"));
+        grid.click();
+        for (int i = 0; i < LETTERS.length(); i++) {
+            device.pressKeyCode(KeyEvent.KEYCODE_A + LETTERS.charAt(i) - 'A');
+        }
+        device.findObject(By.res(PACKAGE_NAME, "hintButton")).click();
+        device.findObject(By.res(PACKAGE_NAME, "checkButton")).click();
+        device.findObject(By.res(PACKAGE_NAME, "clueList")).fling(Direction.DOWN);
+        device.waitForIdle();
+    }
+}
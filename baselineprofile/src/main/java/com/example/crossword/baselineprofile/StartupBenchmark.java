@@ -0,0 +1,68 @@
+package com.example.crossword.baselineprofile;
+
+import androidx.benchmark.macro.BaselineProfileMode;
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.Metric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import kotlin.Unit;
+
+/**
+ * Cold-start timing of the release build, with and without the baseline profile.
+ *
+ * <p>Reports time to initial display (first frame: placeholder grid and loading indicator) and time to full
+ * display (puzzle and clues shown, marked by {@code reportFullyDrawn}). Run with
+ * {@code gradle :baselineprofile:connectedCheck}.</p>
+ */
+@RunWith(Parameterized.class)
+@LargeTest
+public class StartupBenchmark {
+
+    private static final int ITERATIONS = 10;
+
+    @Parameterized.Parameters(name = "{0}")
+    public static List<Object[]> compilationModes() {
+        return Arrays.asList(
+                new Object[] {new CompilationMode.None()},
+                new Object[] {new CompilationMode.Partial(BaselineProfileMode.Require)});
+    }
+
+    @Rule
+    public final MacrobenchmarkRule rule = new MacrobenchmarkRule();
+
+    private final CompilationMode compilationMode;
+
+    public StartupBenchmark(CompilationMode compilationMode) {
+        this.compilationMode = compilationMode;
+    }
+
+    @Test
+    public void coldStartup() {
+        rule.measureRepeated(
+                CrosswordJourneys.PACKAGE_NAME,
+                Collections.<Metric>singletonList(new StartupTimingMetric()),
+                compilationMode,
+                StartupMode.COLD,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    CrosswordJourneys.startAndWaitForPuzzle(scope);
+                    return Unit.INSTANCE;
+                });
+    }
+}
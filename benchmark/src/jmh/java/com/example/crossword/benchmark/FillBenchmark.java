@@ -0,0 +1,58 @@
+package com.example.crossword.benchmark;
+
+import com.example.crossword.model.CrosswordFiller;
+import com.example.crossword.model.WordIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filling synthetic templates from dictionaries of growing size, and building the word index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FillBenchmark {
+
+    @Param({"5", "15", "21"})
+    public int size;
+
+    /** Random words added to the entries of the hidden solution. */
+    @Param({"1000", "50000", "200000"})
+    public int extraWords;
+
+    private List<String> words;
+    private CrosswordFiller filler;
+    private char[] template;
+
+    @Setup
+    public void setUp() {
+        char[] layout = SyntheticPuzzles.layout(size, size);
+        words = SyntheticPuzzles.dictionary(size, layout, extraWords, extraWords);
+        filler = new CrosswordFiller(WordIndex.build(words)).setSeed(1);
+        template = SyntheticPuzzles.template(layout);
+    }
+
+    @Benchmark
+    public WordIndex buildIndex() {
+        return WordIndex.build(words);
+    }
+
+    @Benchmark
+    public boolean fill() {
+        char[] layout = template.clone();
+        if (!filler.fillLayout(size, size, layout)) {
+            throw new IllegalStateException("No fill for " + size + "x" + size);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.crossword.benchmark;
+
+import com.example.crossword.model.CrosswordCell;
+import com.example.crossword.model.CrosswordPuzzle;
+import com.example.crossword.model.PuzzleSession;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Numbering a grid as {@code PuzzleData.createSatorSquarePuzzle} does, preparing a session on top
+ * of it and flattening its cells.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PuzzleConstructionBenchmark {
+
+    @Param({"5", "15", "50", "100"})
+    public int size;
+
+    private char[] layout;
+    private CrosswordPuzzle puzzle;
+
+    @Setup
+    public void setUp() {
+        layout = SyntheticPuzzles.layout(size, size);
+        puzzle = SyntheticPuzzles.build(size, layout);
+    }
+
+    @Benchmark
+    public CrosswordPuzzle buildPuzzle() {
+        return SyntheticPuzzles.build(size, layout);
+    }
+
+    @Benchmark
+    public PuzzleSession prepareSession() {
+        return PuzzleSession.prepare(puzzle);
+    }
+
+    @Benchmark
+    public List<CrosswordCell> getAllCells() {
+        return puzzle.getAllCells();
+    }
+}
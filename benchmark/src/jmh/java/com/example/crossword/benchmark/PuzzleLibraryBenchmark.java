@@ -0,0 +1,89 @@
+package com.example.crossword.benchmark;
+
+import com.example.crossword.model.CrosswordPuzzle;
+import com.example.crossword.model.PuzzleCache;
+import com.example.crossword.model.PuzzleLibrary;
+import com.example.crossword.model.PuzzleLibraryWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Index lookups in a mapped library, and opening a puzzle through the cache cold and warm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PuzzleLibraryBenchmark {
+
+    private static final int SIZE = 15;
+
+    @Param({"1000", "10000"})
+    public int count;
+
+    private File file;
+    private PuzzleLibrary library;
+    private PuzzleCache cache;
+    private int lookup;
+
+    @Setup
+    public void setUp() throws IOException {
+        PuzzleLibraryWriter writer = new PuzzleLibraryWriter();
+        // A few distinct puzzles repeated, so building a large library stays quick.
+        byte[][] data = new byte[16][];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = SyntheticPuzzles.toJson(SyntheticPuzzles.puzzle(SIZE, i));
+        }
+        for (int i = 0; i < count; i++) {
+            writer.add(i * 3, "Puzzle " + i, SIZE, SIZE, i % 5, data[i % data.length]);
+        }
+        file = File.createTempFile("library", ".lib");
+        writer.write(file);
+        library = PuzzleLibrary.open(file);
+        // Prefetch inline so a warm get() never races a background decode.
+        cache = new PuzzleCache(library, 4 * SIZE * SIZE, Runnable::run);
+        cache.get(0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public int indexOf() {
+        lookup = (lookup + 7919) % count;
+        return library.indexOf(lookup * 3);
+    }
+
+    @Benchmark
+    public String getTitle() {
+        lookup = (lookup + 7919) % count;
+        return library.getTitle(lookup);
+    }
+
+    @Benchmark
+    public CrosswordPuzzle loadUncached() throws IOException {
+        lookup = (lookup + 7919) % count;
+        return library.load(lookup);
+    }
+
+    /**
+     * Reopens the puzzle last shown; its decode was cached by the previous call.
+     */
+    @Benchmark
+    public CrosswordPuzzle getCached() throws IOException {
+        return cache.get(0);
+    }
+}
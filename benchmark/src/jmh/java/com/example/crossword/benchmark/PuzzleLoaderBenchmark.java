@@ -0,0 +1,67 @@
+package com.example.crossword.benchmark;
+
+import com.example.crossword.model.CrosswordPuzzle;
+import com.example.crossword.model.PuzzleLoaders;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing throughput over a corpus of synthetic puzzles, in JSON and as Across Lite {@code .puz}
+ * files, reported per puzzle.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PuzzleLoaderBenchmark {
+
+    private static final int CORPUS_SIZE = 64;
+
+    @Param({"5", "15", "21", "50"})
+    public int size;
+
+    private byte[][] jsonCorpus;
+    private byte[][] puzCorpus;
+
+    @Setup
+    public void setUp() {
+        jsonCorpus = new byte[CORPUS_SIZE][];
+        puzCorpus = new byte[CORPUS_SIZE][];
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            CrosswordPuzzle puzzle = SyntheticPuzzles.puzzle(size, i);
+            jsonCorpus[i] = SyntheticPuzzles.toJson(puzzle);
+            puzCorpus[i] = SyntheticPuzzles.toPuz(puzzle);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public void loadJson(Blackhole blackhole) throws IOException {
+        load(jsonCorpus, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CORPUS_SIZE)
+    public void loadPuz(Blackhole blackhole) throws IOException {
+        load(puzCorpus, blackhole);
+    }
+
+    private static void load(byte[][] corpus, Blackhole blackhole) throws IOException {
+        for (byte[] data : corpus) {
+            CrosswordPuzzle puzzle = PuzzleLoaders.load(new ByteArrayInputStream(data));
+            blackhole.consume(puzzle);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.crossword.benchmark;
+
+import com.example.crossword.model.PuzzleBoard;
+import com.example.crossword.model.PuzzleSession;
+import com.example.crossword.model.SolveHistory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replaying a long solve log, as done when restoring or exporting a session.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SolveHistoryBenchmark {
+
+    private static final int SIZE = 15;
+
+    @Param({"1000", "10000"})
+    public int events;
+
+    private SolveHistory history;
+    private PuzzleBoard board;
+    private PuzzleBoard replayBoard;
+
+    @Setup
+    public void setUp() {
+        board = PuzzleSession.prepare(SyntheticPuzzles.puzzle(SIZE, 1)).getBoard();
+        replayBoard = PuzzleSession.prepare(SyntheticPuzzles.puzzle(SIZE, 1)).getBoard();
+        history = new SolveHistory();
+        Random random = new Random(events);
+        while (history.getEventCount() < events) {
+            int cell = random.nextInt(board.getCellCount());
+            if (board.isBlock(cell)) {
+                continue;
+            }
+            char previous = board.getEntry(cell);
+            char entry = random.nextInt(8) == 0 ? PuzzleBoard.EMPTY : (char) ('A' + random.nextInt(26));
+            board.setEntry(cell, entry);
+            history.recordEdit(entry == PuzzleBoard.EMPTY ? SolveHistory.EVENT_ERASED : SolveHistory.EVENT_TYPED,
+                    cell, previous, PuzzleBoard.STATUS_DEFAULT, entry, PuzzleBoard.STATUS_DEFAULT);
+            if (random.nextInt(10) == 0) {
+                history.undo(board);
+            }
+        }
+    }
+
+    @Benchmark
+    public PuzzleBoard applyTo() {
+        history.applyTo(replayBoard);
+        return replayBoard;
+    }
+
+    @Benchmark
+    public void replay(Blackhole blackhole) {
+        history.replay((type, cell, previousEntry, entry, previousStatus, status) -> blackhole.consume(cell));
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.crossword.benchmark;
+
+import com.example.crossword.model.ClueProgressTracker;
+import com.example.crossword.model.CrosswordClue;
+import com.example.crossword.model.CrosswordPuzzle;
+import com.example.crossword.model.PuzzleBoard;
+import com.example.crossword.model.PuzzleSession;
+import com.example.crossword.model.SolveProgressTracker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The work done per keystroke, check and hint late in a solve, when every cell but the last is
+ * correct. Each incremental path is measured next to the full scan it replaced in
+ * {@code MainActivity}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SolveStateBenchmark {
+
+    @Param({"5", "15", "50", "100"})
+    public int size;
+
+    private CrosswordPuzzle puzzle;
+    private PuzzleBoard board;
+    private ClueProgressTracker clueTracker;
+    private SolveProgressTracker progress;
+    private int lastCell;
+    private boolean lastCellCorrect;
+
+    @Setup
+    public void setUp() {
+        PuzzleSession session = PuzzleSession.prepare(SyntheticPuzzles.puzzle(size, size));
+        puzzle = session.getPuzzle();
+        board = session.getBoard();
+        clueTracker = session.getClueTracker();
+        progress = session.getProgress();
+
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (!board.isBlock(cell)) {
+                lastCell = cell;
+                board.setEntry(cell, board.getSolution(cell));
+                clueTracker.setCellCorrect(cell, true);
+            }
+        }
+        board.setEntry(lastCell, PuzzleBoard.EMPTY);
+        clueTracker.setCellCorrect(lastCell, false);
+        progress.rebuild();
+        progress.check(cell -> { });
+    }
+
+    /**
+     * Recomputes every clue's solved flag from the grid, as {@code updateClueList} did.
+     */
+    @Benchmark
+    public int rescanClueSolvedState() {
+        return rescanClues(puzzle.getAcrossClues()) + rescanClues(puzzle.getDownClues());
+    }
+
+    /**
+     * Updates the solved flags for one changed cell.
+     */
+    @Benchmark
+    public int trackClueSolvedState() {
+        lastCellCorrect = !lastCellCorrect;
+        return clueTracker.setCellCorrect(lastCell, lastCellCorrect);
+    }
+
+    /**
+     * Grades every cell, as the original check button did.
+     */
+    @Benchmark
+    public int scanCheck() {
+        int changed = 0;
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (board.isBlock(cell)) {
+                continue;
+            }
+            byte status;
+            if (board.isEmpty(cell)) {
+                status = PuzzleBoard.STATUS_DEFAULT;
+            } else if (board.isCorrect(cell)) {
+                status = board.getStatus(cell) == PuzzleBoard.STATUS_HINTED
+                        ? PuzzleBoard.STATUS_HINTED : PuzzleBoard.STATUS_CORRECT;
+            } else {
+                status = PuzzleBoard.STATUS_INCORRECT;
+            }
+            if (status != board.getStatus(cell)) {
+                board.setStatus(cell, status);
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Types into one cell and grades only what changed since the previous check.
+     */
+    @Benchmark
+    public void trackedCheck(Blackhole blackhole) {
+        char previous = board.getEntry(lastCell);
+        board.setEntry(lastCell, previous == PuzzleBoard.EMPTY ? 'Q' : PuzzleBoard.EMPTY);
+        progress.onEntryChanged(lastCell, previous);
+        progress.check(blackhole::consume);
+    }
+
+    /**
+     * Finds the first incorrect cell in reading order, as the original hint button did.
+     */
+    @Benchmark
+    public int scanHint() {
+        for (int cell = 0; cell < board.getCellCount(); cell++) {
+            if (!board.isBlock(cell) && !board.isCorrect(cell)) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    @Benchmark
+    public int trackedHint() {
+        return progress.nextHintCell(SolveProgressTracker.HintStrategy.READING_ORDER, -1);
+    }
+
+    private int rescanClues(List<CrosswordClue> clues) {
+        int columns = board.getColumns();
+        int solved = 0;
+        for (CrosswordClue clue : clues) {
+            boolean correct = true;
+            for (CrosswordClue.Position position : clue.getPositions()) {
+                if (!board.isCorrect(position.getRow() * columns + position.getColumn())) {
+                    correct = false;
+                    break;
+                }
+            }
+            clue.setSolved(correct);
+            if (correct) {
+                solved++;
+            }
+        }
+        return solved;
+    }
+}
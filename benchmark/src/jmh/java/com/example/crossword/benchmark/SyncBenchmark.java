@@ -0,0 +1,115 @@
+package com.example.crossword.benchmark;
+
+import com.example.crossword.model.PuzzleBoard;
+import com.example.crossword.model.PuzzleSession;
+import com.example.crossword.sync.LoopbackTransport;
+import com.example.crossword.sync.SyncFormatException;
+import com.example.crossword.sync.SyncSession;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two players syncing a 21x21 board over the in-process transport: one records and flushes a
+ * frame's worth of edits, the other decodes and applies them.
+ *
+ * <p>The score is batches per second. The {@code edits} and {@code bytes} counters give edits and
+ * encoded bytes per second, so their ratio is the wire cost of one edit; edits that hit a cell
+ * already queued in the same batch are coalesced and not counted.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SyncBenchmark {
+
+    private static final int SIZE = 21;
+    private static final int EDIT_COUNT = 1 << 16;
+
+    @Param({"1", "8", "64"})
+    public int batchSize;
+
+    private SyncSession sender;
+    private SyncSession receiver;
+    private int[] editCells;
+    private char[] editEntries;
+    private int next;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Traffic {
+        public long edits;
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            edits = 0;
+            bytes = 0;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        PuzzleBoard senderBoard = PuzzleSession.prepare(SyntheticPuzzles.puzzle(SIZE, 1)).getBoard();
+        PuzzleBoard receiverBoard = PuzzleSession.prepare(SyntheticPuzzles.puzzle(SIZE, 1)).getBoard();
+
+        LoopbackTransport.Hub hub = new LoopbackTransport.Hub();
+        LoopbackTransport senderTransport = hub.connect();
+        LoopbackTransport receiverTransport = hub.connect();
+        sender = new SyncSession(senderBoard, 1, senderTransport, (cell, entry, status) -> { });
+        receiver = new SyncSession(receiverBoard, 2, receiverTransport, (cell, entry, status) -> {
+            receiverBoard.setEntry(cell, entry);
+            receiverBoard.setStatus(cell, status);
+        });
+        receiverTransport.setReceiver(batch -> {
+            try {
+                receiver.receive(batch);
+            } catch (SyncFormatException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        Random random = new Random(batchSize);
+        editCells = new int[EDIT_COUNT];
+        editEntries = new char[EDIT_COUNT];
+        for (int i = 0; i < EDIT_COUNT; i++) {
+            int cell;
+            do {
+                cell = random.nextInt(senderBoard.getCellCount());
+            } while (senderBoard.isBlock(cell));
+            editCells[i] = cell;
+            editEntries[i] = random.nextInt(8) == 0 ? PuzzleBoard.EMPTY : (char) ('A' + random.nextInt(26));
+        }
+    }
+
+    @Benchmark
+    public int sendBatch(Traffic traffic) {
+        for (int i = 0; i < batchSize; i++) {
+            int k = next;
+            next = (k + 1) & (EDIT_COUNT - 1);
+            sender.recordLocalEdit(editCells[k], editEntries[k], PuzzleBoard.STATUS_DEFAULT);
+        }
+        long bytesBefore = sender.getSentBytes();
+        int sent;
+        try {
+            sent = sender.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        traffic.edits += sent;
+        traffic.bytes += sender.getSentBytes() - bytesBefore;
+        return sent;
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.crossword.benchmark;
+
+import com.example.crossword.model.CrosswordCell;
+import com.example.crossword.model.CrosswordClue;
+import com.example.crossword.model.CrosswordFiller;
+import com.example.crossword.model.CrosswordPuzzle;
+import com.example.crossword.model.PuzzleData;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates square puzzles of any size for the benchmarks.
+ *
+ * <p>Black squares run along diagonals so that every row and column has one in each five cells.
+ * That gives the short, fully checked entries of a real grid at any size, with every open cell in
+ * an entry of at least two letters. The solution letters are random, so {@link #dictionary} can
+ * always supply a fill.</p>
+ */
+final class SyntheticPuzzles {
+
+    private SyntheticPuzzles() {
+        // Utility class.
+    }
+
+    /**
+     * Returns a row-major layout of random solution letters with {@link PuzzleData#BLOCK} squares.
+     */
+    static char[] layout(int size, long seed) {
+        Random random = new Random(seed);
+        char[] layout = new char[size * size];
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                layout[r * size + c] = isBlock(r, c) ? PuzzleData.BLOCK : (char) ('A' + random.nextInt(26));
+            }
+        }
+        return layout;
+    }
+
+    /**
+     * Returns the layout's block pattern with all other cells left for a filler to choose.
+     */
+    static char[] template(char[] layout) {
+        char[] template = layout.clone();
+        for (int i = 0; i < template.length; i++) {
+            if (template[i] != PuzzleData.BLOCK) {
+                template[i] = CrosswordFiller.OPEN;
+            }
+        }
+        return template;
+    }
+
+    static CrosswordPuzzle puzzle(int size, long seed) {
+        return build(size, layout(size, seed));
+    }
+
+    static CrosswordPuzzle build(int size, char[] layout) {
+        return PuzzleData.buildPuzzle("Synthetic " + size + "x" + size, size, size, layout,
+                clueTexts(), clueTexts());
+    }
+
+    /**
+     * Returns every entry of two or more letters in {@code layout} followed by {@code extraWords}
+     * random words of the same lengths, so the layout is one of the dictionary's fills.
+     */
+    static List<String> dictionary(int size, char[] layout, int extraWords, long seed) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int pass = 0; pass < 2; pass++) {
+            for (int line = 0; line < size; line++) {
+                for (int k = 0; k <= size; k++) {
+                    char c = k == size ? PuzzleData.BLOCK
+                            : layout[pass == 0 ? line * size + k : k * size + line];
+                    if (c != PuzzleData.BLOCK) {
+                        word.append(c);
+                        continue;
+                    }
+                    if (word.length() >= 2) {
+                        words.add(word.toString());
+                    }
+                    word.setLength(0);
+                }
+            }
+        }
+
+        Random random = new Random(seed);
+        int entries = words.size();
+        for (int i = 0; i < extraWords; i++) {
+            int length = words.get(random.nextInt(entries)).length();
+            word.setLength(0);
+            for (int p = 0; p < length; p++) {
+                word.append((char) ('A' + random.nextInt(26)));
+            }
+            words.add(word.toString());
+        }
+        return words;
+    }
+
+    /**
+     * Encodes {@code puzzle} in the app's JSON puzzle format.
+     */
+    static byte[] toJson(CrosswordPuzzle puzzle) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"title\":\"").append(puzzle.getTitle()).append("\",\"grid\":[");
+        for (int r = 0; r < puzzle.getRows(); r++) {
+            json.append(r == 0 ? "\"" : ",\"");
+            for (int c = 0; c < puzzle.getColumns(); c++) {
+                json.append(puzzle.getGrid()[r][c].getSolution());
+            }
+            json.append('"');
+        }
+        json.append("],\"across\":");
+        appendClues(json, puzzle.getAcrossClues());
+        json.append(",\"down\":");
+        appendClues(json, puzzle.getDownClues());
+        json.append('}');
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encodes {@code puzzle} as an Across Lite {@code .puz} file, version 1.3, with every checksum
+     * filled in. The format has no clues for one-cell runs, so those are left out.
+     */
+    static byte[] toPuz(CrosswordPuzzle puzzle) {
+        int width = puzzle.getColumns();
+        int height = puzzle.getRows();
+        int cellCount = width * height;
+        byte[] solution = new byte[cellCount];
+        byte[] playerGrid = new byte[cellCount];
+        for (int r = 0; r < height; r++) {
+            for (int c = 0; c < width; c++) {
+                CrosswordCell cell = puzzle.getGrid()[r][c];
+                solution[r * width + c] = (byte) (cell.isBlock() ? '.' : cell.getSolution());
+                playerGrid[r * width + c] = (byte) (cell.isBlock() ? '.' : '-');
+            }
+        }
+
+        // Clues go in number order, across before down at the same number.
+        List<CrosswordClue> across = puzzle.getAcrossClues();
+        List<CrosswordClue> down = puzzle.getDownClues();
+        List<byte[]> clues = new ArrayList<>(across.size() + down.size());
+        for (int a = 0, d = 0; a < across.size() || d < down.size(); ) {
+            boolean takeAcross = d == down.size()
+                    || (a < across.size() && across.get(a).getNumber() <= down.get(d).getNumber());
+            CrosswordClue clue = takeAcross ? across.get(a++) : down.get(d++);
+            if (clue.getPositions().size() > 1) {
+                clues.add(clue.getText().getBytes(StandardCharsets.ISO_8859_1));
+            }
+        }
+        byte[] title = puzzle.getTitle().getBytes(StandardCharsets.ISO_8859_1);
+
+        byte[] header = new byte[0x34];
+        System.arraycopy("ACROSS&DOWN\0".getBytes(StandardCharsets.US_ASCII), 0, header, 0x02, 12);
+        System.arraycopy("1.3\0".getBytes(StandardCharsets.US_ASCII), 0, header, 0x18, 4);
+        header[0x2C] = (byte) width;
+        header[0x2D] = (byte) height;
+        writeShort(header, 0x2E, clues.size());
+        writeShort(header, 0x30, 1);
+
+        int cib = checksum(header, 0x2C, 8, 0);
+        int solutionSum = checksum(solution, 0, cellCount, 0);
+        int gridSum = checksum(playerGrid, 0, cellCount, 0);
+        int part = checksum(title, 0, title.length, 0);
+        part = checksum(new byte[1], 0, 1, part);
+        for (byte[] clue : clues) {
+            part = checksum(clue, 0, clue.length, part);
+        }
+        int overall = checksum(playerGrid, 0, cellCount, checksum(solution, 0, cellCount, cib));
+        overall = checksum(title, 0, title.length, overall);
+        overall = checksum(new byte[1], 0, 1, overall);
+        for (byte[] clue : clues) {
+            overall = checksum(clue, 0, clue.length, overall);
+        }
+        writeShort(header, 0x00, overall);
+        writeShort(header, 0x0E, cib);
+        byte[] mask = "ICHEATED".getBytes(StandardCharsets.US_ASCII);
+        int[] parts = {cib, solutionSum, gridSum, part};
+        for (int i = 0; i < parts.length; i++) {
+            header[0x10 + i] = (byte) (mask[i] ^ parts[i]);
+            header[0x14 + i] = (byte) (mask[i + 4] ^ (parts[i] >> 8));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(header, 0, header.length);
+        out.write(solution, 0, cellCount);
+        out.write(playerGrid, 0, cellCount);
+        out.write(title, 0, title.length);
+        // Terminators for the title, the empty author and the empty copyright.
+        out.write(0);
+        out.write(0);
+        out.write(0);
+        for (byte[] clue : clues) {
+            out.write(clue, 0, clue.length);
+            out.write(0);
+        }
+        // Empty notes.
+        out.write(0);
+        return out.toByteArray();
+    }
+
+    private static int checksum(byte[] data, int offset, int length, int sum) {
+        for (int i = offset; i < offset + length; i++) {
+            sum = (sum & 1) != 0 ? (sum >> 1) + 0x8000 : sum >> 1;
+            sum = (sum + (data[i] & 0xFF)) & 0xFFFF;
+        }
+        return sum;
+    }
+
+    private static void writeShort(byte[] data, int offset, int value) {
+        data[offset] = (byte) value;
+        data[offset + 1] = (byte) (value >> 8);
+    }
+
+    private static boolean isBlock(int row, int column) {
+        return (row + 2 * column) % 5 == 4;
+    }
+
+    private static void appendClues(StringBuilder json, List<CrosswordClue> clues) {
+        json.append('[');
+        for (int i = 0; i < clues.size(); i++) {
+            json.append(i == 0 ? "\"" : ",\"").append(clues.get(i).getText()).append('"');
+        }
+        json.append(']');
+    }
+
+    private static Iterator<String> clueTexts() {
+        return new Iterator<String>() {
+            private int count;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public String next() {
+                return "Synthetic clue " + ++count;
+            }
+        };
+    }
+}
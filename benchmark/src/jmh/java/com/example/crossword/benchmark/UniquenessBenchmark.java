@@ -0,0 +1,59 @@
+package com.example.crossword.benchmark;
+
+import com.example.crossword.model.CrosswordPuzzle;
+import com.example.crossword.model.FillCounter;
+import com.example.crossword.model.WordIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Uniqueness checks on pools of each size, so the results chart the speedup from one core up.
+ * The random words make a second fill likely, so runs also cover cancelling the other subtasks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class UniquenessBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    @Param({"15", "21"})
+    public int size;
+
+    @Param({"50000", "200000"})
+    public int extraWords;
+
+    private ForkJoinPool pool;
+    private FillCounter counter;
+    private CrosswordPuzzle puzzle;
+
+    @Setup
+    public void setUp() {
+        char[] layout = SyntheticPuzzles.layout(size, size);
+        pool = new ForkJoinPool(parallelism);
+        counter = new FillCounter(WordIndex.build(SyntheticPuzzles.dictionary(size, layout, extraWords, size)), pool);
+        puzzle = SyntheticPuzzles.build(size, layout);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int countFills() {
+        return counter.countFills(puzzle, FillCounter.UNIQUENESS_LIMIT);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.crossword.benchmark;
+
+import com.example.crossword.model.WordDictionary;
+import com.example.crossword.model.WordDictionaryWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pattern queries against a mapped dictionary, next to a scan of the same words held as strings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WordDictionaryBenchmark {
+
+    private static final int WORD_COUNT = 250_000;
+
+    @Param({"?????", "A?B?C", "B????????", "??A??E???"})
+    public String pattern;
+
+    private File file;
+    private WordDictionary dictionary;
+    private List<String> words;
+    private long[] result;
+
+    @Setup
+    public void setUp() throws IOException {
+        // Skewed letters, so common letters match many words as in a real list.
+        Random random = new Random(WORD_COUNT);
+        words = new ArrayList<>(WORD_COUNT);
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < WORD_COUNT; i++) {
+            int length = 3 + random.nextInt(13);
+            word.setLength(0);
+            for (int p = 0; p < length; p++) {
+                double skewed = random.nextDouble();
+                word.append((char) ('A' + (int) (skewed * skewed * 26)));
+            }
+            words.add(word.toString());
+        }
+        file = File.createTempFile("words", ".dict");
+        new WordDictionaryWriter(words).write(file);
+        dictionary = WordDictionary.open(file);
+        result = new long[dictionary.getMaskWords(pattern.length())];
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public int countMatches() {
+        return dictionary.match(pattern, result);
+    }
+
+    @Benchmark
+    public List<String> firstMatches() {
+        return dictionary.match(pattern, 50);
+    }
+
+    @Benchmark
+    public int scanStrings() {
+        int matches = 0;
+        int length = pattern.length();
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            if (word.length() != length) {
+                continue;
+            }
+            boolean fits = true;
+            for (int p = 0; p < length && fits; p++) {
+                char c = pattern.charAt(p);
+                fits = c == WordDictionary.WILDCARD || c == word.charAt(p);
+            }
+            if (fits) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.crossword.tools;
+
+import com.example.crossword.model.WordDictionary;
+import com.example.crossword.model.WordDictionaryWriter;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs plain-text word lists into a {@link WordDictionary} file.
+ *
+ * <pre>
+ * gradle :tools:run --args="words.dict list1.txt [list2.txt ...]"
+ * </pre>
+ *
+ * <p>Lists hold one word per line. Anything after a {@code ;} is ignored, so scored lists such as
+ * {@code SATOR;50} can be used as they are.</p>
+ */
+public final class BuildDictionary {
+
+    private BuildDictionary() {
+        // Command-line entry point only.
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BuildDictionary <output.dict> <words.txt>...");
+            System.exit(2);
+        }
+        List<String> words = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            try (BufferedReader reader = Files.newBufferedReader(Paths.get(args[i]), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int end = line.indexOf(';');
+                    String word = (end < 0 ? line : line.substring(0, end)).trim();
+                    if (!word.isEmpty()) {
+                        words.add(word);
+                    }
+                }
+            }
+        }
+
+        File output = new File(args[0]);
+        new WordDictionaryWriter(words).write(output);
+        WordDictionary dictionary = WordDictionary.open(output);
+        int total = 0;
+        for (int length = 1; length <= dictionary.getMaxLength(); length++) {
+            total += dictionary.getWordCount(length);
+        }
+        System.out.printf("Wrote %d of %d words (up to %d letters) to %s, %d bytes%n", total, words.size(),
+                dictionary.getMaxLength(), output, output.length());
+    }
+}